@@ -1,24 +1,38 @@
 package application.controller;
 
+import application.dto.AccountBalanceResultDTO;
 import application.dto.BalanceDTO;
 import application.dto.CreateAccountDTO;
+import application.exceptions.ApiAdviceHandler;
+import application.exceptions.TooManyAccountIdsException;
 import domain.model.Account;
+import domain.model.VersionedAccount;
 import domain.ports.service.AccountServicePort;
 import jakarta.validation.Valid;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.function.Function;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @RestController
 @RequestMapping("/api/v1/accounts")
 public class AccountController {
 
+    static final int MAX_BALANCE_IDS = 1000;
+
     private final AccountServicePort accountServicePort;
 
     public AccountController(final AccountServicePort accountServicePort) {
@@ -31,16 +45,75 @@ public class AccountController {
         return accountServicePort.createNewAccount(createAccountDTO.name(), createAccountDTO.limit());
     }
 
+    /**
+     * Tagged with the {@link #eTag} of the account version, a request whose {@code If-None-Match} still holds it is
+     * answered {@code 304 Not Modified} after reading only the version.
+     */
     @GetMapping(value = "/{accountId}")
-    public Mono<Account> getAccountById(@PathVariable String accountId) {
-        return accountServicePort.findAccountById(accountId);
+    public Mono<ResponseEntity<Account>> getAccountById(@PathVariable String accountId, ServerWebExchange exchange) {
+        return conditional(accountId, exchange, VersionedAccount::account);
     }
 
+    /**
+     * Conditional like {@link #getAccountById}, with the same tag.
+     */
     @GetMapping(value = "/{accountId}/balance")
-    public Mono<BalanceDTO> getBalanceById(@PathVariable String accountId) {
-        return accountServicePort.retrieveBalanceFromAccountId(accountId)
+    public Mono<ResponseEntity<BalanceDTO>> getBalanceById(@PathVariable String accountId, ServerWebExchange exchange) {
+        return conditional(accountId, exchange, versioned -> new BalanceDTO(versioned.account().balance()));
+    }
+
+    /**
+     * Balances of the accounts whose ids are posted, streamed as they are read. An id of no account gets an entry with
+     * its error instead of failing the whole request. At most {@link #MAX_BALANCE_IDS} ids are read per request.
+     */
+    @PostMapping("/balances")
+    public Flux<AccountBalanceResultDTO> getBalances(@RequestBody final Set<String> accountIds) {
+        if (accountIds.size() > MAX_BALANCE_IDS) {
+            return Flux.error(new TooManyAccountIdsException(accountIds.size(), MAX_BALANCE_IDS));
+        }
+        return accountServicePort.retrieveBalances(accountIds)
+                .map(result -> result.isSuccess()
+                        ? new AccountBalanceResultDTO(result.accountId(), result.balance(), null)
+                        : new AccountBalanceResultDTO(result.accountId(), null, ApiAdviceHandler.errorOf(result.error())));
+    }
+
+    /**
+     * Balance once every movement dated at or before {@code asOf} was applied, for example
+     * {@code ?asOf=2023-10-31T18:00:00}.
+     */
+    @GetMapping(value = "/{accountId}/balance", params = "asOf")
+    public Mono<BalanceDTO> getBalanceAsOf(@PathVariable String accountId,
+                                           @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime asOf) {
+        return accountServicePort.retrieveBalanceAsOf(accountId, asOf)
                 .map(BalanceDTO::new);
     }
 
+    private <T> Mono<ResponseEntity<T>> conditional(final String accountId, final ServerWebExchange exchange,
+                                                    final Function<VersionedAccount, T> body) {
+        if (exchange.getRequest().getHeaders().getIfNoneMatch().isEmpty()) {
+            return current(accountId, body);
+        }
+        return accountServicePort.retrieveAccountVersion(accountId)
+                .flatMap(version -> {
+                    final var eTag = eTag(accountId, version);
+                    return exchange.checkNotModified(eTag)
+                            ? Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).<T>build())
+                            : current(accountId, body);
+                });
+    }
+
+    private <T> Mono<ResponseEntity<T>> current(final String accountId, final Function<VersionedAccount, T> body) {
+        return accountServicePort.findVersionedAccountById(accountId)
+                .map(versioned -> ResponseEntity.ok()
+                        .eTag(eTag(accountId, versioned.version()))
+                        .body(body.apply(versioned)));
+    }
+
+    /**
+     * Strong tag of the account id and version, which changes with every balance update.
+     */
+    static String eTag(final String accountId, final long version) {
+        return "\"" + accountId + "-" + version + "\"";
+    }
 
 }
@@ -1,16 +1,33 @@
 package application.controller;
 
+import application.dto.BatchMovementDTO;
+import application.dto.BatchMovementResultDTO;
 import application.dto.CreateMovementDTO;
+import application.dto.MovementTotalsDTO;
 import application.dto.TransferMovementDTO;
+import application.exceptions.ApiAdviceHandler;
+import application.exceptions.InvalidMovementException;
+import application.exceptions.TooManyMovementsException;
 import domain.model.Movement;
+import domain.model.MovementCommand;
+import domain.model.MovementOperation;
+import domain.model.MovementPage;
+import domain.model.MovementResult;
 import domain.model.MovementType;
 import domain.ports.service.MovementServicePort;
 import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -18,52 +35,218 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @RestController
-@RequestMapping("/api/v1/movements/{accountId}")
+@RequestMapping("/api/v1/movements")
 public class MovementController {
 
+    /**
+     * Response header holding the {@code after} cursor of the next page, absent on the last page.
+     */
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    /**
+     * Request header an event source reconnects with, holding the id of the last event it received.
+     */
+    public static final String LAST_EVENT_ID_HEADER = "Last-Event-ID";
+
+    public static final String MOVEMENT_EVENT = "movement";
+
+    static final int MAX_BATCH_MOVEMENTS = 1000;
+
     private final MovementServicePort movementServicePort;
 
     public MovementController(final MovementServicePort movementServicePort) {
         this.movementServicePort = movementServicePort;
     }
 
-    @PostMapping("/deposit")
+    @PostMapping("/{accountId}/deposit")
     public Mono<Movement> deposit(@PathVariable final String accountId, @RequestBody final CreateMovementDTO createMovementDTO) {
         return movementServicePort.deposit(accountId, createMovementDTO.amount());
     }
 
-    @PostMapping("/withdraw")
+    @PostMapping("/{accountId}/withdraw")
     public Mono<Movement> withdraw(@PathVariable final String accountId, @RequestBody final CreateMovementDTO createMovementDTO) {
         return movementServicePort.withdraw(accountId, createMovementDTO.amount());
     }
 
-    @PostMapping("/transfer")
+    @PostMapping("/{accountId}/transfer")
     public Mono<Movement> transfer(@PathVariable final String accountId, @RequestBody final TransferMovementDTO transferMovementDTO) {
         return movementServicePort.transfer(accountId, transferMovementDTO.creditAccountId(), transferMovementDTO.amount());
     }
 
-    @GetMapping
-    public Flux<Movement> findMovementsByPeriod(@PathVariable final String accountId,
-                                                @RequestParam(value = "start", required = true) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-                                                @RequestParam(value = "end", required = true) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
-                                                @RequestParam(value = "page", defaultValue = "0", required = false) Integer page,
-                                                @RequestParam(value = "pageSize", defaultValue = "25", required = false) Integer pageSize
+    /**
+     * Applies the movements in one transaction and streams the result of each with its index, in the order of the
+     * request. An entry missing a field it needs is not applied and gets its error at its index. At most
+     * {@link #MAX_BATCH_MOVEMENTS} movements are applied per request.
+     */
+    @PostMapping("/batch")
+    public Flux<BatchMovementResultDTO> batch(@RequestBody final List<BatchMovementDTO> batchMovementDTOs) {
+        if (batchMovementDTOs.size() > MAX_BATCH_MOVEMENTS) {
+            return Flux.error(new TooManyMovementsException(batchMovementDTOs.size(), MAX_BATCH_MOVEMENTS));
+        }
+        final var invalid = new ArrayDeque<BatchMovementResultDTO>();
+        final var commandIndexes = new ArrayList<Integer>();
+        final var commands = new ArrayList<MovementCommand>();
+        for (int index = 0; index < batchMovementDTOs.size(); index++) {
+            final var dto = batchMovementDTOs.get(index);
+            final var missingField = missingField(dto);
+            if (missingField != null) {
+                invalid.add(toResult(index, MovementResult.failure(new InvalidMovementException(missingField))));
+            } else {
+                commandIndexes.add(index);
+                commands.add(new MovementCommand(dto.operation(), dto.accountId(), dto.creditAccountId(), dto.amount()));
+            }
+        }
+        if (commands.isEmpty()) {
+            return Flux.fromIterable(invalid);
+        }
+        // the invalid entries are slotted in before the first result following them, to keep the order of the request
+        return movementServicePort.batch(commands)
+                .index()
+                .concatMapIterable(indexedResult -> {
+                    final var index = commandIndexes.get(indexedResult.getT1().intValue());
+                    final var ordered = new ArrayList<BatchMovementResultDTO>();
+                    while (!invalid.isEmpty() && invalid.peek().index() < index) {
+                        ordered.add(invalid.poll());
+                    }
+                    ordered.add(toResult(index, indexedResult.getT2()));
+                    return ordered;
+                })
+                .concatWith(Flux.defer(() -> Flux.fromIterable(invalid)));
+    }
+
+    /**
+     * Movements of the period, newest first. The first page and the pages requested with the {@code after} cursor of
+     * the previous one are read by seeking; {@code page} is still honoured, through an offset, when no cursor is given.
+     */
+    @GetMapping("/{accountId}")
+    public Mono<ResponseEntity<List<Movement>>> findMovementsByPeriod(@PathVariable final String accountId,
+                                                                      @RequestParam(value = "start", required = true) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+                                                                      @RequestParam(value = "end", required = true) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+                                                                      @RequestParam(value = "page", defaultValue = "0", required = false) Integer page,
+                                                                      @RequestParam(value = "pageSize", defaultValue = "25", required = false) Integer pageSize,
+                                                                      @RequestParam(value = "after", required = false) String after
     ) {
-        return movementServicePort.findMovementsByPeriod(accountId, startDate.atStartOfDay(), endDate.atStartOfDay().plusDays(1).minusNanos(1), page, pageSize);
+        final var start = startDate.atStartOfDay();
+        final var end = endDate.atStartOfDay().plusDays(1).minusNanos(1);
+        if (after == null && page > 0) {
+            return toResponse(movementServicePort.findMovementsByPeriod(accountId, start, end, page, pageSize));
+        }
+        return movementServicePort.findMovementPageByPeriod(accountId, start, end, MovementCursors.decode(after), pageSize)
+                .map(MovementController::toResponse);
+    }
+
+    @GetMapping("/{accountId}/credit")
+    public Mono<ResponseEntity<List<Movement>>> findCreditMovements(@PathVariable final String accountId,
+                                                                    @RequestParam(value = "page", defaultValue = "0", required = false) Integer page,
+                                                                    @RequestParam(value = "pageSize", defaultValue = "25", required = false) Integer pageSize,
+                                                                    @RequestParam(value = "after", required = false) String after) {
+        return findMovementsByType(accountId, MovementType.CREDIT, page, pageSize, after);
+    }
+
+    @GetMapping("/{accountId}/debit")
+    public Mono<ResponseEntity<List<Movement>>> findDebitMovements(@PathVariable final String accountId,
+                                                                   @RequestParam(value = "page", defaultValue = "0", required = false) Integer page,
+                                                                   @RequestParam(value = "pageSize", defaultValue = "25", required = false) Integer pageSize,
+                                                                   @RequestParam(value = "after", required = false) String after) {
+        return findMovementsByType(accountId, MovementType.DEBIT, page, pageSize, after);
+    }
+
+    /**
+     * Streams the whole history of the account as newline delimited JSON, newest first, from a single database query
+     * read as fast as the client consumes it. The filters are optional and match the ones of the listings.
+     */
+    @GetMapping(value = "/{accountId}/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Movement> exportMovements(@PathVariable final String accountId,
+                                          @RequestParam(value = "start", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+                                          @RequestParam(value = "end", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+                                          @RequestParam(value = "type", required = false) MovementType type) {
+        return movementServicePort.exportMovements(
+                accountId,
+                startDate == null ? null : startDate.atStartOfDay(),
+                endDate == null ? null : endDate.atStartOfDay().plusDays(1).minusNanos(1),
+                type
+        );
     }
 
-    @GetMapping("/credit")
-    public Flux<Movement> findCreditMovements(@PathVariable final String accountId,
-                                              @RequestParam(value = "page", defaultValue = "0", required = false) Integer page,
-                                              @RequestParam(value = "pageSize", defaultValue = "25", required = false) Integer pageSize) {
-        return movementServicePort.findMovementsByType(accountId, MovementType.CREDIT, page, pageSize);
+    /**
+     * Pushes the movements of the account as server-sent events as soon as they are committed, each with its id as the
+     * event id. A client reconnecting with {@code Last-Event-ID}, or opening with {@code after}, first receives the
+     * movements it missed, read from the database. The header wins, as an event source keeps its first url.
+     */
+    @GetMapping(value = "/{accountId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Movement>> streamMovements(@PathVariable final String accountId,
+                                                           @RequestHeader(value = LAST_EVENT_ID_HEADER, required = false) final String lastEventId,
+                                                           @RequestParam(value = "after", required = false) final String after) {
+        return movementServicePort.streamMovements(accountId, lastEventId != null ? lastEventId : after)
+                .map(movement -> ServerSentEvent.builder(movement)
+                        .id(movement.id())
+                        .event(MOVEMENT_EVENT)
+                        .build());
     }
 
-    @GetMapping("/debit")
-    public Flux<Movement> findDebitMovements(@PathVariable final String accountId,
-                                             @RequestParam(value = "page", defaultValue = "0", required = false) Integer page,
-                                             @RequestParam(value = "pageSize", defaultValue = "25", required = false) Integer pageSize) {
-        return movementServicePort.findMovementsByType(accountId, MovementType.DEBIT, page, pageSize);
+    /**
+     * Total credits, total debits and net change of the account over the days of the period, both included, read from
+     * the daily rollups of the account.
+     */
+    @GetMapping("/{accountId}/totals")
+    public Mono<MovementTotalsDTO> sumMovementsByPeriod(@PathVariable final String accountId,
+                                                        @RequestParam(value = "start") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+                                                        @RequestParam(value = "end") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        return movementServicePort.sumMovementsByPeriod(accountId, startDate.atStartOfDay(), endDate.atStartOfDay().plusDays(1).minusNanos(1))
+                .map(MovementTotalsDTO::of);
     }
 
+    /**
+     * Both legs of the transfer, debit first, found through the transfer id returned with the debit leg.
+     */
+    @GetMapping("/transfers/{transferId}")
+    public Flux<Movement> findTransfer(@PathVariable final String transferId) {
+        return movementServicePort.findTransfer(transferId);
+    }
+
+    private Mono<ResponseEntity<List<Movement>>> findMovementsByType(final String accountId, final MovementType type,
+                                                                     final int page, final int pageSize, final String after) {
+        if (after == null && page > 0) {
+            return toResponse(movementServicePort.findMovementsByType(accountId, type, page, pageSize));
+        }
+        return movementServicePort.findMovementPageByType(accountId, type, MovementCursors.decode(after), pageSize)
+                .map(MovementController::toResponse);
+    }
+
+    private static Mono<ResponseEntity<List<Movement>>> toResponse(final Flux<Movement> movements) {
+        return movements.collectList().map(ResponseEntity::ok);
+    }
+
+    private static ResponseEntity<List<Movement>> toResponse(final MovementPage page) {
+        final var response = ResponseEntity.ok();
+        if (page.next() != null) {
+            response.header(NEXT_CURSOR_HEADER, MovementCursors.encode(page.next()));
+        }
+        return response.body(page.movements());
+    }
+
+    private static BatchMovementResultDTO toResult(final int index, final MovementResult result) {
+        return result.isSuccess()
+                ? new BatchMovementResultDTO(index, result.movement(), null)
+                : new BatchMovementResultDTO(index, null, ApiAdviceHandler.errorOf(result.error()));
+    }
+
+    /**
+     * @return the name of the first field the movement needs but lacks, or {@code null} when it can be applied
+     */
+    private static String missingField(final BatchMovementDTO dto) {
+        if (dto == null || dto.operation() == null) {
+            return "operation";
+        }
+        if (dto.accountId() == null) {
+            return "accountId";
+        }
+        if (dto.operation() == MovementOperation.TRANSFER && dto.creditAccountId() == null) {
+            return "creditAccountId";
+        }
+        if (dto.amount() == null) {
+            return "amount";
+        }
+        return null;
+    }
 }
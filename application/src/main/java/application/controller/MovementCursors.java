@@ -0,0 +1,44 @@
+package application.controller;
+
+import application.exceptions.InvalidCursorException;
+import domain.model.MovementCursor;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque text form of a {@link MovementCursor}, as handed to clients in the {@code after} parameter.
+ */
+final class MovementCursors {
+
+    private static final String SEPARATOR = "|";
+
+    private MovementCursors() {
+    }
+
+    static String encode(final MovementCursor cursor) {
+        final var value = cursor.date() + SEPARATOR + cursor.id();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the cursor, or {@code null} when there is none
+     * @throws InvalidCursorException when the text was not produced by {@link #encode}
+     */
+    static MovementCursor decode(final String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            final var value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            final var separator = value.indexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new InvalidCursorException(cursor);
+            }
+            return new MovementCursor(LocalDateTime.parse(value.substring(0, separator)), value.substring(separator + 1));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidCursorException(cursor);
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package application.dto;
+
+import domain.model.Money;
+
+public record AccountBalanceResultDTO(String accountId, Money balance, ErrorDTO error) {
+}
@@ -1,6 +1,6 @@
 package application.dto;
 
-import java.math.BigDecimal;
+import domain.model.Money;
 
-public record BalanceDTO(BigDecimal balance) {
+public record BalanceDTO(Money balance) {
 }
@@ -0,0 +1,8 @@
+package application.dto;
+
+import domain.model.Money;
+import domain.model.MovementOperation;
+
+public record BatchMovementDTO(MovementOperation operation, String accountId, String creditAccountId,
+                               Money amount) {
+}
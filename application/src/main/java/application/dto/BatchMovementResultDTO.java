@@ -0,0 +1,6 @@
+package application.dto;
+
+import domain.model.Movement;
+
+public record BatchMovementResultDTO(int index, Movement movement, ErrorDTO error) {
+}
@@ -1,8 +1,8 @@
 package application.dto;
 
 
+import domain.model.Money;
 import jakarta.validation.constraints.NotNull;
-import java.math.BigDecimal;
 
-public record CreateAccountDTO(@NotNull(message = "name can not be empty") String name, BigDecimal limit) {
+public record CreateAccountDTO(@NotNull(message = "name can not be empty") String name, Money limit) {
 }
@@ -1,7 +1,7 @@
 package application.dto;
 
-import java.math.BigDecimal;
+import domain.model.Money;
 
-public record CreateMovementDTO(BigDecimal amount) {
+public record CreateMovementDTO(Money amount) {
 
 }
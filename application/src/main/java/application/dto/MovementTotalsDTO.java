@@ -0,0 +1,11 @@
+package application.dto;
+
+import domain.model.Money;
+import domain.model.MovementTotals;
+
+public record MovementTotalsDTO(Money credits, Money debits, Money net) {
+
+    public static MovementTotalsDTO of(final MovementTotals totals) {
+        return new MovementTotalsDTO(totals.credits(), totals.debits(), totals.net());
+    }
+}
@@ -1,7 +1,7 @@
 package application.dto;
 
-import java.math.BigDecimal;
+import domain.model.Money;
 
-public record TransferMovementDTO(String creditAccountId, BigDecimal amount) {
+public record TransferMovementDTO(String creditAccountId, Money amount) {
 
 }
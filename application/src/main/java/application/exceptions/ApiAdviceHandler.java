@@ -1,21 +1,53 @@
 package application.exceptions;
 
 import application.dto.ErrorDTO;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
 import domain.exception.AccountNotFoundException;
 import domain.exception.InsufficientBalanceException;
+import domain.exception.MovementConflictException;
+import domain.model.Money;
+import java.util.concurrent.RejectedExecutionException;
+import org.springframework.core.NestedExceptionUtils;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.server.ServerWebInputException;
 
 import static application.exceptions.ErrorMessages.ACCOUNT_NOT_FOUND;
 import static application.exceptions.ErrorMessages.INSUFFICIENT_BALANCE;
+import static application.exceptions.ErrorMessages.INVALID_AMOUNT;
+import static application.exceptions.ErrorMessages.INVALID_CURSOR;
+import static application.exceptions.ErrorMessages.INVALID_MOVEMENT;
+import static application.exceptions.ErrorMessages.MOVEMENT_CONFLICT;
+import static application.exceptions.ErrorMessages.PERSISTENCE_BUSY;
+import static application.exceptions.ErrorMessages.TOO_MANY_ACCOUNT_IDS;
+import static application.exceptions.ErrorMessages.TOO_MANY_MOVEMENTS;
 
 @RestControllerAdvice
 public class ApiAdviceHandler {
 
+    /**
+     * Error body for a domain error reported inside a successful response, like the items of a batch.
+     */
+    public static ErrorDTO errorOf(final Throwable throwable) {
+        if (throwable instanceof AccountNotFoundException accountNotFoundException) {
+            return new ErrorDTO(HttpStatus.NOT_FOUND.value(), String.format(ACCOUNT_NOT_FOUND, accountNotFoundException.getAccountId()));
+        }
+        if (throwable instanceof InsufficientBalanceException) {
+            return new ErrorDTO(HttpStatus.BAD_REQUEST.value(), INSUFFICIENT_BALANCE);
+        }
+        if (throwable instanceof InvalidMovementException invalidMovementException) {
+            return new ErrorDTO(HttpStatus.BAD_REQUEST.value(), String.format(INVALID_MOVEMENT, invalidMovementException.getField()));
+        }
+        if (throwable instanceof MovementConflictException movementConflictException) {
+            return new ErrorDTO(HttpStatus.CONFLICT.value(), String.format(MOVEMENT_CONFLICT, movementConflictException.getAccountId()));
+        }
+        return new ErrorDTO(HttpStatus.INTERNAL_SERVER_ERROR.value(), "Unexpected Error");
+    }
+
     @ExceptionHandler(AccountNotFoundException.class)
     @ResponseStatus(HttpStatus.NOT_FOUND)
     public ResponseEntity<ErrorDTO> handleAccountNotFound(final AccountNotFoundException accountNotFoundException) {
@@ -36,6 +68,76 @@ public class ApiAdviceHandler {
                 ));
     }
 
+    @ExceptionHandler(MovementConflictException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ResponseEntity<ErrorDTO> handleMovementConflict(final MovementConflictException movementConflictException) {
+        return ResponseEntity.status(HttpStatus.CONFLICT.value())
+                .body(new ErrorDTO(
+                        HttpStatus.CONFLICT.value(),
+                        String.format(MOVEMENT_CONFLICT, movementConflictException.getAccountId())
+                ));
+    }
+
+    /**
+     * The persistence queue is full; the request was not started, so it can be sent again.
+     */
+    @ExceptionHandler(RejectedExecutionException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ResponseEntity<ErrorDTO> handleRejectedExecution(final RejectedExecutionException rejectedExecutionException) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE.value())
+                .body(new ErrorDTO(
+                        HttpStatus.SERVICE_UNAVAILABLE.value(),
+                        PERSISTENCE_BUSY
+                ));
+    }
+
+    @ExceptionHandler(InvalidCursorException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ResponseEntity<ErrorDTO> handleInvalidCursor(final InvalidCursorException invalidCursorException) {
+        return ResponseEntity.badRequest()
+                .body(new ErrorDTO(
+                        HttpStatus.BAD_REQUEST.value(),
+                        String.format(INVALID_CURSOR, invalidCursorException.getCursor())
+                ));
+    }
+
+    @ExceptionHandler(TooManyAccountIdsException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ResponseEntity<ErrorDTO> handleTooManyAccountIds(final TooManyAccountIdsException tooManyAccountIdsException) {
+        return ResponseEntity.badRequest()
+                .body(new ErrorDTO(
+                        HttpStatus.BAD_REQUEST.value(),
+                        String.format(TOO_MANY_ACCOUNT_IDS, tooManyAccountIdsException.getRequested(), tooManyAccountIdsException.getMaximum())
+                ));
+    }
+
+    @ExceptionHandler(TooManyMovementsException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ResponseEntity<ErrorDTO> handleTooManyMovements(final TooManyMovementsException tooManyMovementsException) {
+        return ResponseEntity.badRequest()
+                .body(new ErrorDTO(
+                        HttpStatus.BAD_REQUEST.value(),
+                        String.format(TOO_MANY_MOVEMENTS, tooManyMovementsException.getRequested(), tooManyMovementsException.getMaximum())
+                ));
+    }
+
+    /**
+     * A body that could not be read, answered with the amount when that is what it failed on.
+     */
+    @ExceptionHandler(ServerWebInputException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ResponseEntity<ErrorDTO> handleServerWebInput(final ServerWebInputException serverWebInputException) {
+        final var message = NestedExceptionUtils.getMostSpecificCause(serverWebInputException) instanceof InvalidFormatException invalidFormat
+                && invalidFormat.getTargetType() == Money.class
+                ? String.format(INVALID_AMOUNT, invalidFormat.getValue())
+                : serverWebInputException.getReason();
+        return ResponseEntity.badRequest()
+                .body(new ErrorDTO(
+                        HttpStatus.BAD_REQUEST.value(),
+                        message
+                ));
+    }
+
     @ExceptionHandler(WebExchangeBindException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ResponseEntity<ErrorDTO> handleWebBindGeneralErrors(final WebExchangeBindException webExchangeBindException) {
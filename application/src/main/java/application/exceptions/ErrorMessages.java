@@ -4,4 +4,18 @@ public abstract class ErrorMessages {
     public static final String INSUFFICIENT_BALANCE = "Insufficient Balance";
 
     public static final String ACCOUNT_NOT_FOUND = "Account not found for id: %s";
+
+    public static final String INVALID_AMOUNT = "Invalid amount: %s, at most 2 decimals";
+
+    public static final String INVALID_CURSOR = "Invalid cursor: %s";
+
+    public static final String TOO_MANY_ACCOUNT_IDS = "Too many account ids: %d, at most %d per request";
+
+    public static final String TOO_MANY_MOVEMENTS = "Too many movements: %d, at most %d per request";
+
+    public static final String INVALID_MOVEMENT = "Invalid movement: %s is required";
+
+    public static final String MOVEMENT_CONFLICT = "Too many concurrent movements for account id: %s, try again";
+
+    public static final String PERSISTENCE_BUSY = "Too many requests waiting for the database, try again";
 }
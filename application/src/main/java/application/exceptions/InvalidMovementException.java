@@ -0,0 +1,17 @@
+package application.exceptions;
+
+/**
+ * A movement of a batch missing a field it needs, reported at its index instead of failing the whole batch.
+ */
+public class InvalidMovementException extends RuntimeException {
+    private final String field;
+
+    public InvalidMovementException(String field) {
+        super();
+        this.field = field;
+    }
+
+    public String getField() {
+        return field;
+    }
+}
@@ -0,0 +1,21 @@
+package application.exceptions;
+
+public class TooManyMovementsException extends RuntimeException {
+    private final int requested;
+
+    private final int maximum;
+
+    public TooManyMovementsException(int requested, int maximum) {
+        super();
+        this.requested = requested;
+        this.maximum = maximum;
+    }
+
+    public int getRequested() {
+        return requested;
+    }
+
+    public int getMaximum() {
+        return maximum;
+    }
+}
@@ -0,0 +1,46 @@
+package application.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import domain.model.Money;
+import java.io.IOException;
+import java.math.BigDecimal;
+import org.springframework.boot.jackson.JsonComponent;
+
+/**
+ * Keeps the JSON contract of amounts a plain decimal number, like {@code 10.50}, now that the domain holds them as
+ * {@link Money}.
+ */
+@JsonComponent
+public class MoneyJsonComponent {
+
+    public static class Serializer extends JsonSerializer<Money> {
+
+        @Override
+        public void serialize(final Money value, final JsonGenerator generator, final SerializerProvider serializers) throws IOException {
+            generator.writeNumber(value.toBigDecimal());
+        }
+    }
+
+    /**
+     * Reads an amount exactly: one with more than two decimals, which would have to be rounded, or too large fails
+     * with an {@link InvalidFormatException} holding the amount, answered {@code 400 Bad Request}.
+     */
+    public static class Deserializer extends JsonDeserializer<Money> {
+
+        @Override
+        public Money deserialize(final JsonParser parser, final DeserializationContext context) throws IOException {
+            final var text = parser.getText();
+            try {
+                return Money.of(parser.currentToken().isNumeric() ? parser.getDecimalValue() : new BigDecimal(text.trim()));
+            } catch (ArithmeticException | NumberFormatException e) {
+                throw InvalidFormatException.from(parser, "not a valid amount", text, Money.class);
+            }
+        }
+    }
+}
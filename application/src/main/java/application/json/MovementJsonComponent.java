@@ -0,0 +1,35 @@
+package application.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import domain.model.Movement;
+import java.io.IOException;
+import org.springframework.boot.jackson.JsonComponent;
+
+/**
+ * Writes the description of a movement, which is not held by it, rendered from its type and counterparty only here.
+ * The transfer fields are left out of deposits and withdrawals, which keep the JSON they always had.
+ */
+@JsonComponent
+public class MovementJsonComponent {
+
+    public static class Serializer extends JsonSerializer<Movement> {
+
+        @Override
+        public void serialize(final Movement value, final JsonGenerator generator, final SerializerProvider serializers) throws IOException {
+            generator.writeStartObject();
+            generator.writeStringField("id", value.id());
+            generator.writeStringField("account_id", value.account_id());
+            generator.writeStringField("description", value.description());
+            serializers.defaultSerializeField("amount", value.amount(), generator);
+            generator.writeStringField("type", value.type().name());
+            serializers.defaultSerializeField("date", value.date(), generator);
+            if (value.transfer_id() != null) {
+                generator.writeStringField("transfer_id", value.transfer_id());
+                generator.writeStringField("counterparty_account_id", value.counterparty_account_id());
+            }
+            generator.writeEndObject();
+        }
+    }
+}
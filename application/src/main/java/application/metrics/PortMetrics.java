@@ -0,0 +1,150 @@
+package application.metrics;
+
+import domain.exception.AccountNotFoundException;
+import domain.exception.InsufficientBalanceException;
+import domain.exception.MovementConflictException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Times every call of a domain port, from the subscription to the terminal signal of the returned publisher, in the
+ * {@code financial.port.calls} timer tagged with the port, the operation and the outcome. The timer count is the call
+ * counter.
+ */
+public final class PortMetrics {
+
+    public static final String TIMER = "financial.port.calls";
+
+    enum Outcome {
+        SUCCESS, NOT_FOUND, INSUFFICIENT_BALANCE, CONFLICT, ERROR, CANCELLED;
+
+        final String tag = name().toLowerCase();
+
+        static Outcome of(final Throwable error) {
+            if (error instanceof AccountNotFoundException) {
+                return NOT_FOUND;
+            }
+            if (error instanceof InsufficientBalanceException) {
+                return INSUFFICIENT_BALANCE;
+            }
+            if (error instanceof MovementConflictException) {
+                return CONFLICT;
+            }
+            return ERROR;
+        }
+    }
+
+    private PortMetrics() {
+    }
+
+    /**
+     * @return a proxy implementing {@code ports}, timing each call before handing it to {@code delegate}
+     */
+    public static Object instrument(final Object delegate, final Class<?>[] ports, final MeterRegistry meterRegistry) {
+        final var operations = new HashMap<Method, OperationTimers>();
+        for (final var port : ports) {
+            for (final var method : port.getMethods()) {
+                operations.put(method, new OperationTimers(meterRegistry, port.getSimpleName(), method.getName()));
+            }
+        }
+        return Proxy.newProxyInstance(delegate.getClass().getClassLoader(), ports, new Handler(delegate, Map.copyOf(operations)));
+    }
+
+    private record Handler(Object delegate, Map<Method, OperationTimers> operations) implements InvocationHandler {
+
+        @Override
+        public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+            final var timers = operations.get(method);
+            if (timers == null) {
+                return call(method, args);
+            }
+            if (Mono.class.isAssignableFrom(method.getReturnType())) {
+                return Mono.defer(() -> {
+                    final var start = System.nanoTime();
+                    return ((Mono<?>) callUnchecked(method, args))
+                            .doOnSuccess(value -> timers.record(Outcome.SUCCESS, start))
+                            .doOnError(error -> timers.record(Outcome.of(error), start))
+                            .doOnCancel(() -> timers.record(Outcome.CANCELLED, start));
+                });
+            }
+            if (Flux.class.isAssignableFrom(method.getReturnType())) {
+                return Flux.defer(() -> {
+                    final var start = System.nanoTime();
+                    return ((Flux<?>) callUnchecked(method, args))
+                            .doOnComplete(() -> timers.record(Outcome.SUCCESS, start))
+                            .doOnError(error -> timers.record(Outcome.of(error), start))
+                            .doOnCancel(() -> timers.record(Outcome.CANCELLED, start));
+                });
+            }
+            final var start = System.nanoTime();
+            try {
+                final var result = call(method, args);
+                timers.record(Outcome.SUCCESS, start);
+                return result;
+            } catch (RuntimeException e) {
+                timers.record(Outcome.of(e), start);
+                throw e;
+            }
+        }
+
+        private Object callUnchecked(final Method method, final Object[] args) {
+            try {
+                return call(method, args);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private Object call(final Method method, final Object[] args) throws Throwable {
+            try {
+                return method.invoke(delegate, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    /**
+     * Timers of one operation, registered on its first call with each outcome so unused outcomes are not exported.
+     */
+    private static final class OperationTimers {
+
+        private final MeterRegistry meterRegistry;
+
+        private final String port;
+
+        private final String operation;
+
+        private final Timer[] timers = new Timer[Outcome.values().length];
+
+        OperationTimers(final MeterRegistry meterRegistry, final String port, final String operation) {
+            this.meterRegistry = meterRegistry;
+            this.port = port;
+            this.operation = operation;
+        }
+
+        void record(final Outcome outcome, final long start) {
+            var timer = timers[outcome.ordinal()];
+            if (timer == null) {
+                timer = Timer.builder(TIMER)
+                        .tag("port", port)
+                        .tag("operation", operation)
+                        .tag("outcome", outcome.tag)
+                        .register(meterRegistry);
+                timers[outcome.ordinal()] = timer;
+            }
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package application.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Arrays;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Replaces every bean implementing a domain port, service or persistence, with a {@link PortMetrics} proxy. The
+ * registry is looked up on the first port found, so it is still configured by the other post processors.
+ */
+@Component
+public class PortMetricsPostProcessor implements BeanPostProcessor {
+
+    private static final String PORTS_PACKAGE = "domain.ports.";
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public PortMetricsPostProcessor(final ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(final Object bean, final String beanName) {
+        final var ports = Arrays.stream(ClassUtils.getAllInterfacesForClass(bean.getClass()))
+                .filter(type -> type.getName().startsWith(PORTS_PACKAGE))
+                .toArray(Class<?>[]::new);
+        if (ports.length == 0) {
+            return bean;
+        }
+        return PortMetrics.instrument(bean, ports, meterRegistry.getObject());
+    }
+}
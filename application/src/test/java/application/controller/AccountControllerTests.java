@@ -1,30 +1,46 @@
 package application.controller;
 
+import application.dto.AccountBalanceResultDTO;
 import application.dto.CreateAccountDTO;
 import application.dto.ErrorDTO;
 import application.exceptions.ApiAdviceHandler;
+import application.json.MoneyJsonComponent;
 import domain.exception.AccountNotFoundException;
 import domain.model.Account;
+import domain.model.BalanceResult;
+import domain.model.Money;
+import domain.model.VersionedAccount;
 import domain.ports.service.AccountServicePort;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Stream;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import org.springframework.web.reactive.function.BodyInserters;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import static application.exceptions.ErrorMessages.ACCOUNT_NOT_FOUND;
+import static application.exceptions.ErrorMessages.PERSISTENCE_BUSY;
+import static application.exceptions.ErrorMessages.TOO_MANY_ACCOUNT_IDS;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.times;
 
 @WebFluxTest(controllers = AccountController.class)
-@ContextConfiguration(classes = {AccountController.class, ApiAdviceHandler.class})
+@ContextConfiguration(classes = {AccountController.class, ApiAdviceHandler.class, MoneyJsonComponent.class})
 class AccountControllerTests {
 
     @MockBean
@@ -37,12 +53,12 @@ class AccountControllerTests {
     public void testCreateNewAccount() {
         final var createAccountDto = new CreateAccountDTO(
                 UUID.randomUUID().toString(),
-                BigDecimal.ZERO
+                Money.ZERO
         );
         final var account = new Account(
                 UUID.randomUUID().toString(),
                 createAccountDto.name(),
-                BigDecimal.ZERO,
+                Money.ZERO,
                 createAccountDto.limit()
         );
 
@@ -88,7 +104,7 @@ class AccountControllerTests {
     public void testGetAccountNotFound() {
         final var accountId = UUID.randomUUID().toString();
 
-        Mockito.when(accountServicePort.findAccountById(eq(accountId))).thenReturn(Mono.error(new AccountNotFoundException(accountId)));
+        Mockito.when(accountServicePort.findVersionedAccountById(eq(accountId))).thenReturn(Mono.error(new AccountNotFoundException(accountId)));
 
         webClient.get()
                 .uri("/api/v1/accounts/" + accountId)
@@ -105,4 +121,146 @@ class AccountControllerTests {
 
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testGetBalanceKeepsDecimalAmount() {
+        final var accountId = UUID.randomUUID().toString();
+
+        Mockito.when(accountServicePort.findVersionedAccountById(eq(accountId)))
+                .thenReturn(Mono.just(versioned(accountId, Money.of(new BigDecimal("10.50")), 3)));
+
+        webClient.get()
+                .uri("/api/v1/accounts/" + accountId + "/balance")
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectHeader()
+                .valueEquals(HttpHeaders.ETAG, "\"" + accountId + "-3\"")
+                .expectBody(String.class)
+                .isEqualTo("{\"balance\":10.50}");
+    }
+
+    @Test
+    public void testGetAccountNotModifiedReadsOnlyTheVersion() {
+        final var accountId = UUID.randomUUID().toString();
+
+        Mockito.when(accountServicePort.retrieveAccountVersion(eq(accountId))).thenReturn(Mono.just(3L));
+
+        webClient.get()
+                .uri("/api/v1/accounts/" + accountId)
+                .header(HttpHeaders.IF_NONE_MATCH, "\"" + accountId + "-3\"")
+                .exchange()
+                .expectStatus()
+                .isNotModified()
+                .expectHeader()
+                .valueEquals(HttpHeaders.ETAG, "\"" + accountId + "-3\"")
+                .expectBody()
+                .isEmpty();
+
+        Mockito.verify(accountServicePort, Mockito.never()).findVersionedAccountById(any());
+    }
+
+    @Test
+    public void testGetBalanceChangedSinceETag() {
+        final var accountId = UUID.randomUUID().toString();
+
+        Mockito.when(accountServicePort.retrieveAccountVersion(eq(accountId))).thenReturn(Mono.just(4L));
+        Mockito.when(accountServicePort.findVersionedAccountById(eq(accountId)))
+                .thenReturn(Mono.just(versioned(accountId, Money.of(new BigDecimal("1.25")), 4)));
+
+        webClient.get()
+                .uri("/api/v1/accounts/" + accountId + "/balance")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"" + accountId + "-3\"")
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectHeader()
+                .valueEquals(HttpHeaders.ETAG, "\"" + accountId + "-4\"")
+                .expectBody(String.class)
+                .isEqualTo("{\"balance\":1.25}");
+    }
+
+    @Test
+    public void testGetBalanceAsOf() {
+        final var accountId = UUID.randomUUID().toString();
+
+        Mockito.when(accountServicePort.retrieveBalanceAsOf(eq(accountId), eq(LocalDateTime.of(2023, 10, 31, 18, 0))))
+                .thenReturn(Mono.just(Money.of(new BigDecimal("7.25"))));
+
+        webClient.get()
+                .uri("/api/v1/accounts/" + accountId + "/balance?asOf=2023-10-31T18:00:00")
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(String.class)
+                .isEqualTo("{\"balance\":7.25}");
+
+        Mockito.verify(accountServicePort, Mockito.never()).findVersionedAccountById(any());
+    }
+
+    @Test
+    public void testGetBalancesReportsMissingAccounts() {
+        final var foundId = UUID.randomUUID().toString();
+        final var missingId = UUID.randomUUID().toString();
+
+        Mockito.when(accountServicePort.retrieveBalances(eq(Set.of(foundId, missingId))))
+                .thenReturn(Flux.just(
+                        BalanceResult.success(foundId, Money.of(new BigDecimal("10.50"))),
+                        BalanceResult.failure(missingId, new AccountNotFoundException(missingId))));
+
+        webClient.post()
+                .uri("/api/v1/accounts/balances")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(BodyInserters.fromValue(List.of(foundId, missingId)))
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBodyList(AccountBalanceResultDTO.class)
+                .isEqualTo(List.of(
+                        new AccountBalanceResultDTO(foundId, Money.of(new BigDecimal("10.50")), null),
+                        new AccountBalanceResultDTO(missingId, null,
+                                new ErrorDTO(404, String.format(ACCOUNT_NOT_FOUND, missingId)))));
+    }
+
+    @Test
+    public void testGetBalancesRejectsTooManyIds() {
+        final var accountIds = Stream.generate(() -> UUID.randomUUID().toString())
+                .limit(AccountController.MAX_BALANCE_IDS + 1)
+                .toList();
+
+        webClient.post()
+                .uri("/api/v1/accounts/balances")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(BodyInserters.fromValue(accountIds))
+                .exchange()
+                .expectStatus()
+                .isBadRequest()
+                .expectBody(ErrorDTO.class)
+                .isEqualTo(new ErrorDTO(400, String.format(TOO_MANY_ACCOUNT_IDS, accountIds.size(), AccountController.MAX_BALANCE_IDS)));
+        Mockito.verifyNoInteractions(accountServicePort);
+    }
+
+    @Test
+    public void testGetBalanceServiceUnavailableWhenPersistenceIsBusy() {
+        final var accountId = UUID.randomUUID().toString();
+
+        Mockito.when(accountServicePort.findVersionedAccountById(eq(accountId)))
+                .thenReturn(Mono.error(new RejectedExecutionException("queue full")));
+
+        webClient.get()
+                .uri("/api/v1/accounts/" + accountId + "/balance")
+                .exchange()
+                .expectStatus()
+                .isEqualTo(HttpStatus.SERVICE_UNAVAILABLE)
+                .expectBody(ErrorDTO.class)
+                .isEqualTo(
+                        new ErrorDTO(
+                                503,
+                                PERSISTENCE_BUSY
+                        )
+                );
+    }
+
+    private static VersionedAccount versioned(final String accountId, final Money balance, final long version) {
+        return new VersionedAccount(new Account(accountId, "name", balance, Money.ZERO), version);
+    }
+}
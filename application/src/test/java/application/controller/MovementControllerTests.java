@@ -1,31 +1,53 @@
 package application.controller;
 
+import application.dto.BatchMovementDTO;
+import application.dto.BatchMovementResultDTO;
 import application.dto.CreateMovementDTO;
 import application.dto.ErrorDTO;
 import application.exceptions.ApiAdviceHandler;
+import application.json.MoneyJsonComponent;
+import application.json.MovementJsonComponent;
 import domain.exception.InsufficientBalanceException;
+import domain.model.Money;
 import domain.model.Movement;
+import domain.model.MovementCommand;
+import domain.model.MovementCursor;
+import domain.model.MovementOperation;
+import domain.model.MovementPage;
+import domain.model.MovementResult;
+import domain.model.MovementTotals;
 import domain.model.MovementType;
 import domain.ports.service.MovementServicePort;
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import org.springframework.web.reactive.function.BodyInserters;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import static application.exceptions.ErrorMessages.INSUFFICIENT_BALANCE;
-import static domain.model.MovementDescription.WITHDRAW_DESCRIPTION;
+import static application.exceptions.ErrorMessages.INVALID_AMOUNT;
+import static application.exceptions.ErrorMessages.INVALID_CURSOR;
+import static application.exceptions.ErrorMessages.INVALID_MOVEMENT;
+import static application.exceptions.ErrorMessages.TOO_MANY_MOVEMENTS;
 
 @WebFluxTest(controllers = MovementController.class)
-@ContextConfiguration(classes = {MovementController.class, ApiAdviceHandler.class})
+@ContextConfiguration(classes = {MovementController.class, ApiAdviceHandler.class, MoneyJsonComponent.class, MovementJsonComponent.class})
 public class MovementControllerTests {
 
     @MockBean
@@ -39,13 +61,12 @@ public class MovementControllerTests {
 
         final var accountId = UUID.randomUUID().toString();
         final var createMovement = new CreateMovementDTO(
-                BigDecimal.TEN
+                Money.of(BigDecimal.TEN)
         );
 
         final var expectedMovement = new Movement(
                 UUID.randomUUID().toString(),
                 accountId,
-                WITHDRAW_DESCRIPTION,
                 createMovement.amount(),
                 MovementType.DEBIT,
                 LocalDateTime.now()
@@ -66,12 +87,29 @@ public class MovementControllerTests {
 
     }
 
+    @Test
+    public void testDepositWithMoreThanTwoDecimalsIsBadRequest() {
+
+        final var accountId = UUID.randomUUID().toString();
+
+        webClient.post()
+                .uri("/api/v1/movements/" + accountId + "/deposit")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"amount\": 10.005}")
+                .exchange()
+                .expectStatus()
+                .isBadRequest()
+                .expectBody(ErrorDTO.class)
+                .isEqualTo(new ErrorDTO(400, String.format(INVALID_AMOUNT, "10.005")));
+        Mockito.verifyNoInteractions(movementServicePort);
+    }
+
     @Test
     public void testWithdrawWithInvalidFoundError() {
 
         final var accountId = UUID.randomUUID().toString();
         final var createMovement = new CreateMovementDTO(
-                BigDecimal.TEN
+                Money.of(BigDecimal.TEN)
         );
 
         Mockito.when(movementServicePort.withdraw(accountId, createMovement.amount()))
@@ -94,4 +132,250 @@ public class MovementControllerTests {
                 .isEqualTo(expectedError);
     }
 
+    @Test
+    public void testBatchWithPerItemResults() {
+
+        final var accountId = UUID.randomUUID().toString();
+        final var batch = List.of(
+                new BatchMovementDTO(MovementOperation.WITHDRAW, accountId, null, Money.of(BigDecimal.TEN)),
+                new BatchMovementDTO(MovementOperation.WITHDRAW, accountId, null, Money.of(BigDecimal.TEN))
+        );
+
+        final var expectedMovement = new Movement(
+                UUID.randomUUID().toString(),
+                accountId,
+                Money.of(BigDecimal.TEN),
+                MovementType.DEBIT,
+                LocalDateTime.now()
+        );
+
+        Mockito.when(movementServicePort.batch(List.of(
+                new MovementCommand(MovementOperation.WITHDRAW, accountId, null, Money.of(BigDecimal.TEN)),
+                new MovementCommand(MovementOperation.WITHDRAW, accountId, null, Money.of(BigDecimal.TEN))
+        ))).thenReturn(Flux.just(
+                MovementResult.success(expectedMovement),
+                MovementResult.failure(new InsufficientBalanceException())
+        ));
+
+        webClient.post()
+                .uri("/api/v1/movements/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(BodyInserters.fromValue(batch))
+                .exchange()
+                .expectStatus()
+                .is2xxSuccessful()
+                .expectBodyList(BatchMovementResultDTO.class)
+                .isEqualTo(List.of(
+                        new BatchMovementResultDTO(0, expectedMovement, null),
+                        new BatchMovementResultDTO(1, null, new ErrorDTO(400, INSUFFICIENT_BALANCE))
+                ));
+    }
+
+
+    @Test
+    public void testBatchReportsInvalidMovementsAtTheirIndex() {
+
+        final var accountId = UUID.randomUUID().toString();
+        final var batch = List.of(
+                new BatchMovementDTO(null, accountId, null, Money.of(BigDecimal.TEN)),
+                new BatchMovementDTO(MovementOperation.DEPOSIT, accountId, null, Money.of(BigDecimal.TEN)),
+                new BatchMovementDTO(MovementOperation.TRANSFER, accountId, null, Money.of(BigDecimal.TEN)),
+                new BatchMovementDTO(MovementOperation.WITHDRAW, accountId, null, null)
+        );
+
+        final var expectedMovement = new Movement(
+                UUID.randomUUID().toString(),
+                accountId,
+                Money.of(BigDecimal.TEN),
+                MovementType.CREDIT,
+                LocalDateTime.now()
+        );
+
+        Mockito.when(movementServicePort.batch(List.of(
+                new MovementCommand(MovementOperation.DEPOSIT, accountId, null, Money.of(BigDecimal.TEN))
+        ))).thenReturn(Flux.just(MovementResult.success(expectedMovement)));
+
+        webClient.post()
+                .uri("/api/v1/movements/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(BodyInserters.fromValue(batch))
+                .exchange()
+                .expectStatus()
+                .is2xxSuccessful()
+                .expectBodyList(BatchMovementResultDTO.class)
+                .isEqualTo(List.of(
+                        new BatchMovementResultDTO(0, null, new ErrorDTO(400, String.format(INVALID_MOVEMENT, "operation"))),
+                        new BatchMovementResultDTO(1, expectedMovement, null),
+                        new BatchMovementResultDTO(2, null, new ErrorDTO(400, String.format(INVALID_MOVEMENT, "creditAccountId"))),
+                        new BatchMovementResultDTO(3, null, new ErrorDTO(400, String.format(INVALID_MOVEMENT, "amount")))
+                ));
+    }
+
+    @Test
+    public void testBatchWithTooManyMovementsIsBadRequest() {
+
+        final var accountId = UUID.randomUUID().toString();
+        final var batch = Collections.nCopies(MovementController.MAX_BATCH_MOVEMENTS + 1,
+                new BatchMovementDTO(MovementOperation.DEPOSIT, accountId, null, Money.of(BigDecimal.TEN)));
+
+        webClient.post()
+                .uri("/api/v1/movements/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(BodyInserters.fromValue(batch))
+                .exchange()
+                .expectStatus()
+                .isBadRequest()
+                .expectBody(ErrorDTO.class)
+                .isEqualTo(new ErrorDTO(400, String.format(TOO_MANY_MOVEMENTS, batch.size(), MovementController.MAX_BATCH_MOVEMENTS)));
+        Mockito.verifyNoInteractions(movementServicePort);
+    }
+
+    @Test
+    public void testFindMovementsReturnsNextCursor() {
+
+        final var accountId = UUID.randomUUID().toString();
+        final var movement = new Movement(
+                UUID.randomUUID().toString(),
+                accountId,
+                Money.of(BigDecimal.TEN),
+                MovementType.DEBIT,
+                LocalDateTime.of(2023, 3, 6, 10, 0)
+        );
+        final var cursor = MovementCursor.of(movement);
+
+        Mockito.when(movementServicePort.findMovementPageByType(accountId, MovementType.DEBIT, null, 1))
+                .thenReturn(Mono.just(new MovementPage(List.of(movement), cursor)));
+        Mockito.when(movementServicePort.findMovementPageByType(accountId, MovementType.DEBIT, cursor, 1))
+                .thenReturn(Mono.just(new MovementPage(List.of(), null)));
+
+        final var nextCursor = webClient.get()
+                .uri("/api/v1/movements/" + accountId + "/debit?pageSize=1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(Movement.class).hasSize(1)
+                .returnResult()
+                .getResponseHeaders()
+                .getFirst(MovementController.NEXT_CURSOR_HEADER);
+
+        webClient.get()
+                .uri("/api/v1/movements/" + accountId + "/debit?pageSize=1&after=" + nextCursor)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().doesNotExist(MovementController.NEXT_CURSOR_HEADER)
+                .expectBodyList(Movement.class).hasSize(0);
+    }
+
+    @Test
+    public void testFindMovementsWithInvalidCursor() {
+
+        final var accountId = UUID.randomUUID().toString();
+
+        webClient.get()
+                .uri("/api/v1/movements/" + accountId + "/credit?after=not-a-cursor")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody(ErrorDTO.class)
+                .isEqualTo(new ErrorDTO(400, String.format(INVALID_CURSOR, "not-a-cursor")));
+    }
+
+    @Test
+    public void testExportMovementsAsNdjson() {
+
+        final var accountId = UUID.randomUUID().toString();
+        final var movements = List.of(
+                new Movement(UUID.randomUUID().toString(), accountId, Money.of(BigDecimal.ONE), MovementType.DEBIT, LocalDateTime.now()),
+                new Movement(UUID.randomUUID().toString(), accountId, Money.of(BigDecimal.TEN), MovementType.DEBIT, LocalDateTime.now())
+        );
+
+        Mockito.when(movementServicePort.exportMovements(accountId, null, null, MovementType.DEBIT))
+                .thenReturn(Flux.fromIterable(movements));
+
+        final var exported = webClient.get()
+                .uri("/api/v1/movements/" + accountId + "/export?type=DEBIT")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(Movement.class)
+                .getResponseBody()
+                .collectList()
+                .block(Duration.ofSeconds(5));
+
+        Assertions.assertEquals(movements, exported);
+    }
+
+    @Test
+    public void testStreamMovementsResumesFromLastEventId() {
+
+        final var accountId = UUID.randomUUID().toString();
+        final var lastSeenId = UUID.randomUUID().toString();
+        final var movement = new Movement(UUID.randomUUID().toString(), accountId, Money.of(BigDecimal.TEN),
+                MovementType.CREDIT, LocalDateTime.now());
+
+        Mockito.when(movementServicePort.streamMovements(accountId, lastSeenId))
+                .thenReturn(Flux.just(movement));
+
+        final var events = webClient.get()
+                .uri("/api/v1/movements/" + accountId + "/stream?after=" + UUID.randomUUID())
+                .header(MovementController.LAST_EVENT_ID_HEADER, lastSeenId)
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM)
+                .returnResult(new ParameterizedTypeReference<ServerSentEvent<Movement>>() {
+                })
+                .getResponseBody()
+                .collectList()
+                .block(Duration.ofSeconds(5));
+
+        Assertions.assertNotNull(events);
+        Assertions.assertEquals(1, events.size());
+        Assertions.assertEquals(movement.id(), events.get(0).id());
+        Assertions.assertEquals(MovementController.MOVEMENT_EVENT, events.get(0).event());
+        Assertions.assertEquals(movement, events.get(0).data());
+    }
+
+    @Test
+    public void testSumMovementsOverWholeDays() {
+
+        final var accountId = UUID.randomUUID().toString();
+        final var start = LocalDate.of(2023, 1, 1).atStartOfDay();
+        final var end = LocalDate.of(2023, 12, 31).atStartOfDay().plusDays(1).minusNanos(1);
+
+        Mockito.when(movementServicePort.sumMovementsByPeriod(accountId, start, end))
+                .thenReturn(Mono.just(new MovementTotals(Money.of(new BigDecimal("150.25")), Money.of(new BigDecimal("50.50")))));
+
+        webClient.get()
+                .uri("/api/v1/movements/" + accountId + "/totals?start=2023-01-01&end=2023-12-31")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class)
+                .isEqualTo("{\"credits\":150.25,\"debits\":50.50,\"net\":99.75}");
+    }
+
+    @Test
+    public void testFindTransferWithRenderedDescriptions() {
+
+        final var debitAccountId = UUID.randomUUID().toString();
+        final var creditAccountId = UUID.randomUUID().toString();
+        final var transferId = UUID.randomUUID().toString();
+        final var date = LocalDateTime.of(2023, 3, 6, 10, 0);
+
+        Mockito.when(movementServicePort.findTransfer(transferId))
+                .thenReturn(Flux.just(
+                        new Movement("1", debitAccountId, Money.of(BigDecimal.TEN), MovementType.DEBIT, date, transferId, creditAccountId),
+                        new Movement("2", creditAccountId, Money.of(BigDecimal.TEN), MovementType.CREDIT, date, transferId, debitAccountId)
+                ));
+
+        webClient.get()
+                .uri("/api/v1/movements/transfers/" + transferId)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].description").isEqualTo("Transfer to account " + creditAccountId)
+                .jsonPath("$[0].amount").isEqualTo(10.00)
+                .jsonPath("$[0].transfer_id").isEqualTo(transferId)
+                .jsonPath("$[1].description").isEqualTo("Transfer from account " + debitAccountId)
+                .jsonPath("$[1].counterparty_account_id").isEqualTo(debitAccountId);
+    }
 }
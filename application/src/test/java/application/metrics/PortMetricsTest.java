@@ -0,0 +1,63 @@
+package application.metrics;
+
+import domain.exception.AccountNotFoundException;
+import domain.model.Account;
+import domain.model.Money;
+import domain.ports.service.AccountServicePort;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import reactor.core.publisher.Mono;
+
+import static org.mockito.ArgumentMatchers.eq;
+
+class PortMetricsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final AccountServicePort delegate = Mockito.mock(AccountServicePort.class);
+
+    private final AccountServicePort accountServicePort = (AccountServicePort) PortMetrics.instrument(
+            delegate, new Class<?>[]{AccountServicePort.class}, meterRegistry);
+
+    @Test
+    void timesEachCallByOperationAndOutcome() {
+        // Arrange
+        final var account = new Account("found", "name", Money.ZERO, Money.ZERO);
+        Mockito.when(delegate.findAccountById(eq("found"))).thenReturn(Mono.just(account));
+        Mockito.when(delegate.findAccountById(eq("missing"))).thenReturn(Mono.error(new AccountNotFoundException("missing")));
+
+        // act and assert
+        Assertions.assertEquals(account, accountServicePort.findAccountById("found").block());
+        Assertions.assertThrows(AccountNotFoundException.class, () -> accountServicePort.findAccountById("missing").block());
+        Assertions.assertThrows(AccountNotFoundException.class, () -> accountServicePort.findAccountById("missing").block());
+
+        Assertions.assertEquals(1, timerCount("success"));
+        Assertions.assertEquals(2, timerCount("not_found"));
+    }
+
+    @Test
+    void timesOnlySubscribedCalls() {
+        // Arrange
+        Mockito.when(delegate.retrieveBalanceFromAccountId(eq("id"))).thenReturn(Mono.just(Money.ZERO));
+
+        // act and assert
+        final var balance = accountServicePort.retrieveBalanceFromAccountId("id");
+        Assertions.assertNull(meterRegistry.find(PortMetrics.TIMER).timer());
+        Mockito.verifyNoInteractions(delegate);
+
+        balance.block();
+        Assertions.assertEquals(1, meterRegistry.get(PortMetrics.TIMER)
+                .tags("port", "AccountServicePort", "operation", "retrieveBalanceFromAccountId", "outcome", "success")
+                .timer()
+                .count());
+    }
+
+    private long timerCount(final String outcome) {
+        return meterRegistry.get(PortMetrics.TIMER)
+                .tags("port", "AccountServicePort", "operation", "findAccountById", "outcome", outcome)
+                .timer()
+                .count();
+    }
+}
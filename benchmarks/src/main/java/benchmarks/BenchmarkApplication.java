@@ -0,0 +1,44 @@
+package benchmarks;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.r2dbc.repository.config.EnableR2dbcRepositories;
+
+/**
+ * Persistence module wired against a private in-memory H2 database, without the web layer.
+ */
+@SpringBootApplication(scanBasePackages = "persistence")
+@EnableR2dbcRepositories(basePackages = "persistence")
+@ConfigurationPropertiesScan(basePackages = "persistence")
+public class BenchmarkApplication {
+
+    @Bean
+    MeterRegistry meterRegistry() {
+        return new SimpleMeterRegistry();
+    }
+
+    /**
+     * @param properties settings added on top of {@code application.properties}, e.g. the balance update mode
+     */
+    public static ConfigurableApplicationContext start(final Map<String, Object> properties) {
+        final var database = "bench-" + UUID.randomUUID();
+        final var application = new SpringApplication(BenchmarkApplication.class);
+        application.setWebApplicationType(WebApplicationType.NONE);
+        final var defaults = new HashMap<String, Object>(properties);
+        defaults.put("spring.r2dbc.url", "r2dbc:h2:mem:///" + database + ";DB_CLOSE_DELAY=-1");
+        defaults.put("spring.liquibase.url", "jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1");
+        defaults.put("logging.level.root", "warn");
+        return application.run(defaults.entrySet().stream()
+                .map(entry -> "--" + entry.getKey() + "=" + entry.getValue())
+                .toArray(String[]::new));
+    }
+}
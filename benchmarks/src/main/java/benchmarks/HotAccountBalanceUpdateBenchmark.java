@@ -0,0 +1,95 @@
+package benchmarks;
+
+import domain.exception.InsufficientBalanceException;
+import domain.model.Account;
+import domain.model.Money;
+import domain.ports.persistence.AccountPersistencePort;
+import domain.ports.persistence.MovementPersistencePort;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.dao.OptimisticLockingFailureException;
+import persistence.adapters.BalanceUpdateMode;
+
+/**
+ * Concurrent withdrawals from a single account, comparing the entity save under optimistic locking with the guarded
+ * conditional update. Rejected withdrawals are counted apart from the successful ones.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(8)
+public class HotAccountBalanceUpdateBenchmark {
+
+    private static final Money AMOUNT = Money.ofMinorUnits(1);
+
+    @Param({"ENTITY", "CONDITIONAL"})
+    public BalanceUpdateMode mode;
+
+    private ConfigurableApplicationContext context;
+
+    private MovementPersistencePort movementPersistencePort;
+
+    private String accountId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start(Map.of("financial.persistence.balance-update.mode", mode.name()));
+        movementPersistencePort = context.getBean(MovementPersistencePort.class);
+        accountId = context.getBean(AccountPersistencePort.class)
+                .createNewAccount(new Account(null, "hot-" + UUID.randomUUID(), Money.ZERO, Money.of(new BigDecimal("1000000000"))))
+                .block()
+                .id();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void withdraw(final Outcomes outcomes) {
+        try {
+            movementPersistencePort.withdraw(accountId, AMOUNT, LocalDateTime.now()).block();
+            outcomes.successes++;
+        } catch (OptimisticLockingFailureException | InsufficientBalanceException e) {
+            outcomes.rejections++;
+        }
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Outcomes {
+
+        public long successes;
+
+        public long rejections;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            successes = 0;
+            rejections = 0;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package benchmarks;
+
+import domain.model.Money;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import persistence.ledger.LedgerEngine;
+import persistence.ledger.LedgerMovement;
+import persistence.ledger.LedgerProperties;
+
+/**
+ * The ledger engine on one shard, without fsync: a deposit, which now and then takes the snapshot of the shard, and the
+ * first page of the history of an account holding {@code history} movements.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LedgerBenchmark {
+
+    private static final Money AMOUNT = Money.ofMinorUnits(1_000);
+
+    @Param({"1000", "100000"})
+    public int history;
+
+    @Param("10000")
+    public int snapshotEvery;
+
+    private Path directory;
+
+    private LedgerEngine engine;
+
+    private UUID accountId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("ledger");
+        engine = new LedgerEngine(new LedgerProperties(1, directory.toString(), snapshotEvery, 1024, false),
+                new SimpleMeterRegistry());
+        accountId = UUID.fromString(engine.createAccount("benchmark", Money.ZERO).join().id());
+        final var start = LocalDateTime.now();
+        CompletableFuture.allOf(IntStream.range(0, history)
+                        .mapToObj(i -> engine.deposit(accountId, AMOUNT, start))
+                        .toArray(CompletableFuture[]::new))
+                .join();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        engine.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (final var file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Benchmark
+    public LedgerMovement deposit() {
+        return engine.deposit(accountId, AMOUNT, LocalDateTime.now()).join();
+    }
+
+    @Benchmark
+    public List<LedgerMovement> firstPage() {
+        return engine.findMovements(accountId, movement -> true, 0, 25).join();
+    }
+}
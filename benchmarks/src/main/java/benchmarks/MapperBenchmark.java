@@ -0,0 +1,62 @@
+package benchmarks;
+
+import domain.model.Account;
+import domain.model.Money;
+import domain.model.Movement;
+import domain.model.MovementType;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import persistence.entity.AccountEntity;
+import persistence.entity.MovementEntity;
+import persistence.mappers.AccountMapper;
+import persistence.mappers.MovementMapper;
+
+/**
+ * Entity to domain conversions done for every row the persistence adapters return.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapperBenchmark {
+
+    private final MovementMapper movementMapper = Mappers.getMapper(MovementMapper.class);
+
+    private final AccountMapper accountMapper = Mappers.getMapper(AccountMapper.class);
+
+    private final MovementEntity movementEntity = new MovementEntity(UUID.randomUUID(), UUID.randomUUID(),
+            Money.ofMinorUnits(1_234), MovementType.CREDIT, LocalDateTime.now(), Money.ofMinorUnits(1_234), null, null);
+
+    private final AccountEntity accountEntity = new AccountEntity(UUID.randomUUID(), "account",
+            Money.ofMinorUnits(150_000), Money.ofMinorUnits(50_000));
+
+    private final Account account = accountMapper.toAccount(accountEntity);
+
+    @Benchmark
+    public Movement toMovement() {
+        return movementMapper.toMovement(movementEntity);
+    }
+
+    @Benchmark
+    public Account toAccount() {
+        return accountMapper.toAccount(accountEntity);
+    }
+
+    @Benchmark
+    public AccountEntity toAccountEntity() {
+        return accountMapper.toAccountEntity(account);
+    }
+}
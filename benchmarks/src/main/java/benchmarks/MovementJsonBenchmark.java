@@ -0,0 +1,72 @@
+package benchmarks;
+
+import application.json.MoneyJsonComponent;
+import application.json.MovementJsonComponent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import domain.model.Money;
+import domain.model.Movement;
+import domain.model.MovementType;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Serialization of a movement listing response, half deposits and half transfer legs, with the object mapper
+ * configured like the application's one.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MovementJsonBenchmark {
+
+    @Param({"20", "1000"})
+    public int size;
+
+    private ObjectWriter writer;
+
+    private List<Movement> movements;
+
+    @Setup
+    public void setUp() {
+        writer = Jackson2ObjectMapperBuilder.json()
+                .serializerByType(Money.class, new MoneyJsonComponent.Serializer())
+                .serializerByType(Movement.class, new MovementJsonComponent.Serializer())
+                .build()
+                .writerFor(new TypeReference<List<Movement>>() {
+                });
+        final var accountId = UUID.randomUUID().toString();
+        final var counterpartyAccountId = UUID.randomUUID().toString();
+        final var date = LocalDateTime.now();
+        movements = IntStream.range(0, size)
+                .mapToObj(i -> i % 2 == 0
+                        ? new Movement(UUID.randomUUID().toString(), accountId, Money.ofMinorUnits(1_000 + i),
+                        MovementType.CREDIT, date.minusMinutes(i))
+                        : new Movement(UUID.randomUUID().toString(), accountId, Money.ofMinorUnits(1_000 + i),
+                        MovementType.DEBIT, date.minusMinutes(i), UUID.randomUUID().toString(), counterpartyAccountId))
+                .toList();
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return writer.writeValueAsBytes(movements);
+    }
+}
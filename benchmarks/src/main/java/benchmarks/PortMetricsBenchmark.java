@@ -0,0 +1,71 @@
+package benchmarks;
+
+import application.metrics.PortMetrics;
+import domain.model.Money;
+import domain.model.Movement;
+import domain.model.MovementType;
+import domain.ports.persistence.MovementPersistencePort;
+import domain.ports.service.MovementServicePort;
+import domain.service.MovementServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Mono;
+
+/**
+ * Cost of {@link PortMetrics} on a deposit crossing the service and the persistence port, as wired in the application,
+ * against the same calls without instrumentation. The persistence port answers at once, so only the call overhead is
+ * measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PortMetricsBenchmark {
+
+    private static final Money AMOUNT = Money.ofMinorUnits(1_000);
+
+    private final String accountId = UUID.randomUUID().toString();
+
+    private MovementServicePort plain;
+
+    private MovementServicePort instrumented;
+
+    @Setup
+    public void setUp() {
+        final var movement = Mono.just(new Movement(UUID.randomUUID().toString(), accountId, AMOUNT, MovementType.CREDIT,
+                LocalDateTime.now()));
+        final var persistencePort = (MovementPersistencePort) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{MovementPersistencePort.class}, (proxy, method, args) -> movement);
+        final var meterRegistry = new SimpleMeterRegistry();
+        plain = new MovementServiceImpl(persistencePort);
+        instrumented = (MovementServicePort) PortMetrics.instrument(
+                new MovementServiceImpl((MovementPersistencePort) PortMetrics.instrument(
+                        persistencePort, new Class<?>[]{MovementPersistencePort.class}, meterRegistry)),
+                new Class<?>[]{MovementServicePort.class}, meterRegistry);
+    }
+
+    @Benchmark
+    public Movement plain() {
+        return plain.deposit(accountId, AMOUNT).block();
+    }
+
+    @Benchmark
+    public Movement instrumented() {
+        return instrumented.deposit(accountId, AMOUNT).block();
+    }
+}
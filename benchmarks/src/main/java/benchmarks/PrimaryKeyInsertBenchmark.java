@@ -0,0 +1,154 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import liquibase.Liquibase;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.resource.ClassLoaderResourceAccessor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import persistence.entity.TimeOrderedUuid;
+
+/**
+ * Movement inserts, in batches, into an H2 file database created by the application changelog whose Movement table
+ * already holds {@code rows} movements, with random ids against {@link TimeOrderedUuid} ones. The size of the table on
+ * disk, primary key and history indexes included, is printed when the trial ends. Filling the table takes a few
+ * minutes at the default size, lower it with {@code -p rows=...} for a quick look.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class PrimaryKeyInsertBenchmark {
+
+    private static final int BATCH_SIZE = 1_000;
+
+    private static final int FILL_BATCH_SIZE = 10_000;
+
+    private static final BigDecimal AMOUNT = new BigDecimal("1.00");
+
+    public enum Ids {
+        RANDOM(UUID::randomUUID),
+        TIME_ORDERED(TimeOrderedUuid::next);
+
+        final Supplier<UUID> generator;
+
+        Ids(final Supplier<UUID> generator) {
+            this.generator = generator;
+        }
+    }
+
+    @Param({"RANDOM", "TIME_ORDERED"})
+    public Ids ids;
+
+    @Param("10000000")
+    public int rows;
+
+    private Path directory;
+
+    private Connection connection;
+
+    private PreparedStatement insert;
+
+    private final UUID accountId = UUID.randomUUID();
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("primary-key-insert");
+        connection = DriverManager.getConnection("jdbc:h2:file:" + directory.resolve("movements"));
+        new Liquibase("db/changelog/liquibase-changelog.xml", new ClassLoaderResourceAccessor(), new JdbcConnection(connection))
+                .update("");
+        connection.setAutoCommit(false);
+        try (var statement = connection.prepareStatement("INSERT INTO Account (id, version, name) VALUES (?, 0, 'benchmark')")) {
+            statement.setObject(1, accountId);
+            statement.execute();
+        }
+        insert = connection.prepareStatement(
+                "INSERT INTO Movement (id, account_id, amount, type, date, balance_after) VALUES (?, ?, ?, 'CREDIT', ?, ?)");
+        for (int filled = 0; filled < rows; filled += FILL_BATCH_SIZE) {
+            insert(Math.min(FILL_BATCH_SIZE, rows - filled));
+        }
+    }
+
+    /**
+     * Prints the pages used by the table and its indexes, then the size of the database file, which also keeps the
+     * pages rewritten by the inserts until H2 reuses them.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        final long count;
+        final long used;
+        try (var statement = connection.createStatement();
+             var result = statement.executeQuery("SELECT COUNT(*), DISK_SPACE_USED('MOVEMENT') FROM Movement")) {
+            result.next();
+            count = result.getLong(1);
+            used = result.getLong(2);
+        }
+        connection.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            final var paths = files.sorted(Comparator.reverseOrder()).toList();
+            final var fileSize = paths.stream().filter(Files::isRegularFile).mapToLong(PrimaryKeyInsertBenchmark::size).sum();
+            System.out.printf("%n%s ids, %d movements: table and indexes %.1f MB, database file %.1f MB%n",
+                    ids, count, used / 1048576.0, fileSize / 1048576.0);
+            for (final var path : paths) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    private static long size(final Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void insertBatch() throws SQLException {
+        insert(BATCH_SIZE);
+    }
+
+    private void insert(final int count) throws SQLException {
+        final var date = Timestamp.valueOf(LocalDateTime.now());
+        for (int i = 0; i < count; i++) {
+            insert.setObject(1, ids.generator.get());
+            insert.setObject(2, accountId);
+            insert.setBigDecimal(3, AMOUNT);
+            insert.setTimestamp(4, date);
+            insert.setBigDecimal(5, AMOUNT);
+            insert.addBatch();
+        }
+        insert.executeBatch();
+        connection.commit();
+    }
+}
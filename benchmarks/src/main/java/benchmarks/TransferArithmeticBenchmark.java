@@ -0,0 +1,86 @@
+package benchmarks;
+
+import domain.model.Money;
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import persistence.entity.AccountEntity;
+
+/**
+ * The balance arithmetic of a transfer, validating the debit against the limit and moving the amount between two
+ * accounts, done on {@link BigDecimal} as the entities used to, on {@link Money}, and on the entities through
+ * {@link AccountEntity#validateBalance}. The accounts swap roles after each transfer so the balances stay bounded.
+ * Run with {@code -prof gc} to compare the allocation per transfer.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransferArithmeticBenchmark {
+
+    private BigDecimal decimalDebitBalance = new BigDecimal("1500.00");
+
+    private BigDecimal decimalCreditBalance = new BigDecimal("250.00");
+
+    private final BigDecimal decimalLimit = new BigDecimal("500.00");
+
+    private final BigDecimal decimalAmount = new BigDecimal("12.34");
+
+    private Money debitBalance = Money.of(decimalDebitBalance);
+
+    private Money creditBalance = Money.of(decimalCreditBalance);
+
+    private final Money limit = Money.of(decimalLimit);
+
+    private final Money amount = Money.of(decimalAmount);
+
+    private AccountEntity debitAccount = new AccountEntity(UUID.randomUUID(), "debit", debitBalance, limit);
+
+    private AccountEntity creditAccount = new AccountEntity(UUID.randomUUID(), "credit", creditBalance, limit);
+
+    @Benchmark
+    public BigDecimal bigDecimal() {
+        if (decimalDebitBalance.add(decimalLimit).compareTo(decimalAmount) < 0) {
+            throw new IllegalStateException();
+        }
+        final var debited = decimalDebitBalance.subtract(decimalAmount);
+        final var credited = decimalCreditBalance.add(decimalAmount);
+        decimalDebitBalance = credited;
+        decimalCreditBalance = debited;
+        return debited;
+    }
+
+    @Benchmark
+    public Money money() {
+        if (!debitBalance.covers(limit, amount)) {
+            throw new IllegalStateException();
+        }
+        final var debited = debitBalance.minus(amount);
+        final var credited = creditBalance.plus(amount);
+        debitBalance = credited;
+        creditBalance = debited;
+        return debited;
+    }
+
+    @Benchmark
+    public AccountEntity entity() {
+        debitAccount.validateBalance(amount);
+        debitAccount.setBalance(debitAccount.getBalance().minus(amount));
+        creditAccount.setBalance(creditAccount.getBalance().plus(amount));
+        final var debited = debitAccount;
+        debitAccount = creditAccount;
+        creditAccount = debited;
+        return debited;
+    }
+}
@@ -0,0 +1,86 @@
+package benchmarks;
+
+import domain.model.Account;
+import domain.model.Money;
+import domain.model.Movement;
+import domain.ports.persistence.AccountPersistencePort;
+import domain.ports.persistence.MovementPersistencePort;
+import domain.service.MovementServiceImpl;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import persistence.adapters.BalanceUpdateMode;
+
+/**
+ * A transfer through {@link MovementServiceImpl} and the persistence adapter down to the in-memory H2, in both balance
+ * update modes. Two accounts swap roles after each transfer so neither runs out of balance.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class TransferServiceBenchmark {
+
+    private static final Money AMOUNT = Money.ofMinorUnits(1);
+
+    @Param({"ENTITY", "CONDITIONAL"})
+    public BalanceUpdateMode mode;
+
+    private ConfigurableApplicationContext context;
+
+    private MovementServiceImpl movementService;
+
+    private String firstAccountId;
+
+    private String secondAccountId;
+
+    private boolean forward;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start(Map.of("financial.persistence.balance-update.mode", mode.name()));
+        final var movementPersistencePort = context.getBean(MovementPersistencePort.class);
+        movementService = new MovementServiceImpl(movementPersistencePort);
+        final var accountPersistencePort = context.getBean(AccountPersistencePort.class);
+        firstAccountId = createAccount(accountPersistencePort);
+        secondAccountId = createAccount(accountPersistencePort);
+        movementPersistencePort.deposit(firstAccountId, Money.ofMinorUnits(100), LocalDateTime.now()).block();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Movement transfer() {
+        forward = !forward;
+        return forward
+                ? movementService.transfer(firstAccountId, secondAccountId, AMOUNT).block()
+                : movementService.transfer(secondAccountId, firstAccountId, AMOUNT).block();
+    }
+
+    private static String createAccount(final AccountPersistencePort accountPersistencePort) {
+        return accountPersistencePort
+                .createNewAccount(new Account(null, "transfer-" + UUID.randomUUID(), Money.ZERO, Money.ZERO))
+                .block()
+                .id();
+    }
+}
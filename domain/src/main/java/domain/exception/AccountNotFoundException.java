@@ -1,10 +1,14 @@
 package domain.exception;
 
+/**
+ * Raised for every lookup of an unknown id, so it is built without a stack trace: it is always answered as a
+ * {@code 404}, never logged.
+ */
 public class AccountNotFoundException extends RuntimeException {
     private final String accountId;
 
     public AccountNotFoundException(String accountId) {
-        super();
+        super(null, null, false, false);
         this.accountId = accountId;
     }
 
@@ -0,0 +1,17 @@
+package domain.exception;
+
+/**
+ * The movement kept losing to concurrent updates of the same account and was given up.
+ */
+public class MovementConflictException extends RuntimeException {
+    private final String accountId;
+
+    public MovementConflictException(String accountId, Throwable cause) {
+        super(cause);
+        this.accountId = accountId;
+    }
+
+    public String getAccountId() {
+        return accountId;
+    }
+}
@@ -1,6 +1,4 @@
 package domain.model;
 
-import java.math.BigDecimal;
-
-public record Account(String id, String name, BigDecimal balance, BigDecimal limit) {
+public record Account(String id, String name, Money balance, Money limit) {
 }
@@ -0,0 +1,19 @@
+package domain.model;
+
+/**
+ * Balance of one of the accounts asked for together, or the error that kept it from being read.
+ */
+public record BalanceResult(String accountId, Money balance, RuntimeException error) {
+
+    public static BalanceResult success(final String accountId, final Money balance) {
+        return new BalanceResult(accountId, balance, null);
+    }
+
+    public static BalanceResult failure(final String accountId, final RuntimeException error) {
+        return new BalanceResult(accountId, null, error);
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+}
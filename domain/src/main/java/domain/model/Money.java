@@ -0,0 +1,65 @@
+package domain.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Amount of money as a count of cents, the precision of the {@code DECIMAL(19, 2)} columns. Arithmetic is done on the
+ * {@code long} and fails with an {@link ArithmeticException} instead of overflowing; {@link BigDecimal} is only used to
+ * convert from and to the JSON and SQL representations.
+ */
+public record Money(long minorUnits) implements Comparable<Money> {
+
+    public static final int SCALE = 2;
+
+    public static final Money ZERO = new Money(0);
+
+    /**
+     * @throws ArithmeticException when the amount has more than two decimals, which would have to be rounded, or does
+     *                             not fit in a {@code long} of cents
+     */
+    public static Money of(final BigDecimal amount) {
+        return new Money(amount.setScale(SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact());
+    }
+
+    public static Money ofMinorUnits(final long minorUnits) {
+        return new Money(minorUnits);
+    }
+
+    public Money plus(final Money other) {
+        return new Money(Math.addExact(minorUnits, other.minorUnits));
+    }
+
+    public Money minus(final Money other) {
+        return new Money(Math.subtractExact(minorUnits, other.minorUnits));
+    }
+
+    public Money negate() {
+        return new Money(Math.negateExact(minorUnits));
+    }
+
+    public boolean isNegative() {
+        return minorUnits < 0;
+    }
+
+    /**
+     * Whether this balance, extended by {@code limit}, can pay {@code amount}; computed without creating any amount.
+     */
+    public boolean covers(final Money limit, final Money amount) {
+        return Math.addExact(minorUnits, limit.minorUnits) >= amount.minorUnits;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    @Override
+    public int compareTo(final Money other) {
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
@@ -1,8 +1,21 @@
 package domain.model;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
-public record Movement(String id, String account_id, String description, BigDecimal amount, MovementType type,
-                       LocalDateTime date) {
+/**
+ * Both legs of a transfer share the same {@code transfer_id} and name the account of the other leg in
+ * {@code counterparty_account_id}, both {@code null} on deposits and withdrawals. The description is not held, it is
+ * rendered from them when read.
+ */
+public record Movement(String id, String account_id, Money amount, MovementType type, LocalDateTime date,
+                       String transfer_id, String counterparty_account_id) {
+
+    public Movement(final String id, final String account_id, final Money amount, final MovementType type,
+                    final LocalDateTime date) {
+        this(id, account_id, amount, type, date, null, null);
+    }
+
+    public String description() {
+        return MovementDescription.of(type, counterparty_account_id);
+    }
 }
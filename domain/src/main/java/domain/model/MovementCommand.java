@@ -0,0 +1,9 @@
+package domain.model;
+
+
+/**
+ * A movement requested as part of a batch, {@code creditAccountId} is only used by transfers.
+ */
+public record MovementCommand(MovementOperation operation, String accountId, String creditAccountId,
+                              Money amount) {
+}
@@ -0,0 +1,13 @@
+package domain.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Position in a movement listing ordered newest first, the listing continues with the movements after it.
+ */
+public record MovementCursor(LocalDateTime date, String id) {
+
+    public static MovementCursor of(final Movement movement) {
+        return new MovementCursor(movement.date(), movement.id());
+    }
+}
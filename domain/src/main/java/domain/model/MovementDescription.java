@@ -7,4 +7,14 @@ public abstract class MovementDescription {
     public static final String DEBIT_TRANSFER_DESCRIPTION = "Transfer to account %s";
 
     public static final String CREDIT_TRANSFER_DESCRIPTION = "Transfer from account %s";
+
+    /**
+     * @param counterpartyAccountId account of the other leg of a transfer, {@code null} for any other movement
+     */
+    public static String of(final MovementType type, final String counterpartyAccountId) {
+        if (counterpartyAccountId == null) {
+            return type == MovementType.CREDIT ? DEPOSIT_DESCRIPTION : WITHDRAW_DESCRIPTION;
+        }
+        return String.format(type == MovementType.CREDIT ? CREDIT_TRANSFER_DESCRIPTION : DEBIT_TRANSFER_DESCRIPTION, counterpartyAccountId);
+    }
 }
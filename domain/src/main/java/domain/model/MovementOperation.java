@@ -0,0 +1,5 @@
+package domain.model;
+
+public enum MovementOperation {
+    DEPOSIT, WITHDRAW, TRANSFER
+}
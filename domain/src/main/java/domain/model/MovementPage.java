@@ -0,0 +1,21 @@
+package domain.model;
+
+import java.util.List;
+
+/**
+ * A page of a movement listing, with the cursor of the next page or {@code null} when it is the last one.
+ */
+public record MovementPage(List<Movement> movements, MovementCursor next) {
+
+    /**
+     * @param fetched  movements read for the page, up to one more than the page size to tell if a next page exists
+     * @param pageSize movements of the page
+     */
+    public static MovementPage of(final List<Movement> fetched, final int pageSize) {
+        if (fetched.size() <= pageSize) {
+            return new MovementPage(fetched, null);
+        }
+        final var movements = fetched.subList(0, pageSize);
+        return new MovementPage(movements, MovementCursor.of(movements.get(pageSize - 1)));
+    }
+}
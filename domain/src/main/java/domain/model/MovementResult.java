@@ -0,0 +1,19 @@
+package domain.model;
+
+/**
+ * Outcome of a {@link MovementCommand}, holding either the created movement or the error that rejected it.
+ */
+public record MovementResult(Movement movement, RuntimeException error) {
+
+    public static MovementResult success(final Movement movement) {
+        return new MovementResult(movement, null);
+    }
+
+    public static MovementResult failure(final RuntimeException error) {
+        return new MovementResult(null, error);
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+}
@@ -0,0 +1,26 @@
+package domain.model;
+
+/**
+ * Sums of the credits and of the debits of an account over a period.
+ */
+public record MovementTotals(Money credits, Money debits) {
+
+    public static final MovementTotals ZERO = new MovementTotals(Money.ZERO, Money.ZERO);
+
+    public static MovementTotals of(final MovementType type, final Money amount) {
+        return type == MovementType.CREDIT
+                ? new MovementTotals(amount, Money.ZERO)
+                : new MovementTotals(Money.ZERO, amount);
+    }
+
+    public MovementTotals plus(final MovementTotals other) {
+        return new MovementTotals(credits.plus(other.credits), debits.plus(other.debits));
+    }
+
+    /**
+     * @return the change of the balance over the period
+     */
+    public Money net() {
+        return credits.minus(debits);
+    }
+}
@@ -0,0 +1,7 @@
+package domain.model;
+
+/**
+ * An account with the version it was read at. The version changes with every balance update.
+ */
+public record VersionedAccount(Account account, long version) {
+}
@@ -1,7 +1,11 @@
 package domain.ports.persistence;
 
-import java.math.BigDecimal;
 import domain.model.Account;
+import domain.model.Money;
+import domain.model.VersionedAccount;
+import java.time.LocalDateTime;
+import java.util.Set;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 public interface AccountPersistencePort {
@@ -10,6 +14,26 @@ public interface AccountPersistencePort {
 
     Mono<Account> findAccountById(final String id);
 
-    Mono<BigDecimal> findBalanceByAccountId(final String accountId);
+    Mono<VersionedAccount> findVersionedAccountById(final String id);
+
+    /**
+     * Version of the account, read without loading the account where the adapter can. Empty when the account does not
+     * exist.
+     */
+    Mono<Long> findAccountVersion(final String id);
+
+    Mono<Money> findBalanceByAccountId(final String accountId);
+
+    /**
+     * The accounts found among {@code ids}, in no particular order, read with as few queries as the adapter can. Ids
+     * of no account are left out.
+     */
+    Flux<Account> findAccountsByIds(final Set<String> ids);
+
+    /**
+     * Balance of the account once every movement dated at or before {@code date} was applied, empty when the account
+     * does not exist.
+     */
+    Mono<Money> findBalanceAsOf(final String accountId, final LocalDateTime date);
 
 }
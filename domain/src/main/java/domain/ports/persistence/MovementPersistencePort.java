@@ -1,22 +1,76 @@
 package domain.ports.persistence;
 
+import domain.model.Money;
 import domain.model.Movement;
+import domain.model.MovementCommand;
+import domain.model.MovementCursor;
+import domain.model.MovementPage;
+import domain.model.MovementResult;
+import domain.model.MovementTotals;
 import domain.model.MovementType;
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 public interface MovementPersistencePort {
 
-    Mono<Movement> deposit(final String accountId, final BigDecimal amount, final LocalDateTime date);
+    Mono<Movement> deposit(final String accountId, final Money amount, final LocalDateTime date);
 
-    Mono<Movement> withdraw(final String accountId, final BigDecimal amount, final LocalDateTime date);
+    Mono<Movement> withdraw(final String accountId, final Money amount, final LocalDateTime date);
 
-    Mono<Movement> transfer(final String debitAccount, final String creditAccount, final BigDecimal amount, final LocalDateTime date);
+    Mono<Movement> transfer(final String debitAccount, final String creditAccount, final Money amount, final LocalDateTime date);
+
+    /**
+     * Applies the commands in order, emitting one result per command in the same order. A command rejected by a
+     * missing account or insufficient balance only fails its own result.
+     */
+    Flux<MovementResult> batch(final List<MovementCommand> commands, final LocalDateTime date);
 
     Flux<Movement> findMovementsByPeriod(final String accountId, final LocalDateTime start, final LocalDateTime end, final int page, final int pageSize);
 
     Flux<Movement> findMovementsByType(final String accountId, final MovementType type, final int page, final int pageSize);
 
+    /**
+     * Seeks the movements of the period older than the cursor, newest first, so every page costs the same as the
+     * first one.
+     *
+     * @param after cursor returned with the previous page, or {@code null} for the first page
+     */
+    Mono<MovementPage> findMovementPageByPeriod(final String accountId, final LocalDateTime start, final LocalDateTime end, final MovementCursor after, final int pageSize);
+
+    /**
+     * @param after cursor returned with the previous page, or {@code null} for the first page
+     * @see #findMovementPageByPeriod
+     */
+    Mono<MovementPage> findMovementPageByType(final String accountId, final MovementType type, final MovementCursor after, final int pageSize);
+
+    /**
+     * Streams the whole history of the account matching the filters, newest first, reading it as it is consumed.
+     *
+     * @param start movements from this date on, or {@code null} for no lower bound
+     * @param end   movements up to this date, or {@code null} for no upper bound
+     * @param type  movements of this type only, or {@code null} for both
+     */
+    Flux<Movement> exportMovements(final String accountId, final LocalDateTime start, final LocalDateTime end, final MovementType type);
+
+    /**
+     * Totals of the movements of the period, both bounds included, read from daily rollups for the days the period
+     * fully covers and from the movements themselves only for the partial days at its edges.
+     */
+    Mono<MovementTotals> sumMovementsByPeriod(final String accountId, final LocalDateTime start, final LocalDateTime end);
+
+    /**
+     * Both legs of the transfer, debit first, or none when there is no such transfer.
+     */
+    Flux<Movement> findTransfer(final String transferId);
+
+    /**
+     * Movements of the account committed from the subscription on, as they are committed. Never completes by itself.
+     *
+     * @param afterMovementId last movement the subscriber received: the movements of the account committed after it
+     *                        are read first, oldest first. {@code null}, or a movement of another account, for none
+     */
+    Flux<Movement> streamMovements(final String accountId, final String afterMovementId);
+
 }
@@ -1,14 +1,34 @@
 package domain.ports.service;
 
 import domain.model.Account;
-import java.math.BigDecimal;
+import domain.model.BalanceResult;
+import domain.model.Money;
+import domain.model.VersionedAccount;
+import java.time.LocalDateTime;
+import java.util.Set;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 public interface AccountServicePort {
 
-    Mono<Account> createNewAccount(final String name, final BigDecimal limit);
+    Mono<Account> createNewAccount(final String name, final Money limit);
 
     Mono<Account> findAccountById(final String id);
 
-    Mono<BigDecimal> retrieveBalanceFromAccountId(final String id);
+    Mono<VersionedAccount> findVersionedAccountById(final String id);
+
+    /**
+     * Version of the account, cheaper to read than the account to tell whether a copy of it is still current.
+     */
+    Mono<Long> retrieveAccountVersion(final String id);
+
+    Mono<Money> retrieveBalanceFromAccountId(final String id);
+
+    /**
+     * Emits one result per id as soon as it is known: the balances found first, then an {@code AccountNotFoundException}
+     * failure for each id of no account.
+     */
+    Flux<BalanceResult> retrieveBalances(final Set<String> ids);
+
+    Mono<Money> retrieveBalanceAsOf(final String id, final LocalDateTime date);
 }
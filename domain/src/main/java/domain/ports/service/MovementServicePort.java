@@ -1,21 +1,45 @@
 package domain.ports.service;
 
+import domain.model.Money;
 import domain.model.Movement;
+import domain.model.MovementCommand;
+import domain.model.MovementCursor;
+import domain.model.MovementPage;
+import domain.model.MovementResult;
+import domain.model.MovementTotals;
 import domain.model.MovementType;
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 public interface MovementServicePort {
 
-    Mono<Movement> deposit(final String accountId, final BigDecimal amount);
+    Mono<Movement> deposit(final String accountId, final Money amount);
 
-    Mono<Movement> withdraw(final String accountId, final BigDecimal amount);
+    Mono<Movement> withdraw(final String accountId, final Money amount);
 
-    Mono<Movement> transfer(final String debitAccount, final String creditAccount, final BigDecimal amount);
+    Mono<Movement> transfer(final String debitAccount, final String creditAccount, final Money amount);
+
+    Flux<MovementResult> batch(final List<MovementCommand> commands);
 
     Flux<Movement> findMovementsByPeriod(final String accountId, final LocalDateTime start, final LocalDateTime end, final int page, final int pageSize);
 
     Flux<Movement> findMovementsByType(final String accountId, final MovementType type, final int page, final int pageSize);
+
+    Mono<MovementPage> findMovementPageByPeriod(final String accountId, final LocalDateTime start, final LocalDateTime end, final MovementCursor after, final int pageSize);
+
+    Mono<MovementPage> findMovementPageByType(final String accountId, final MovementType type, final MovementCursor after, final int pageSize);
+
+    Flux<Movement> exportMovements(final String accountId, final LocalDateTime start, final LocalDateTime end, final MovementType type);
+
+    Mono<MovementTotals> sumMovementsByPeriod(final String accountId, final LocalDateTime start, final LocalDateTime end);
+
+    Flux<Movement> findTransfer(final String transferId);
+
+    /**
+     * @param afterMovementId last movement already received, whose successors are read before the live ones, or
+     *                        {@code null}
+     */
+    Flux<Movement> streamMovements(final String accountId, final String afterMovementId);
 }
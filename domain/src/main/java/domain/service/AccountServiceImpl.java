@@ -2,9 +2,16 @@ package domain.service;
 
 import domain.exception.AccountNotFoundException;
 import domain.model.Account;
+import domain.model.BalanceResult;
+import domain.model.Money;
+import domain.model.VersionedAccount;
 import domain.ports.persistence.AccountPersistencePort;
 import domain.ports.service.AccountServicePort;
-import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Set;
+import java.util.UUID;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 public class AccountServiceImpl implements AccountServicePort {
@@ -16,8 +23,8 @@ public class AccountServiceImpl implements AccountServicePort {
     }
 
     @Override
-    public Mono<Account> createNewAccount(final String name, final BigDecimal limit) {
-        return accountPersistencePort.createNewAccount(new Account(null, name, BigDecimal.ZERO, limit));
+    public Mono<Account> createNewAccount(final String name, final Money limit) {
+        return accountPersistencePort.createNewAccount(new Account(null, name, Money.ZERO, limit));
     }
 
     @Override
@@ -27,8 +34,51 @@ public class AccountServiceImpl implements AccountServicePort {
     }
 
     @Override
-    public Mono<BigDecimal> retrieveBalanceFromAccountId(final String id) {
+    public Mono<VersionedAccount> findVersionedAccountById(final String id) {
+        return accountPersistencePort.findVersionedAccountById(id)
+                .switchIfEmpty(Mono.error(new AccountNotFoundException(id)));
+    }
+
+    @Override
+    public Mono<Long> retrieveAccountVersion(final String id) {
+        return accountPersistencePort.findAccountVersion(id)
+                .switchIfEmpty(Mono.error(new AccountNotFoundException(id)));
+    }
+
+    @Override
+    public Mono<Money> retrieveBalanceFromAccountId(final String id) {
         return accountPersistencePort.findBalanceByAccountId(id)
                 .switchIfEmpty(Mono.error(new AccountNotFoundException(id)));
     }
+
+    /**
+     * Accounts are reported with the canonical form of their id, so the ids still missing are matched by that form and
+     * reported as they were requested.
+     */
+    @Override
+    public Flux<BalanceResult> retrieveBalances(final Set<String> ids) {
+        return Flux.defer(() -> {
+            final var missing = new HashMap<String, String>();
+            ids.forEach(id -> missing.put(canonical(id), id));
+            return accountPersistencePort.findAccountsByIds(ids)
+                    .doOnNext(account -> missing.remove(canonical(account.id())))
+                    .map(account -> BalanceResult.success(account.id(), account.balance()))
+                    .concatWith(Flux.defer(() -> Flux.fromIterable(missing.values()))
+                            .map(id -> BalanceResult.failure(id, new AccountNotFoundException(id))));
+        });
+    }
+
+    @Override
+    public Mono<Money> retrieveBalanceAsOf(final String id, final LocalDateTime date) {
+        return accountPersistencePort.findBalanceAsOf(id, date)
+                .switchIfEmpty(Mono.error(new AccountNotFoundException(id)));
+    }
+
+    private static String canonical(final String id) {
+        try {
+            return UUID.fromString(id).toString();
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return id;
+        }
+    }
 }
@@ -1,11 +1,17 @@
 package domain.service;
 
+import domain.model.Money;
 import domain.model.Movement;
+import domain.model.MovementCommand;
+import domain.model.MovementCursor;
+import domain.model.MovementPage;
+import domain.model.MovementResult;
+import domain.model.MovementTotals;
 import domain.model.MovementType;
 import domain.ports.persistence.MovementPersistencePort;
 import domain.ports.service.MovementServicePort;
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -18,20 +24,25 @@ public class MovementServiceImpl implements MovementServicePort {
     }
 
     @Override
-    public Mono<Movement> deposit(final String accountId, final BigDecimal amount) {
+    public Mono<Movement> deposit(final String accountId, final Money amount) {
         return movementPersistencePort.deposit(accountId, amount, LocalDateTime.now());
     }
 
     @Override
-    public Mono<Movement> withdraw(final String accountId, final BigDecimal amount) {
+    public Mono<Movement> withdraw(final String accountId, final Money amount) {
         return movementPersistencePort.withdraw(accountId, amount, LocalDateTime.now());
     }
 
     @Override
-    public Mono<Movement> transfer(final String debitAccount, final String creditAccount, final BigDecimal amount) {
+    public Mono<Movement> transfer(final String debitAccount, final String creditAccount, final Money amount) {
         return movementPersistencePort.transfer(debitAccount, creditAccount, amount, LocalDateTime.now());
     }
 
+    @Override
+    public Flux<MovementResult> batch(final List<MovementCommand> commands) {
+        return movementPersistencePort.batch(commands, LocalDateTime.now());
+    }
+
     @Override
     public Flux<Movement> findMovementsByPeriod(final String accountId, final LocalDateTime start, final LocalDateTime end, final int page, final int pageSize) {
         return movementPersistencePort.findMovementsByPeriod(accountId, start, end, page, pageSize);
@@ -42,4 +53,34 @@ public class MovementServiceImpl implements MovementServicePort {
         return movementPersistencePort.findMovementsByType(accountId, type, page, pageSize);
     }
 
+    @Override
+    public Mono<MovementPage> findMovementPageByPeriod(final String accountId, final LocalDateTime start, final LocalDateTime end, final MovementCursor after, final int pageSize) {
+        return movementPersistencePort.findMovementPageByPeriod(accountId, start, end, after, pageSize);
+    }
+
+    @Override
+    public Mono<MovementPage> findMovementPageByType(final String accountId, final MovementType type, final MovementCursor after, final int pageSize) {
+        return movementPersistencePort.findMovementPageByType(accountId, type, after, pageSize);
+    }
+
+    @Override
+    public Flux<Movement> exportMovements(final String accountId, final LocalDateTime start, final LocalDateTime end, final MovementType type) {
+        return movementPersistencePort.exportMovements(accountId, start, end, type);
+    }
+
+    @Override
+    public Mono<MovementTotals> sumMovementsByPeriod(final String accountId, final LocalDateTime start, final LocalDateTime end) {
+        return movementPersistencePort.sumMovementsByPeriod(accountId, start, end);
+    }
+
+    @Override
+    public Flux<Movement> findTransfer(final String transferId) {
+        return movementPersistencePort.findTransfer(transferId);
+    }
+
+    @Override
+    public Flux<Movement> streamMovements(final String accountId, final String afterMovementId) {
+        return movementPersistencePort.streamMovements(accountId, afterMovementId);
+    }
+
 }
@@ -0,0 +1,37 @@
+package domain.model;
+
+import java.math.BigDecimal;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class MoneyTest {
+
+    @Test
+    void convertsFromAndToBigDecimalWithTwoDecimals() {
+        Assertions.assertEquals(1050, Money.of(new BigDecimal("10.5")).minorUnits());
+        Assertions.assertEquals(new BigDecimal("10.50"), Money.ofMinorUnits(1050).toBigDecimal());
+        Assertions.assertEquals(Money.of(new BigDecimal("0.12")), Money.of(new BigDecimal("0.12000")));
+    }
+
+    @Test
+    void amountWithMoreThanTwoDecimalsIsRejectedInsteadOfRounded() {
+        Assertions.assertThrows(ArithmeticException.class, () -> Money.of(new BigDecimal("0.125")));
+    }
+
+    @Test
+    void arithmeticAndCoverage() {
+        final var balance = Money.of(BigDecimal.TEN);
+        final var limit = Money.of(BigDecimal.ONE);
+
+        Assertions.assertEquals(Money.of(new BigDecimal("9.00")), balance.minus(limit));
+        Assertions.assertEquals(Money.of(new BigDecimal("11")), balance.plus(limit));
+        Assertions.assertTrue(balance.covers(limit, Money.of(new BigDecimal("11"))));
+        Assertions.assertFalse(balance.covers(limit, Money.of(new BigDecimal("11.01"))));
+    }
+
+    @Test
+    void overflowFailsInsteadOfWrapping() {
+        Assertions.assertThrows(ArithmeticException.class, () -> Money.ofMinorUnits(Long.MAX_VALUE).plus(Money.ofMinorUnits(1)));
+        Assertions.assertThrows(ArithmeticException.class, () -> Money.of(new BigDecimal("1e30")));
+    }
+}
@@ -0,0 +1,22 @@
+package domain.model;
+
+import java.time.LocalDateTime;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class MovementDescriptionTest {
+
+    @Test
+    void rendersDescriptionFromTypeAndCounterparty() {
+        final var date = LocalDateTime.now();
+
+        Assertions.assertEquals("Deposit in account",
+                new Movement("1", "a", Money.ZERO, MovementType.CREDIT, date).description());
+        Assertions.assertEquals("Withdraw on account",
+                new Movement("2", "a", Money.ZERO, MovementType.DEBIT, date).description());
+        Assertions.assertEquals("Transfer to account b",
+                new Movement("3", "a", Money.ZERO, MovementType.DEBIT, date, "t", "b").description());
+        Assertions.assertEquals("Transfer from account a",
+                new Movement("4", "b", Money.ZERO, MovementType.CREDIT, date, "t", "a").description());
+    }
+}
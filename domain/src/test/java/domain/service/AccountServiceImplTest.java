@@ -3,8 +3,12 @@ package domain.service;
 
 import domain.exception.AccountNotFoundException;
 import domain.model.Account;
+import domain.model.BalanceResult;
+import domain.model.Money;
 import domain.ports.persistence.AccountPersistencePort;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Set;
 import java.util.UUID;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -13,6 +17,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
@@ -34,8 +39,8 @@ class AccountServiceImplTest {
         final var account = new Account(
                 accountId,
                 UUID.randomUUID().toString(),
-                BigDecimal.TEN,
-                BigDecimal.ZERO
+                Money.of(BigDecimal.TEN),
+                Money.ZERO
         );
         Mockito.when(accountPersistencePort.findAccountById(eq(accountId))).thenReturn(
                 Mono.just(account)
@@ -61,7 +66,7 @@ class AccountServiceImplTest {
     @Test
     void retrieveBalanceFromAccountIdWithSuccess() {
         final var accountId = UUID.randomUUID().toString();
-        final var expected = BigDecimal.TEN;
+        final var expected = Money.of(BigDecimal.TEN);
         Mockito.when(accountPersistencePort.findBalanceByAccountId(eq(accountId))).thenReturn(
                 Mono.just(expected)
         );
@@ -83,4 +88,55 @@ class AccountServiceImplTest {
                 .verify();
     }
 
-}
\ No newline at end of file
+    @Test
+    void retrieveAccountVersionWithEmpty() {
+        final var accountId = UUID.randomUUID().toString();
+
+        Mockito.when(accountPersistencePort.findAccountVersion(eq(accountId))).thenReturn(
+                Mono.empty()
+        );
+        StepVerifier.create(accountService.retrieveAccountVersion(accountId))
+                .expectError(AccountNotFoundException.class)
+                .verify();
+    }
+
+    @Test
+    void retrieveBalanceAsOfWithEmpty() {
+        final var accountId = UUID.randomUUID().toString();
+        final var date = LocalDateTime.now();
+
+        Mockito.when(accountPersistencePort.findBalanceAsOf(eq(accountId), eq(date))).thenReturn(
+                Mono.empty()
+        );
+        StepVerifier.create(accountService.retrieveBalanceAsOf(accountId, date))
+                .expectError(AccountNotFoundException.class)
+                .verify();
+    }
+
+    @Test
+    void retrieveBalancesReportsMissingIds() {
+        final var found = new Account(UUID.randomUUID().toString(), "found", Money.of(BigDecimal.TEN), Money.ZERO);
+        final var missingId = UUID.randomUUID().toString();
+        final var ids = Set.of(found.id(), missingId);
+        Mockito.when(accountPersistencePort.findAccountsByIds(eq(ids))).thenReturn(Flux.just(found));
+
+        StepVerifier.create(accountService.retrieveBalances(ids))
+                .assertNext(result -> Assertions.assertEquals(BalanceResult.success(found.id(), found.balance()), result))
+                .assertNext(result -> {
+                    Assertions.assertEquals(missingId, result.accountId());
+                    Assertions.assertInstanceOf(AccountNotFoundException.class, result.error());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void retrieveBalancesMatchesIdsInAnyCase() {
+        final var found = new Account(UUID.randomUUID().toString(), "found", Money.of(BigDecimal.TEN), Money.ZERO);
+        final var ids = Set.of(found.id().toUpperCase());
+        Mockito.when(accountPersistencePort.findAccountsByIds(eq(ids))).thenReturn(Flux.just(found));
+
+        StepVerifier.create(accountService.retrieveBalances(ids))
+                .assertNext(result -> Assertions.assertEquals(BalanceResult.success(found.id(), found.balance()), result))
+                .verifyComplete();
+    }
+}
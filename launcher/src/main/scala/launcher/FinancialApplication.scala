@@ -5,12 +5,14 @@ import io.swagger.v3.oas.annotations.tags.Tag
 import io.swagger.v3.oas.annotations.{OpenAPIDefinition, info}
 import org.springframework.boot.SpringApplication
 import org.springframework.boot.autoconfigure.SpringBootApplication
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan
 import org.springframework.data.r2dbc.repository.config.EnableR2dbcRepositories
 
 @SpringBootApplication(scanBasePackages =
   Array("application", "persistence", "launcher")
 )
 @EnableR2dbcRepositories(basePackages = Array("persistence"))
+@ConfigurationPropertiesScan(basePackages = Array("persistence"))
 @OpenAPIDefinition(
   info = new Info(
     title = "Financial",
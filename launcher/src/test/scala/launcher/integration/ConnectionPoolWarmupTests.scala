@@ -0,0 +1,46 @@
+package launcher.integration
+
+import io.r2dbc.pool.ConnectionPool
+import io.r2dbc.spi.{ConnectionFactory, Wrapped}
+import launcher.FinancialApplication
+import launcher.integration.ConnectionPoolWarmupTests.ReadinessProbe
+import org.junit.jupiter.api.{Assertions, Test}
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.boot.availability.{AvailabilityChangeEvent, ReadinessState}
+import org.springframework.boot.test.context.SpringBootTest
+import org.springframework.context.event.EventListener
+import org.springframework.test.context.ContextConfiguration
+
+object ConnectionPoolWarmupTests {
+
+  /** Records the connections of the pool when the application reports
+    * ready.
+    */
+  class ReadinessProbe(connectionFactory: ConnectionFactory) {
+
+    @volatile var allocatedWhenReady: Int = -1
+
+    @EventListener def onReadiness(event: AvailabilityChangeEvent[ReadinessState]): Unit =
+      if (event.getState == ReadinessState.ACCEPTING_TRAFFIC) {
+        val pool = connectionFactory.asInstanceOf[Wrapped[ConnectionFactory]].unwrap.asInstanceOf[ConnectionPool]
+        allocatedWhenReady = pool.getMetrics.get.allocatedSize
+      }
+  }
+}
+
+@SpringBootTest(
+  properties = Array(
+    "spring.r2dbc.url=r2dbc:h2:mem:///./pooltestdb",
+    "spring.liquibase.url=jdbc:h2:mem:./pooltestdb;DB_CLOSE_DELAY=-1",
+    "spring.r2dbc.pool.initial-size=4",
+    "spring.r2dbc.pool.max-size=8"
+  )
+)
+@ContextConfiguration(classes = Array(classOf[FinancialApplication], classOf[ReadinessProbe]))
+class ConnectionPoolWarmupTests {
+
+  @Autowired private val readinessProbe: ReadinessProbe = null
+
+  @Test def poolIsWarmWhenTheApplicationIsReady(): Unit =
+    Assertions.assertEquals(4, readinessProbe.allocatedWhenReady)
+}
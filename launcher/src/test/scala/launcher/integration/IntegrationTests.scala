@@ -1,29 +1,42 @@
 package launcher.integration
 
-import application.dto.{BalanceDTO, CreateAccountDTO, CreateMovementDTO, TransferMovementDTO}
+import application.dto.{
+  AccountBalanceResultDTO,
+  BalanceDTO,
+  BatchMovementDTO,
+  BatchMovementResultDTO,
+  CreateAccountDTO,
+  CreateMovementDTO,
+  MovementTotalsDTO,
+  TransferMovementDTO
+}
 import domain.model.MovementDescription.{CREDIT_TRANSFER_DESCRIPTION, DEBIT_TRANSFER_DESCRIPTION}
-import domain.model.{Account, Movement, MovementType}
+import domain.model.{Account, Money, Movement, MovementOperation, MovementType}
 import launcher.FinancialApplication
 import org.junit.jupiter.api.*
 import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient
 import org.springframework.boot.test.context.SpringBootTest
-import org.springframework.http.MediaType
+import org.springframework.core.ParameterizedTypeReference
+import org.springframework.http.codec.ServerSentEvent
+import org.springframework.http.{HttpHeaders, MediaType}
 import org.springframework.test.context.ContextConfiguration
 import org.springframework.test.web.reactive.server.WebTestClient
 import org.springframework.web.reactive.function.BodyInserters
 
-import java.math.{BigDecimal, RoundingMode}
+import java.math.BigDecimal
 import java.util
 import java.util.UUID
+import java.util.concurrent.TimeUnit
 import java.util.concurrent.atomic.AtomicReference
 import java.util.stream.IntStream
 
 object IntegrationTests {
   val accountId1 = new AtomicReference[String]
   val accountId2 = new AtomicReference[String]
-  val expectedAmount: BigDecimal = BigDecimal.TEN.setScale(2, RoundingMode.DOWN)
-  val expectedZero: BigDecimal = BigDecimal.ZERO.setScale(2, RoundingMode.DOWN)
+  val expectedAmount: Money = Money.of(BigDecimal.TEN)
+  val expectedZero: Money = Money.ZERO
 }
 
 @SpringBootTest(
@@ -33,6 +46,7 @@ object IntegrationTests {
   )
 )
 @AutoConfigureWebTestClient
+@AutoConfigureObservability
 @ContextConfiguration(classes = Array(classOf[FinancialApplication]))
 @TestMethodOrder(
   classOf[MethodOrderer.OrderAnnotation]
@@ -144,6 +158,9 @@ class IntegrationTests {
       IntegrationTests.expectedAmount,
       account2Movements(0).amount
     )
+    // ids are generated time-ordered by the persistence layer
+    Assertions.assertEquals(7, UUID.fromString(IntegrationTests.accountId1.get).version)
+    Assertions.assertEquals(7, UUID.fromString(account1Movements(0).id).version)
   }
 
   @Order(5)
@@ -245,7 +262,7 @@ class IntegrationTests {
       .getResponseBody
 
     Assertions.assertEquals(
-      IntegrationTests.expectedAmount.add(IntegrationTests.expectedAmount),
+      IntegrationTests.expectedAmount.plus(IntegrationTests.expectedAmount),
       account2Balance.balance
     )
     Assertions.assertEquals(
@@ -359,10 +376,395 @@ class IntegrationTests {
     )
     Assertions.assertEquals(account2Balance.balance, account2BalanceOfMovements)
     // based on the order of tests and the number of the intStream range transfer processes. The balance of account 2 must be 240.
-    val expectedTotal = BigDecimal.valueOf(240).setScale(2, RoundingMode.FLOOR)
+    val expectedTotal = Money.of(BigDecimal.valueOf(240))
     Assertions.assertEquals(expectedTotal, account2BalanceOfMovements)
   }
 
+  @Order(9)
+  @Test def batchMovementsWithPerItemResults(): Unit = {
+    val batch = util.List.of(
+      new BatchMovementDTO(
+        MovementOperation.DEPOSIT,
+        IntegrationTests.accountId1.get,
+        null,
+        IntegrationTests.expectedAmount
+      ),
+      new BatchMovementDTO(
+        MovementOperation.WITHDRAW,
+        IntegrationTests.accountId1.get,
+        null,
+        Money.of(BigDecimal.valueOf(1000))
+      ),
+      new BatchMovementDTO(
+        MovementOperation.TRANSFER,
+        IntegrationTests.accountId1.get,
+        IntegrationTests.accountId2.get,
+        Money.of(BigDecimal.valueOf(5))
+      ),
+      new BatchMovementDTO(
+        MovementOperation.DEPOSIT,
+        UUID.randomUUID.toString,
+        null,
+        IntegrationTests.expectedAmount
+      )
+    )
+
+    val results = webClient.post
+      .uri("/api/v1/movements/batch")
+      .contentType(MediaType.APPLICATION_JSON)
+      .body(BodyInserters.fromValue(batch))
+      .exchange
+      .expectStatus
+      .is2xxSuccessful
+      .expectBody(classOf[Array[BatchMovementResultDTO]])
+      .returnResult
+      .getResponseBody
+
+    Assertions.assertEquals(4, results.length)
+    Assertions.assertNull(results(0).error)
+    Assertions.assertEquals(400, results(1).error.code)
+    Assertions.assertEquals(MovementType.DEBIT, results(2).movement.`type`)
+    Assertions.assertEquals(404, results(3).error.code)
+
+    val account1Balance = webClient.get
+      .uri("/api/v1/accounts/" + IntegrationTests.accountId1.get + "/balance")
+      .exchange
+      .expectStatus
+      .is2xxSuccessful
+      .expectBody(classOf[BalanceDTO])
+      .returnResult
+      .getResponseBody
+
+    val account2Balance = webClient.get
+      .uri("/api/v1/accounts/" + IntegrationTests.accountId2.get + "/balance")
+      .exchange
+      .expectStatus
+      .is2xxSuccessful
+      .expectBody(classOf[BalanceDTO])
+      .returnResult
+      .getResponseBody
+
+    Assertions.assertEquals(
+      Money.of(BigDecimal.valueOf(5)),
+      account1Balance.balance
+    )
+    Assertions.assertEquals(
+      Money.of(BigDecimal.valueOf(245)),
+      account2Balance.balance
+    )
+  }
+
+  @Order(10)
+  @Test def retrieveMovementsPageByPageWithCursor(): Unit = {
+    val uri = "/api/v1/movements/" + IntegrationTests.accountId1.get + "?start=2000-10-31&end=3000-10-31"
+
+    val allMovements = webClient.get
+      .uri(uri + "&pageSize=1000")
+      .exchange
+      .expectStatus
+      .is2xxSuccessful
+      .expectBody(classOf[Array[Movement]])
+      .returnResult
+      .getResponseBody
+
+    val pagedMovements = new util.ArrayList[Movement]()
+    var after: String = null
+    var first = true
+    while (first || after != null) {
+      first = false
+      val result = webClient.get
+        .uri(uri + "&pageSize=3" + (if (after == null) "" else "&after=" + after))
+        .exchange
+        .expectStatus
+        .is2xxSuccessful
+        .expectBody(classOf[Array[Movement]])
+        .returnResult
+      pagedMovements.addAll(util.Arrays.asList(result.getResponseBody: _*))
+      after = result.getResponseHeaders.getFirst("X-Next-Cursor")
+    }
+
+    Assertions.assertTrue(allMovements.length > 3)
+    Assertions.assertEquals(util.Arrays.asList(allMovements: _*), pagedMovements)
+  }
+
+  @Order(11)
+  @Test def exportMovementsAsNdjsonStream(): Unit = {
+    val allMovements = webClient.get
+      .uri("/api/v1/movements/" + IntegrationTests.accountId1.get + "?start=2000-10-31&end=3000-10-31&pageSize=1000")
+      .exchange
+      .expectStatus
+      .is2xxSuccessful
+      .expectBody(classOf[Array[Movement]])
+      .returnResult
+      .getResponseBody
+
+    val exported = webClient.get
+      .uri("/api/v1/movements/" + IntegrationTests.accountId1.get + "/export")
+      .accept(MediaType.APPLICATION_NDJSON)
+      .exchange
+      .expectStatus
+      .is2xxSuccessful
+      .returnResult(classOf[Movement])
+      .getResponseBody
+      .collectList
+      .block
+
+    val exportedDebits = webClient.get
+      .uri("/api/v1/movements/" + IntegrationTests.accountId1.get + "/export?type=DEBIT&start=2000-10-31")
+      .accept(MediaType.APPLICATION_NDJSON)
+      .exchange
+      .expectStatus
+      .is2xxSuccessful
+      .returnResult(classOf[Movement])
+      .getResponseBody
+      .collectList
+      .block
+
+    Assertions.assertEquals(util.Arrays.asList(allMovements: _*), exported)
+    Assertions.assertEquals(
+      allMovements.count(_.`type` == MovementType.DEBIT),
+      exportedDebits.size
+    )
+  }
+
+  @Order(12)
+  @Test def exposePortAndPoolMetricsToPrometheus(): Unit = {
+    webClient.get
+      .uri("/api/v1/accounts/" + UUID.randomUUID + "/balance")
+      .exchange
+      .expectStatus
+      .isNotFound
+    webClient.post
+      .uri("/api/v1/movements/" + IntegrationTests.accountId1.get + "/withdraw")
+      .contentType(MediaType.APPLICATION_JSON)
+      .body(BodyInserters.fromValue(new CreateMovementDTO(Money.of(BigDecimal.valueOf(1000000)))))
+      .exchange
+      .expectStatus
+      .isBadRequest
+
+    val scrape = webClient.get
+      .uri("/actuator/prometheus")
+      .exchange
+      .expectStatus
+      .is2xxSuccessful
+      .expectBody(classOf[String])
+      .returnResult
+      .getResponseBody
+
+    Assertions.assertTrue(
+      scrape.contains(
+        "financial_port_calls_seconds_count{operation=\"transfer\",outcome=\"success\",port=\"MovementServicePort\",}"
+      )
+    )
+    Assertions.assertTrue(
+      scrape.contains(
+        "financial_port_calls_seconds_count{operation=\"withdraw\",outcome=\"insufficient_balance\",port=\"MovementPersistencePort\",}"
+      )
+    )
+    Assertions.assertTrue(
+      scrape.contains(
+        "financial_port_calls_seconds_count{operation=\"findVersionedAccountById\",outcome=\"not_found\",port=\"AccountServicePort\",}"
+      )
+    )
+    Assertions.assertTrue(scrape.contains("r2dbc_pool_acquired_connections"))
+    Assertions.assertTrue(scrape.contains("r2dbc_pool_pending_connections"))
+    Assertions.assertTrue(scrape.contains("r2dbc_pool_acquire_seconds_count{name=\"connectionFactory\",}"))
+  }
+
+  @Order(13)
+  @Test def sumMovementsFromDailyRollups(): Unit = {
+    val movements = webClient.get
+      .uri("/api/v1/movements/" + IntegrationTests.accountId1.get + "?start=2000-10-31&end=3000-10-31&pageSize=1000")
+      .exchange
+      .expectStatus
+      .is2xxSuccessful
+      .expectBody(classOf[Array[Movement]])
+      .returnResult
+      .getResponseBody
+
+    val totals = webClient.get
+      .uri("/api/v1/movements/" + IntegrationTests.accountId1.get + "/totals?start=2000-10-31&end=3000-10-31")
+      .exchange
+      .expectStatus
+      .is2xxSuccessful
+      .expectBody(classOf[MovementTotalsDTO])
+      .returnResult
+      .getResponseBody
+
+    val expectedCredits = movements.filter(_.`type` == MovementType.CREDIT).map(_.amount).foldLeft(Money.ZERO)(_ plus _)
+    val expectedDebits = movements.filter(_.`type` == MovementType.DEBIT).map(_.amount).foldLeft(Money.ZERO)(_ plus _)
+    Assertions.assertEquals(expectedCredits, totals.credits)
+    Assertions.assertEquals(expectedDebits, totals.debits)
+    Assertions.assertEquals(retrieveTotalBalanceFromMovements(movements), totals.net)
+
+    webClient.get
+      .uri("/api/v1/movements/" + IntegrationTests.accountId1.get + "/totals?start=2000-10-31&end=2000-11-30")
+      .exchange
+      .expectStatus
+      .is2xxSuccessful
+      .expectBody(classOf[MovementTotalsDTO])
+      .isEqualTo(new MovementTotalsDTO(Money.ZERO, Money.ZERO, Money.ZERO))
+  }
+
+  @Order(14)
+  @Test def retrieveBalanceAsOfAnyMovement(): Unit = {
+    val movements = webClient.get
+      .uri("/api/v1/movements/" + IntegrationTests.accountId1.get + "?start=2000-10-31&end=3000-10-31&pageSize=1000")
+      .exchange
+      .expectStatus
+      .is2xxSuccessful
+      .expectBody(classOf[Array[Movement]])
+      .returnResult
+      .getResponseBody
+
+    // movements sharing their instant, like the ones of a batch, are only told apart by id
+    val singleDates = movements.groupBy(_.date).filter(_._2.length == 1).keys
+    Assertions.assertFalse(singleDates.isEmpty)
+    singleDates.foreach(date =>
+      Assertions.assertEquals(
+        new BalanceDTO(retrieveTotalBalanceFromMovements(movements.filter(!_.date.isAfter(date)))),
+        balanceAsOf(date.toString)
+      )
+    )
+    Assertions.assertEquals(new BalanceDTO(Money.ZERO), balanceAsOf("2000-10-31T00:00:00"))
+    Assertions.assertEquals(new BalanceDTO(retrieveTotalBalanceFromMovements(movements)), balanceAsOf("3000-10-31T00:00:00"))
+  }
+
+  @Order(15)
+  @Test def retrieveBothLegsOfATransfer(): Unit = {
+    createDepositsWithSuccess()
+    val debit = webClient.post
+      .uri("/api/v1/movements/" + IntegrationTests.accountId1.get + "/transfer")
+      .contentType(MediaType.APPLICATION_JSON)
+      .body(BodyInserters.fromValue(new TransferMovementDTO(IntegrationTests.accountId2.get, IntegrationTests.expectedAmount)))
+      .exchange
+      .expectStatus
+      .is2xxSuccessful
+      .expectBody(classOf[Movement])
+      .returnResult
+      .getResponseBody
+
+    Assertions.assertEquals(IntegrationTests.accountId2.get, debit.counterparty_account_id)
+    webClient.get
+      .uri("/api/v1/movements/transfers/" + debit.transfer_id)
+      .exchange
+      .expectStatus
+      .is2xxSuccessful
+      .expectBody
+      .jsonPath("$.length()")
+      .isEqualTo(2)
+      .jsonPath("$[0].id")
+      .isEqualTo(debit.id)
+      .jsonPath("$[0].description")
+      .isEqualTo(String.format(DEBIT_TRANSFER_DESCRIPTION, IntegrationTests.accountId2.get))
+      .jsonPath("$[1].account_id")
+      .isEqualTo(IntegrationTests.accountId2.get)
+      .jsonPath("$[1].transfer_id")
+      .isEqualTo(debit.transfer_id)
+      .jsonPath("$[1].description")
+      .isEqualTo(String.format(CREDIT_TRANSFER_DESCRIPTION, IntegrationTests.accountId1.get))
+  }
+
+  @Order(16)
+  @Test def retrieveBalancesOfManyAccounts(): Unit = {
+    val missingId = UUID.randomUUID.toString
+    val results = webClient.post
+      .uri("/api/v1/accounts/balances")
+      .contentType(MediaType.APPLICATION_JSON)
+      .body(BodyInserters.fromValue(util.List.of(IntegrationTests.accountId1.get, IntegrationTests.accountId2.get, missingId)))
+      .exchange
+      .expectStatus
+      .is2xxSuccessful
+      .expectBodyList(classOf[AccountBalanceResultDTO])
+      .returnResult
+      .getResponseBody
+
+    Assertions.assertEquals(3, results.size)
+    results.forEach(result =>
+      if (result.accountId == missingId) {
+        Assertions.assertNull(result.balance)
+        Assertions.assertEquals(404, result.error.code)
+      } else {
+        Assertions.assertNull(result.error)
+        Assertions.assertNotNull(result.balance)
+      }
+    )
+  }
+
+  @Order(17)
+  @Test def answerNotModifiedWhileTheBalanceIsUnchanged(): Unit = {
+    val eTag = webClient.get
+      .uri("/api/v1/accounts/" + IntegrationTests.accountId1.get + "/balance")
+      .exchange
+      .expectStatus
+      .is2xxSuccessful
+      .returnResult(classOf[BalanceDTO])
+      .getResponseHeaders
+      .getETag
+
+    webClient.get
+      .uri("/api/v1/accounts/" + IntegrationTests.accountId1.get)
+      .header(HttpHeaders.IF_NONE_MATCH, eTag)
+      .exchange
+      .expectStatus
+      .isNotModified
+
+    createDepositsWithSuccess()
+    webClient.get
+      .uri("/api/v1/accounts/" + IntegrationTests.accountId1.get + "/balance")
+      .header(HttpHeaders.IF_NONE_MATCH, eTag)
+      .exchange
+      .expectStatus
+      .is2xxSuccessful
+      .expectHeader
+      .value(HttpHeaders.ETAG, (changed: String) => Assertions.assertNotEquals(eTag, changed))
+  }
+
+  @Order(18)
+  @Test def streamMissedThenLiveMovements(): Unit = {
+    val seen = deposit(IntegrationTests.accountId1.get)
+    val missed = deposit(IntegrationTests.accountId1.get)
+
+    val events = webClient.get
+      .uri("/api/v1/movements/" + IntegrationTests.accountId1.get + "/stream?after=" + seen.id)
+      .accept(MediaType.TEXT_EVENT_STREAM)
+      .exchange
+      .expectStatus
+      .is2xxSuccessful
+      .returnResult(new ParameterizedTypeReference[ServerSentEvent[Movement]] {})
+      .getResponseBody
+      .take(2)
+      .map((event: ServerSentEvent[Movement]) => event.id)
+      .collectList
+      .toFuture
+    // the response has started with the missed movement, so the stream is already registered
+    val live = deposit(IntegrationTests.accountId1.get)
+
+    Assertions.assertEquals(util.List.of(missed.id, live.id), events.get(10, TimeUnit.SECONDS))
+  }
+
+  private def deposit(accountId: String) =
+    webClient.post
+      .uri("/api/v1/movements/" + accountId + "/deposit")
+      .contentType(MediaType.APPLICATION_JSON)
+      .body(BodyInserters.fromValue(createMovementDTO))
+      .exchange
+      .expectStatus
+      .is2xxSuccessful
+      .expectBody(classOf[Movement])
+      .returnResult
+      .getResponseBody
+
+  private def balanceAsOf(date: String) =
+    webClient.get
+      .uri("/api/v1/accounts/" + IntegrationTests.accountId1.get + "/balance?asOf=" + date)
+      .exchange
+      .expectStatus
+      .is2xxSuccessful
+      .expectBody(classOf[BalanceDTO])
+      .returnResult
+      .getResponseBody
+
   private def retrieveTotalBalanceFromMovements(movements: Array[Movement]) =
     util.Arrays
       .stream(movements)
@@ -370,13 +772,12 @@ class IntegrationTests {
         if (movement.`type` == MovementType.CREDIT) movement.amount
         else movement.amount.negate
       })
-      .reduce(BigDecimal.ZERO, _ add _)
-      .setScale(2, RoundingMode.DOWN)
+      .reduce(Money.ZERO, _ plus _)
 
   private def createMovementDTO = new CreateMovementDTO(
     IntegrationTests.expectedAmount
   )
 
   private def createAccountDTO =
-    new CreateAccountDTO(UUID.randomUUID.toString, BigDecimal.ZERO)
+    new CreateAccountDTO(UUID.randomUUID.toString, Money.ZERO)
 }
@@ -0,0 +1,149 @@
+package launcher.load
+
+import application.dto.{BalanceDTO, BatchMovementDTO, CreateAccountDTO}
+import domain.model.{Account, Money, Movement, MovementOperation}
+import io.micrometer.core.instrument.Timer
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import launcher.FinancialApplication
+import org.junit.jupiter.api.{Assertions, Tag, Test}
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.boot.test.context.SpringBootTest
+import org.springframework.boot.test.web.server.LocalServerPort
+import org.springframework.http.MediaType
+import org.springframework.http.client.reactive.ReactorClientHttpConnector
+import org.springframework.test.context.ContextConfiguration
+import org.springframework.web.reactive.function.client.WebClient
+import reactor.core.publisher.{Flux, Mono}
+import reactor.netty.http.client.HttpClient
+import reactor.netty.resources.{ConnectionProvider, LoopResources}
+
+import java.time.Duration
+import java.util.UUID
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicBoolean
+import scala.jdk.CollectionConverters.*
+
+/** Reads a cached balance, which never reaches the database, first alone
+  * and then while full history exports of a large account run, and checks
+  * the p999 of the reads stays within `load.history.max-slowdown` times
+  * the first one. The exports run on the persistence scheduler, so they
+  * must not hold the event loops serving the reads. Tagged `load`; see
+  * [[HistoryLoadSettings]] for the knobs.
+  */
+@Tag("load")
+@SpringBootTest(
+  webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+  properties = Array(
+    "spring.r2dbc.url=r2dbc:h2:mem:///./historyloadtestdb;DB_CLOSE_DELAY=-1",
+    "spring.liquibase.url=jdbc:h2:mem:./historyloadtestdb;DB_CLOSE_DELAY=-1"
+  )
+)
+@ContextConfiguration(classes = Array(classOf[FinancialApplication]))
+class HistoryIsolationLoadTests {
+
+  private val BatchSize = 500
+
+  @LocalServerPort private var port: Int = 0
+
+  @Autowired private val webClientBuilder: WebClient.Builder = null
+
+  @Test def balanceReadsKeepTheirLatencyWhileHistoryIsExported(): Unit = {
+    val settings = HistoryLoadSettings.fromSystemProperties()
+    // the server event loops are shared with the default client, so each
+    // side of the test gets its own to only measure the server
+    val probeLoops = LoopResources.create("load-probe", 2, true)
+    val exportLoops = LoopResources.create("load-export", 2, true)
+    try {
+      val probeClient = client(probeLoops)
+      val exportClient = client(exportLoops)
+      val historyAccountId = createAccount(probeClient)
+      seed(probeClient, historyAccountId, settings.movements)
+      val probeAccountId = createAccount(probeClient)
+      val registry = new SimpleMeterRegistry()
+      probe(probeClient, probeAccountId, settings, LoadReport.latencyTimer(registry, "warmup"))
+
+      val alone = LoadReport.latencyTimer(registry, "balance alone")
+      probe(probeClient, probeAccountId, settings, alone)
+
+      val exporting = new AtomicBoolean(true)
+      val exported = Flux
+        .range(0, settings.exporters)
+        .flatMap(
+          (_: Integer) => exportHistory(exportClient, historyAccountId).repeat(() => exporting.get),
+          settings.exporters
+        )
+        .reduce((total: java.lang.Long, count: java.lang.Long) => java.lang.Long.valueOf(total + count))
+        .toFuture
+      val withExports = LoadReport.latencyTimer(registry, "balance exports")
+      probe(probeClient, probeAccountId, settings, withExports)
+      exporting.set(false)
+      val exportedMovements = exported.get(5, TimeUnit.MINUTES)
+
+      println(s"History isolation load test: $settings")
+      println(s"Movements exported during the reads: $exportedMovements")
+      LoadReport.printLatencies(Seq("balance alone" -> alone, "balance exports" -> withExports))
+
+      Assertions.assertTrue(exportedMovements >= settings.movements, "the reads ended before a whole export")
+      val allowed = math.max(LoadReport.p999(alone) * settings.maxSlowdown, settings.minLatencyMillis)
+      Assertions.assertTrue(
+        LoadReport.p999(withExports) <= allowed,
+        f"p999 of balance reads grew from ${LoadReport.p999(alone)}%.2f ms to ${LoadReport.p999(withExports)}%.2f ms"
+      )
+    } finally {
+      probeLoops.dispose()
+      exportLoops.dispose()
+    }
+  }
+
+  private def client(loops: LoopResources): WebClient =
+    webClientBuilder.clone
+      .clientConnector(new ReactorClientHttpConnector(HttpClient.create(ConnectionProvider.create("load", 64)).runOn(loops)))
+      .baseUrl(s"http://localhost:$port/api/v1")
+      .build
+
+  private def probe(client: WebClient, accountId: String, settings: HistoryLoadSettings, timer: Timer): Unit =
+    Flux
+      .range(0, settings.probes)
+      .flatMap(
+        (_: Integer) =>
+          Mono.defer(() => {
+            val start = System.nanoTime
+            client.get
+              .uri("/accounts/{id}/balance", accountId)
+              .retrieve
+              .bodyToMono(classOf[BalanceDTO])
+              .doOnNext(_ => timer.record(System.nanoTime - start, TimeUnit.NANOSECONDS))
+          }),
+        settings.probeConcurrency
+      )
+      .blockLast
+
+  private def exportHistory(client: WebClient, accountId: String): Mono[java.lang.Long] =
+    client.get
+      .uri("/movements/{id}/export", accountId)
+      .accept(MediaType.APPLICATION_NDJSON)
+      .retrieve
+      .bodyToFlux(classOf[Movement])
+      .count
+
+  private def seed(client: WebClient, accountId: String, movements: Int): Unit =
+    Flux
+      .range(0, (movements + BatchSize - 1) / BatchSize)
+      .concatMap((batch: Integer) => {
+        val size = math.min(BatchSize, movements - batch * BatchSize)
+        val deposits = (0 until size)
+          .map(_ => new BatchMovementDTO(MovementOperation.DEPOSIT, accountId, null, Money.ofMinorUnits(100)))
+          .asJava
+        client.post.uri("/movements/batch").bodyValue(deposits).retrieve.toBodilessEntity
+      })
+      .blockLast(Duration.ofMinutes(5))
+
+  private def createAccount(client: WebClient): String =
+    client.post
+      .uri("/accounts")
+      .bodyValue(new CreateAccountDTO("history-" + UUID.randomUUID, Money.ZERO))
+      .retrieve
+      .bodyToMono(classOf[Account])
+      .block
+      .id
+}
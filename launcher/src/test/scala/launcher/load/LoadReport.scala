@@ -0,0 +1,83 @@
+package launcher.load
+
+import io.micrometer.core.instrument.{MeterRegistry, Timer}
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+
+import java.time.Duration
+import java.util.concurrent.{ConcurrentHashMap, TimeUnit}
+import java.util.concurrent.atomic.LongAdder
+import scala.jdk.CollectionConverters.*
+
+/** Latency percentiles per operation and the count of every kind of
+  * failed request, collected while the load runs.
+  */
+final class LoadReport {
+
+  private val registry = new SimpleMeterRegistry()
+
+  private val timers: Map[Operation, Timer] = Operation.values
+    .map(operation => operation -> LoadReport.latencyTimer(registry, operation.toString))
+    .toMap
+
+  private val errors = new ConcurrentHashMap[String, LongAdder]()
+
+  def completed(operation: Operation, status: Int, nanos: Long): Unit = {
+    timers(operation).record(nanos, TimeUnit.NANOSECONDS)
+    if (status >= 300) count(s"$operation $status")
+  }
+
+  def failed(operation: Operation, error: Throwable, nanos: Long): Unit = {
+    timers(operation).record(nanos, TimeUnit.NANOSECONDS)
+    count(s"$operation ${error.getClass.getSimpleName}")
+  }
+
+  /** Failed requests other than the rejections a correct run can produce,
+    * an insufficient balance (400) or an exhausted optimistic lock retry
+    * (409).
+    */
+  def unexpectedErrors: Map[String, Long] =
+    errors.asScala
+      .map((kind, count) => kind -> count.sum)
+      .filterNot((kind, _) => kind.endsWith(" 400") || kind.endsWith(" 409"))
+      .toMap
+
+  def print(settings: LoadTestSettings, elapsed: Duration): Unit = {
+    val total = timers.values.map(_.count).sum
+    val seconds = elapsed.toNanos / 1e9
+    println(s"Load test: $settings")
+    println(f"Throughput: ${total / seconds}%.1f operations/s ($total in $seconds%.2f s)")
+    LoadReport.printLatencies(Operation.values.toIndexedSeq.map(operation => operation.toString -> timers(operation)))
+    println("Errors:" + (if (errors.isEmpty) " none" else ""))
+    errors.asScala.toSeq.sortBy(_._1).foreach((kind, count) => println(f"  $kind%-30s ${count.sum}%8d"))
+  }
+
+  private def count(kind: String): Unit =
+    errors.computeIfAbsent(kind, _ => new LongAdder()).increment()
+}
+
+object LoadReport {
+
+  /** Timer keeping the p50, p99 and p999 of the whole run. */
+  def latencyTimer(registry: MeterRegistry, operation: String): Timer =
+    Timer
+      .builder("load.requests")
+      .tag("operation", operation)
+      .publishPercentiles(0.5, 0.99, 0.999)
+      .percentilePrecision(2)
+      .distributionStatisticExpiry(Duration.ofHours(1))
+      .distributionStatisticBufferLength(1)
+      .register(registry)
+
+  /** The p999 of a [[latencyTimer]], in milliseconds. */
+  def p999(timer: Timer): Double =
+    timer.takeSnapshot().percentileValues()(2).value(TimeUnit.MILLISECONDS)
+
+  def printLatencies(timers: Seq[(String, Timer)]): Unit = {
+    println(f"${"latency (ms)"}%-16s ${"count"}%8s ${"p50"}%9s ${"p99"}%9s ${"p999"}%9s")
+    for ((operation, timer) <- timers) {
+      val snapshot = timer.takeSnapshot()
+      val percentiles = snapshot.percentileValues.map(_.value(TimeUnit.MILLISECONDS))
+      println(f"$operation%-16s ${snapshot.count}%8d ${percentiles(0)}%9.2f ${percentiles(1)}%9.2f ${percentiles(2)}%9.2f")
+    }
+  }
+}
@@ -0,0 +1,89 @@
+package launcher.load
+
+import domain.model.Money
+
+import java.math.BigDecimal
+
+/** Shape of a load test run, read from system properties so it can be
+  * changed from the Maven command line, e.g.
+  * `-Dload.accounts=10 -Dload.skew=1.5 -Dload.mix=0,0,100`.
+  *
+  * @param mix
+  *   relative weights of deposits, withdrawals and transfers
+  * @param skew
+  *   exponent of the Zipfian distribution picking the accounts, 0 picks
+  *   them uniformly and higher values concentrate the load on a few hot
+  *   accounts
+  */
+final case class LoadTestSettings(
+    accounts: Int,
+    concurrency: Int,
+    operations: Int,
+    mix: Map[Operation, Int],
+    skew: Double,
+    initialBalance: Money,
+    maxAmount: Money
+) {
+  require(accounts >= 2, "a transfer needs two accounts")
+  require(mix.values.sum > 0, "at least one operation must have a weight")
+
+  override def toString: String =
+    s"$operations operations, $concurrency concurrent, $accounts accounts, skew $skew, " +
+      mix.map((operation, weight) => s"$operation $weight").mkString("mix ", " / ", "")
+}
+
+object LoadTestSettings {
+
+  def fromSystemProperties(): LoadTestSettings = {
+    val mix = property("load.mix", "20,20,60").split(",").map(_.trim.toInt)
+    require(mix.length == Operation.values.length, "load.mix needs a weight for deposits, withdrawals and transfers")
+    LoadTestSettings(
+      accounts = property("load.accounts", "50").toInt,
+      concurrency = property("load.concurrency", "32").toInt,
+      operations = property("load.operations", "5000").toInt,
+      mix = Operation.values.zip(mix).toMap,
+      skew = property("load.skew", "1.1").toDouble,
+      initialBalance = Money.of(new BigDecimal(property("load.initial-balance", "1000"))),
+      maxAmount = Money.of(new BigDecimal(property("load.max-amount", "50")))
+    )
+  }
+
+  private def property(name: String, default: String) =
+    System.getProperty(name, default)
+}
+
+/** Shape of a [[HistoryIsolationLoadTests]] run, read from the
+  * `load.history.*` system properties.
+  *
+  * @param maxSlowdown
+  *   how many times the p999 of the balance reads may grow while the
+  *   history is exported, over a floor of `minLatencyMillis`
+  */
+final case class HistoryLoadSettings(
+    movements: Int,
+    exporters: Int,
+    probes: Int,
+    probeConcurrency: Int,
+    maxSlowdown: Double,
+    minLatencyMillis: Double
+) {
+  override def toString: String =
+    s"$probes balance reads, $probeConcurrency concurrent, against $exporters exports of $movements movements"
+}
+
+object HistoryLoadSettings {
+
+  def fromSystemProperties(): HistoryLoadSettings =
+    HistoryLoadSettings(
+      movements = System.getProperty("load.history.movements", "20000").toInt,
+      exporters = System.getProperty("load.history.exporters", "4").toInt,
+      probes = System.getProperty("load.history.probes", "2000").toInt,
+      probeConcurrency = System.getProperty("load.history.probe-concurrency", "8").toInt,
+      maxSlowdown = System.getProperty("load.history.max-slowdown", "5").toDouble,
+      minLatencyMillis = System.getProperty("load.history.min-latency-ms", "50").toDouble
+    )
+}
+
+enum Operation {
+  case DEPOSIT, WITHDRAW, TRANSFER
+}
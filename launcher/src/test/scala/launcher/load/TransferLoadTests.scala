@@ -0,0 +1,157 @@
+package launcher.load
+
+import application.dto.{BalanceDTO, CreateAccountDTO, CreateMovementDTO, TransferMovementDTO}
+import domain.model.{Account, Money, Movement, MovementType}
+import launcher.FinancialApplication
+import org.junit.jupiter.api.{Assertions, Tag, Test}
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.boot.test.context.SpringBootTest
+import org.springframework.boot.test.web.server.LocalServerPort
+import org.springframework.http.MediaType
+import org.springframework.test.context.ContextConfiguration
+import org.springframework.web.reactive.function.client.WebClient
+import reactor.core.publisher.{Flux, Mono}
+
+import java.time.Duration
+import java.util.UUID
+import java.util.concurrent.ThreadLocalRandom
+import java.util.concurrent.atomic.AtomicLong
+import scala.jdk.CollectionConverters.*
+
+/** Drives a mix of concurrent deposits, withdrawals and transfers through
+  * the HTTP API, reports throughput, latency and errors, then checks that
+  * no movement was lost or applied twice. Tagged `load`, so it only runs
+  * with the `load-test` profile; see [[LoadTestSettings]] for the knobs.
+  */
+@Tag("load")
+@SpringBootTest(
+  webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+  properties = Array(
+    "spring.r2dbc.url=r2dbc:h2:mem:///./loadtestdb;DB_CLOSE_DELAY=-1",
+    "spring.liquibase.url=jdbc:h2:mem:./loadtestdb;DB_CLOSE_DELAY=-1"
+  )
+)
+@ContextConfiguration(classes = Array(classOf[FinancialApplication]))
+class TransferLoadTests {
+
+  @LocalServerPort private var port: Int = 0
+
+  @Autowired private val webClientBuilder: WebClient.Builder = null
+
+  @Test def balancesMatchMovementsUnderLoad(): Unit = {
+    val settings = LoadTestSettings.fromSystemProperties()
+    val client = webClientBuilder.baseUrl(s"http://localhost:$port/api/v1").build
+    val accountIds = (0 until settings.accounts).map(_ => createAccount(client, settings.initialBalance))
+    val sampler = new ZipfianSampler(settings.accounts, settings.skew)
+    val report = new LoadReport()
+    val deposited = new AtomicLong()
+    val withdrawn = new AtomicLong()
+
+    val started = System.nanoTime
+    Flux
+      .range(0, settings.operations)
+      .flatMap(
+        (_: Integer) => execute(client, settings, accountIds, sampler, report, deposited, withdrawn),
+        settings.concurrency
+      )
+      .blockLast
+    report.print(settings, Duration.ofNanos(System.nanoTime - started))
+
+    Assertions.assertEquals(Map.empty, report.unexpectedErrors)
+
+    val balances = accountIds.map(id => id -> balance(client, id)).toMap
+    val mismatches = accountIds.flatMap(id => {
+      val ofMovements = movements(client, id)
+        .map(movement => if (movement.`type` == MovementType.CREDIT) movement.amount else movement.amount.negate)
+        .foldLeft(Money.ZERO)(_ plus _)
+      if (ofMovements == balances(id)) None else Some(s"$id: balance ${balances(id)}, movements $ofMovements")
+    })
+    Assertions.assertEquals(Seq.empty, mismatches)
+
+    val expectedTotal = Money
+      .ofMinorUnits(settings.initialBalance.minorUnits * settings.accounts + deposited.get - withdrawn.get)
+    Assertions.assertEquals(expectedTotal, balances.values.foldLeft(Money.ZERO)(_ plus _))
+  }
+
+  private def execute(
+      client: WebClient,
+      settings: LoadTestSettings,
+      accountIds: IndexedSeq[String],
+      sampler: ZipfianSampler,
+      report: LoadReport,
+      deposited: AtomicLong,
+      withdrawn: AtomicLong
+  ): Mono[Void] = Mono.defer(() => {
+    val operation = pick(settings.mix)
+    val amount = Money.ofMinorUnits(ThreadLocalRandom.current.nextLong(1, settings.maxAmount.minorUnits + 1))
+    val account = sampler.next()
+    val request: WebClient.RequestHeadersSpec[?] = operation match {
+      case Operation.DEPOSIT =>
+        client.post.uri("/movements/{id}/deposit", accountIds(account)).bodyValue(new CreateMovementDTO(amount))
+      case Operation.WITHDRAW =>
+        client.post.uri("/movements/{id}/withdraw", accountIds(account)).bodyValue(new CreateMovementDTO(amount))
+      case Operation.TRANSFER =>
+        val creditAccountId = accountIds(sampler.nextExcept(account))
+        client.post
+          .uri("/movements/{id}/transfer", accountIds(account))
+          .bodyValue(new TransferMovementDTO(creditAccountId, amount))
+    }
+    val start = System.nanoTime
+    request
+      .exchangeToMono(response => response.releaseBody.thenReturn(response.statusCode.value))
+      .doOnNext(status => {
+        report.completed(operation, status, System.nanoTime - start)
+        if (status < 300 && operation == Operation.DEPOSIT) deposited.addAndGet(amount.minorUnits)
+        if (status < 300 && operation == Operation.WITHDRAW) withdrawn.addAndGet(amount.minorUnits)
+      })
+      .onErrorResume(error => {
+        report.failed(operation, error, System.nanoTime - start)
+        Mono.empty
+      })
+      .`then`
+  })
+
+  private def pick(mix: Map[Operation, Int]): Operation = {
+    var remaining = ThreadLocalRandom.current.nextInt(mix.values.sum)
+    Operation.values.find(operation => {
+      remaining -= mix.getOrElse(operation, 0)
+      remaining < 0
+    }).get
+  }
+
+  private def createAccount(client: WebClient, initialBalance: Money): String = {
+    val id = client.post
+      .uri("/accounts")
+      .bodyValue(new CreateAccountDTO("load-" + UUID.randomUUID, Money.ZERO))
+      .retrieve
+      .bodyToMono(classOf[Account])
+      .block
+      .id
+    client.post
+      .uri("/movements/{id}/deposit", id)
+      .bodyValue(new CreateMovementDTO(initialBalance))
+      .retrieve
+      .toBodilessEntity
+      .block
+    id
+  }
+
+  private def balance(client: WebClient, accountId: String): Money =
+    client.get
+      .uri("/accounts/{id}/balance", accountId)
+      .retrieve
+      .bodyToMono(classOf[BalanceDTO])
+      .block
+      .balance
+
+  private def movements(client: WebClient, accountId: String): Seq[Movement] =
+    client.get
+      .uri("/movements/{id}/export", accountId)
+      .accept(MediaType.APPLICATION_NDJSON)
+      .retrieve
+      .bodyToFlux(classOf[Movement])
+      .collectList
+      .block
+      .asScala
+      .toSeq
+}
@@ -0,0 +1,29 @@
+package launcher.load
+
+import java.util
+import java.util.concurrent.ThreadLocalRandom
+
+/** Picks an index in `[0, size)` with a probability proportional to
+  * `1 / (index + 1)^skew`, so index 0 is the hottest one. A skew of 0 is
+  * uniform.
+  */
+final class ZipfianSampler(size: Int, skew: Double) {
+
+  private val cumulative: Array[Double] = {
+    val weights = Array.tabulate(size)(index => 1.0 / Math.pow(index + 1, skew))
+    val total = weights.sum
+    weights.scanLeft(0.0)(_ + _).tail.map(_ / total)
+  }
+
+  def next(): Int = {
+    val index = util.Arrays.binarySearch(cumulative, ThreadLocalRandom.current.nextDouble)
+    Math.min(if (index >= 0) index else -index - 1, size - 1)
+  }
+
+  /** Like [[next]], but never returns `excluded`. */
+  def nextExcept(excluded: Int): Int = {
+    var index = next()
+    while (index == excluded) index = next()
+    index
+  }
+}
@@ -0,0 +1,164 @@
+package persistence.adapters;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import domain.model.Account;
+import domain.model.VersionedAccount;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+import org.springframework.stereotype.Component;
+import persistence.entity.AccountEntity;
+import persistence.mappers.AccountMapper;
+import reactor.core.publisher.Mono;
+
+/**
+ * Bounded cache of account state, written through by the movement adapter once its changes are committed.
+ * <p>
+ * A load only installs what it read if no write of the account was published since the load started, and a written
+ * state only replaces an older version, both decided atomically per account. So once a write is published, reads on
+ * this node never see an older balance, even when a slow load of the previous state finishes afterwards.
+ */
+@Component
+public class AccountCache {
+
+    private static final int GENERATION_STRIPES = 1024;
+
+    private final boolean enabled;
+
+    private final Cache<String, VersionedAccount> cache;
+
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    private final AccountMapper accountMapper;
+
+    private final Timer loadTime;
+
+    public AccountCache(final AccountCacheProperties properties,
+                        final AccountMapper accountMapper,
+                        final MeterRegistry meterRegistry) {
+        this.enabled = properties.enabled();
+        this.accountMapper = accountMapper;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.maximumSize())
+                .expireAfterWrite(properties.ttl())
+                .recordStats()
+                .build();
+        this.loadTime = Timer.builder("financial.account_cache.load")
+                .description("Time to load an account missing from the cache")
+                .register(meterRegistry);
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "accounts");
+    }
+
+    /**
+     * @param loader reads the account from the database when it is not cached
+     */
+    public Mono<Account> find(final String accountId, final Supplier<Mono<AccountEntity>> loader) {
+        return findVersioned(accountId, loader)
+                .map(VersionedAccount::account);
+    }
+
+    /**
+     * @param loader reads the account from the database when it is not cached
+     */
+    public Mono<VersionedAccount> findVersioned(final String accountId, final Supplier<Mono<AccountEntity>> loader) {
+        final var key = key(accountId);
+        if (!enabled || key == null) {
+            return Mono.defer(loader).map(this::toVersioned);
+        }
+        return Mono.defer(() -> {
+            final var cached = cache.getIfPresent(key);
+            if (cached != null) {
+                return Mono.just(cached);
+            }
+            final var generation = generations.get(stripe(key));
+            final var start = System.nanoTime();
+            return loader.get()
+                    .map(entity -> {
+                        loadTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                        final var loaded = toVersioned(entity);
+                        cache.asMap().compute(key, (id, current) -> generations.get(stripe(key)) == generation
+                                ? newest(current, loaded)
+                                : current);
+                        return loaded;
+                    });
+        });
+    }
+
+    /**
+     * @return the version of the cached state of the account, {@code null} when it is not cached
+     */
+    public Long cachedVersion(final String accountId) {
+        final var key = key(accountId);
+        if (!enabled || key == null) {
+            return null;
+        }
+        final var cached = cache.getIfPresent(key);
+        return cached == null ? null : cached.version();
+    }
+
+    /**
+     * Publishes the committed state of the accounts.
+     */
+    public void written(final Collection<AccountEntity> accounts) {
+        accounts.forEach(this::written);
+    }
+
+    public void written(final AccountEntity account) {
+        if (!enabled) {
+            return;
+        }
+        final var key = account.getId().toString();
+        final var written = toVersioned(account);
+        cache.asMap().compute(key, (id, current) -> {
+            generations.incrementAndGet(stripe(key));
+            return newest(current, written);
+        });
+    }
+
+    /**
+     * Drops the accounts after a committed change whose resulting state is not known here.
+     */
+    public void invalidate(final Collection<String> accountIds) {
+        accountIds.forEach(this::invalidate);
+    }
+
+    public void invalidate(final String accountId) {
+        final var key = key(accountId);
+        if (!enabled || key == null) {
+            return;
+        }
+        cache.asMap().compute(key, (id, current) -> {
+            generations.incrementAndGet(stripe(key));
+            return null;
+        });
+    }
+
+    private VersionedAccount toVersioned(final AccountEntity entity) {
+        return new VersionedAccount(accountMapper.toAccount(entity), entity.getVersion() == null ? 0 : entity.getVersion());
+    }
+
+    private static VersionedAccount newest(final VersionedAccount current, final VersionedAccount candidate) {
+        return current != null && current.version() > candidate.version() ? current : candidate;
+    }
+
+    private static int stripe(final String key) {
+        return Math.floorMod(key.hashCode(), GENERATION_STRIPES);
+    }
+
+    /**
+     * Canonical form of the id, or {@code null} when it is not an id an account could have.
+     */
+    private static String key(final String accountId) {
+        try {
+            return UUID.fromString(accountId).toString();
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package persistence.adapters;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings of the cache of account state.
+ *
+ * @param enabled     serve account and balance reads from the cache
+ * @param maximumSize accounts kept, the least used are evicted beyond it
+ * @param ttl         time an account is kept after it was loaded or written, bounds the staleness of writes made by
+ *                    other nodes
+ */
+@ConfigurationProperties(prefix = "financial.persistence.account-cache")
+public record AccountCacheProperties(@DefaultValue("true") boolean enabled,
+                                     @DefaultValue("100000") long maximumSize,
+                                     @DefaultValue("60s") Duration ttl) {
+}
@@ -0,0 +1,163 @@
+package persistence.adapters;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import persistence.repository.AccountRepository;
+
+/**
+ * Bloom filter of the ids of every account, so a lookup of an id that was never created is answered without reading
+ * the database. A negative answer is definite, a positive one is wrong for about
+ * {@link AccountFilterProperties#falsePositiveRate()} of unknown ids, which are then read as before.
+ * <p>
+ * The ids are loaded while the application starts, before it reports ready, and the accounts created afterwards are
+ * added by the account adapter. Until the load completes every id may exist. Accounts created by another node are
+ * not seen, so the filter must be disabled when several nodes create accounts.
+ * <p>
+ * Memory, accounts added and the estimated false positive rate are the {@code financial.account_filter.*} gauges, the
+ * lookups answered without the database the {@code financial.account_filter.rejected} counter.
+ */
+@Component
+@ConditionalOnProperty(prefix = "financial.persistence", name = "engine", havingValue = "r2dbc", matchIfMissing = true)
+public class AccountFilter implements ApplicationRunner {
+
+    private final boolean enabled;
+
+    private final AccountRepository accountRepository;
+
+    private final AtomicLongArray words;
+
+    private final long bits;
+
+    private final int hashes;
+
+    private final AtomicLong accounts = new AtomicLong();
+
+    private final Counter rejected;
+
+    private volatile boolean loaded;
+
+    public AccountFilter(final AccountFilterProperties properties, final AccountRepository accountRepository,
+                         final MeterRegistry meterRegistry) {
+        this.enabled = properties.enabled();
+        this.accountRepository = accountRepository;
+        final var expected = Math.max(1, properties.expectedAccounts());
+        final var optimalBits = (long) Math.ceil(-expected * Math.log(properties.falsePositiveRate()) / (Math.log(2) * Math.log(2)));
+        this.words = new AtomicLongArray(enabled ? (int) Math.max(1, (optimalBits + Long.SIZE - 1) / Long.SIZE) : 0);
+        this.bits = (long) words.length() * Long.SIZE;
+        this.hashes = Math.max(1, (int) Math.round((double) optimalBits / expected * Math.log(2)));
+        Gauge.builder("financial.account_filter.memory", words, array -> array.length() * (double) Long.BYTES)
+                .description("Memory held by the bits of the account filter")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("financial.account_filter.accounts", accounts, AtomicLong::get)
+                .description("Account ids added to the account filter")
+                .register(meterRegistry);
+        Gauge.builder("financial.account_filter.false_positive_rate", this, AccountFilter::falsePositiveRate)
+                .description("Estimated share of unknown ids the account filter lets through")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("financial.account_filter.rejected")
+                .description("Account lookups answered by the filter without reading the database")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void run(final ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        accountRepository.findAllIds()
+                .doOnNext(this::add)
+                .blockLast();
+        loaded = true;
+    }
+
+    /**
+     * @return {@code false} only when no account has the id, which counts as a rejected lookup
+     */
+    public boolean mightExist(final String accountId) {
+        if (!enabled || !loaded) {
+            return true;
+        }
+        final UUID id;
+        try {
+            id = UUID.fromString(accountId);
+        } catch (IllegalArgumentException | NullPointerException e) {
+            rejected.increment();
+            return false;
+        }
+        final var first = first(id);
+        final var second = second(id);
+        for (int i = 0; i < hashes; i++) {
+            final var bit = index(first, second, i);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                rejected.increment();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Adds the id of an account, each account is expected to be added once.
+     */
+    public void add(final UUID id) {
+        if (!enabled) {
+            return;
+        }
+        final var first = first(id);
+        final var second = second(id);
+        for (int i = 0; i < hashes; i++) {
+            final var bit = index(first, second, i);
+            words.getAndAccumulate((int) (bit >>> 6), 1L << bit, (word, set) -> word | set);
+        }
+        accounts.incrementAndGet();
+    }
+
+    /**
+     * (1 - e<sup>-kn/m</sup>)<sup>k</sup> for the accounts added so far.
+     */
+    double falsePositiveRate() {
+        if (bits == 0) {
+            return 0;
+        }
+        return Math.pow(1 - Math.exp(-hashes * (double) accounts.get() / bits), hashes);
+    }
+
+    /**
+     * Bit of the {@code i}-th hash, derived from two hashes of the id as in double hashing.
+     */
+    private long index(final long first, final long second, final int i) {
+        return Math.floorMod(first + i * second, bits);
+    }
+
+    /**
+     * Both halves are mixed, time-ordered ids share most of their high bits.
+     */
+    private static long first(final UUID id) {
+        return mix(id.getMostSignificantBits() ^ mix(id.getLeastSignificantBits()));
+    }
+
+    private static long second(final UUID id) {
+        return mix(id.getLeastSignificantBits() + 0x9E3779B97F4A7C15L) | 1;
+    }
+
+    /**
+     * Finalizer of MurmurHash3.
+     */
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb93fe53ef63bL;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,18 @@
+package persistence.adapters;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings of the filter of existing account ids.
+ *
+ * @param enabled           answer lookups of ids the filter never saw without reading the database
+ * @param expectedAccounts  accounts the filter is sized for, the false positive rate grows beyond it
+ * @param falsePositiveRate share of unknown ids still read from the database while at most {@code expectedAccounts}
+ *                          accounts exist
+ */
+@ConfigurationProperties(prefix = "financial.persistence.account-filter")
+public record AccountFilterProperties(@DefaultValue("true") boolean enabled,
+                                      @DefaultValue("1000000") long expectedAccounts,
+                                      @DefaultValue("0.01") double falsePositiveRate) {
+}
@@ -1,42 +1,139 @@
 package persistence.adapters;
 
 import domain.model.Account;
+import domain.model.Money;
+import domain.model.VersionedAccount;
 import domain.ports.persistence.AccountPersistencePort;
-import persistence.entity.AccountEntity;
 import persistence.mappers.AccountMapper;
+import persistence.entity.MovementEntity;
 import persistence.repository.AccountRepository;
-import java.math.BigDecimal;
+import persistence.repository.MovementRepository;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.UUID;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @Service
+@ConditionalOnProperty(prefix = "financial.persistence", name = "engine", havingValue = "r2dbc", matchIfMissing = true)
 public class AccountR2DBCAdapter implements AccountPersistencePort {
 
+    /**
+     * Ids bound to a single {@code IN} query.
+     */
+    static final int ID_CHUNK_SIZE = 500;
+
     private final AccountRepository accountRepository;
 
+    private final MovementRepository movementRepository;
+
     private final AccountMapper accountMapper;
 
-    public AccountR2DBCAdapter(final AccountRepository accountRepository, final AccountMapper accountMapper) {
+    private final AccountCache accountCache;
+
+    private final PersistenceScheduler persistenceScheduler;
+
+    private final AccountFilter accountFilter;
+
+    public AccountR2DBCAdapter(final AccountRepository accountRepository, final MovementRepository movementRepository,
+                               final AccountMapper accountMapper, final AccountCache accountCache,
+                               final PersistenceScheduler persistenceScheduler, final AccountFilter accountFilter) {
         this.accountRepository = accountRepository;
+        this.movementRepository = movementRepository;
         this.accountMapper = accountMapper;
+        this.accountCache = accountCache;
+        this.persistenceScheduler = persistenceScheduler;
+        this.accountFilter = accountFilter;
     }
 
     @Override
     public Mono<Account> createNewAccount(final Account account) {
-        return accountRepository
-                .save(accountMapper.toAccountEntity(account))
+        return persistenceScheduler.mono(accountRepository.save(accountMapper.toAccountEntity(account)))
+                .doOnNext(accountCache::written)
+                .doOnNext(entity -> accountFilter.add(entity.getId()))
                 .map(accountMapper::toAccount);
     }
 
     @Override
     public Mono<Account> findAccountById(String id) {
-        return accountRepository.findById(id)
+        return findVersionedAccountById(id)
+                .map(VersionedAccount::account);
+    }
+
+    /**
+     * Only a cache miss goes to a persistence thread, a hit, or an id the filter never saw, is answered on the
+     * caller's.
+     */
+    @Override
+    public Mono<VersionedAccount> findVersionedAccountById(final String id) {
+        if (!accountFilter.mightExist(id)) {
+            return Mono.empty();
+        }
+        return accountCache.findVersioned(id, () -> persistenceScheduler.mono(accountRepository.findById(id)));
+    }
+
+    /**
+     * The version of the cached state when the account is cached, so it always matches the account served, otherwise
+     * only the version column is read.
+     */
+    @Override
+    public Mono<Long> findAccountVersion(final String id) {
+        if (!accountFilter.mightExist(id)) {
+            return Mono.empty();
+        }
+        return Mono.defer(() -> {
+            final var cached = accountCache.cachedVersion(id);
+            if (cached != null) {
+                return Mono.just(cached);
+            }
+            final var uuid = uuid(id);
+            return uuid == null
+                    ? Mono.empty()
+                    : persistenceScheduler.mono(accountRepository.findVersionById(uuid));
+        });
+    }
+
+    @Override
+    public Mono<Money> findBalanceByAccountId(String accountId) {
+        return findAccountById(accountId)
+                .map(Account::balance);
+    }
+
+    /**
+     * Reads the accounts with one {@code IN} query per chunk of {@link #ID_CHUNK_SIZE} ids, emitting each chunk as soon
+     * as it is read. Ids that are not UUIDs, or that the filter never saw, can not match an account and are never sent to
+     * the database.
+     */
+    @Override
+    public Flux<Account> findAccountsByIds(final Set<String> ids) {
+        return Flux.fromIterable(ids)
+                .filter(accountFilter::mightExist)
+                .mapNotNull(AccountR2DBCAdapter::uuid)
+                .map(UUID::toString)
+                .buffer(ID_CHUNK_SIZE)
+                .concatMap(chunk -> persistenceScheduler.flux(accountRepository.findAllById(chunk)))
                 .map(accountMapper::toAccount);
     }
 
+    /**
+     * Read from the balance recorded on the latest movement up to the date, so the history is never replayed. An
+     * account without movements by then had its opening balance of zero.
+     */
     @Override
-    public Mono<BigDecimal> findBalanceByAccountId(String accountId) {
-        return accountRepository.findById(accountId)
-                .map(AccountEntity::getBalance);
+    public Mono<Money> findBalanceAsOf(final String accountId, final LocalDateTime date) {
+        return findAccountById(accountId)
+                .flatMap(account -> persistenceScheduler.mono(movementRepository.findLatestAtOrBefore(UUID.fromString(account.id()), date))
+                        .map(MovementEntity::getBalanceAfter)
+                        .defaultIfEmpty(Money.ZERO));
+    }
+
+    private static UUID uuid(final String id) {
+        try {
+            return UUID.fromString(id);
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return null;
+        }
     }
 }
@@ -0,0 +1,12 @@
+package persistence.adapters;
+
+public enum BalanceUpdateMode {
+    /**
+     * Reads the account, validates the balance in Java and saves the entity under its optimistic lock.
+     */
+    ENTITY,
+    /**
+     * Changes the balance with a single guarded update, the affected row count tells whether the debit was covered.
+     */
+    CONDITIONAL
+}
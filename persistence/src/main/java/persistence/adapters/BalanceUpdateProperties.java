@@ -0,0 +1,11 @@
+package persistence.adapters;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param mode how deposits, withdrawals and transfers change the account balance
+ */
+@ConfigurationProperties(prefix = "financial.persistence.balance-update")
+public record BalanceUpdateProperties(@DefaultValue("entity") BalanceUpdateMode mode) {
+}
@@ -0,0 +1,24 @@
+package persistence.adapters;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings of the group commit of movements.
+ *
+ * @param enabled         coalesce concurrent deposits and withdrawals into shared transactions
+ * @param window          longest time a movement waits for others to join its group
+ * @param maxBatchSize    movements that close a group before the window ends
+ * @param transfers       coalesce concurrent transfers too, netting them: each account of a group has its balance
+ *                        updated once, whatever the number of its transfers, which are still checked one by one
+ * @param maxQueuedGroups closed groups waiting for the one being committed, beyond which the movements of a new group
+ *                        are rejected
+ */
+@ConfigurationProperties(prefix = "financial.persistence.group-commit")
+public record GroupCommitProperties(@DefaultValue("false") boolean enabled,
+                                    @DefaultValue("2ms") Duration window,
+                                    @DefaultValue("256") int maxBatchSize,
+                                    @DefaultValue("false") boolean transfers,
+                                    @DefaultValue("64") int maxQueuedGroups) {
+}
@@ -0,0 +1,179 @@
+package persistence.adapters;
+
+import domain.model.Movement;
+import domain.model.MovementCommand;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.springframework.stereotype.Component;
+import persistence.entity.AccountEntity;
+import reactor.core.Disposable;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+/**
+ * Coalesces movements submitted concurrently into groups, closed by the configured window or size, and commits each
+ * group as one {@link MovementBatchProcessor batch} transaction. Groups are committed one at a time, so they never
+ * conflict with each other, and every caller completes with the result of its own movement. A group still conflicts
+ * with movements committed outside of it, by another node or another path: its commit then fails every caller with the
+ * {@link org.springframework.dao.OptimisticLockingFailureException}, for them to retry. The commit of a group runs on
+ * the {@link PersistenceScheduler}, so it waits in its queue and is rejected when it is full like any other call.
+ * Closed groups wait for the commit of the previous one in a queue bounded by
+ * {@link GroupCommitProperties#maxQueuedGroups()}: the movements of a group closed while it is full fail with a
+ * {@link RejectedExecutionException}, counted by {@code financial.group_commit.rejected}.
+ * <p>
+ * Transfers, when {@link GroupCommitProperties#transfers() netted}, go through the same groups: the batch applies them
+ * in order against the running balance of each account, then writes one balance update per account and all their
+ * movements in multi-row inserts. The accounts a group updated are the {@code financial.group_commit.accounts} summary,
+ * to be read against {@code financial.group_commit.batch.size}.
+ */
+@Component
+public class GroupCommitter implements AutoCloseable {
+
+    private final boolean enabled;
+
+    private final boolean nettingTransfers;
+
+    private final MovementBatchProcessor movementBatchProcessor;
+
+    private final PersistenceScheduler persistenceScheduler;
+
+    private final DistributionSummary batchSize;
+
+    private final DistributionSummary accounts;
+
+    private final Timer commitLatency;
+
+    private final Timer waitTime;
+
+    private final Counter rejected;
+
+    private FluxSink<PendingMovement> pendingMovements;
+
+    private Disposable subscription;
+
+    public GroupCommitter(final GroupCommitProperties properties,
+                          final MovementBatchProcessor movementBatchProcessor,
+                          final PersistenceScheduler persistenceScheduler,
+                          final MeterRegistry meterRegistry) {
+        this.enabled = properties.enabled();
+        this.nettingTransfers = properties.transfers();
+        this.movementBatchProcessor = movementBatchProcessor;
+        this.persistenceScheduler = persistenceScheduler;
+        this.batchSize = DistributionSummary.builder("financial.group_commit.batch.size")
+                .description("Movements committed together in one transaction")
+                .register(meterRegistry);
+        this.accounts = DistributionSummary.builder("financial.group_commit.accounts")
+                .description("Accounts whose balance a group updated, once each")
+                .register(meterRegistry);
+        this.commitLatency = Timer.builder("financial.group_commit.commit.latency")
+                .description("Time to commit a group")
+                .register(meterRegistry);
+        this.waitTime = Timer.builder("financial.group_commit.wait")
+                .description("Time a movement waited in the window before its group was committed")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("financial.group_commit.rejected")
+                .description("Movements rejected because too many groups were waiting to be committed")
+                .register(meterRegistry);
+        Gauge.builder("financial.group_commit.window", properties, config -> config.window().toNanos() / 1_000_000.0)
+                .description("Configured group commit window")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        if (enabled || nettingTransfers) {
+            this.subscription = Flux.<PendingMovement>create(sink -> pendingMovements = sink)
+                    .bufferTimeout(properties.maxBatchSize(), properties.window())
+                    .onBackpressureBuffer(properties.maxQueuedGroups(), this::reject, BufferOverflowStrategy.DROP_LATEST)
+                    .concatMap(this::commit, 1)
+                    .subscribe();
+        }
+    }
+
+    /**
+     * @return whether deposits and withdrawals are group committed
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isNettingTransfers() {
+        return nettingTransfers;
+    }
+
+    /**
+     * @param savedAccounts receives the accounts of the movement as its group committed them, before it completes
+     */
+    public Mono<Movement> submit(final MovementCommand command, final LocalDateTime date,
+                                 final Collection<AccountEntity> savedAccounts) {
+        return Mono.create(sink -> pendingMovements.next(new PendingMovement(command, date, savedAccounts, sink, System.nanoTime())));
+    }
+
+    @Override
+    public void close() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    private Mono<Void> commit(final List<PendingMovement> group) {
+        final var start = System.nanoTime();
+        batchSize.record(group.size());
+        accounts.record(group.stream()
+                .flatMap(pending -> Stream.of(pending.command().accountId(), pending.command().creditAccountId()))
+                .filter(Objects::nonNull)
+                .distinct()
+                .count());
+        group.forEach(pending -> waitTime.record(start - pending.submittedAt(), TimeUnit.NANOSECONDS));
+
+        final var commands = group.stream().map(PendingMovement::command).toList();
+        final var dates = group.stream().map(PendingMovement::date).toList();
+        final var savedAccounts = new ConcurrentLinkedQueue<AccountEntity>();
+        return persistenceScheduler.mono(movementBatchProcessor.process(commands, dates, savedAccounts).collectList())
+                .doOnNext(results -> {
+                    commitLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    for (int i = 0; i < group.size(); i++) {
+                        final var result = results.get(i);
+                        final var pending = group.get(i);
+                        if (result.isSuccess()) {
+                            savedAccounts.stream()
+                                    .filter(account -> pending.touches(account.getId().toString()))
+                                    .forEach(pending.savedAccounts()::add);
+                            pending.caller().success(result.movement());
+                        } else {
+                            pending.caller().error(result.error());
+                        }
+                    }
+                })
+                .onErrorResume(error -> {
+                    group.forEach(pending -> pending.caller().error(error));
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    private void reject(final List<PendingMovement> group) {
+        rejected.increment(group.size());
+        group.forEach(pending -> pending.caller().error(
+                new RejectedExecutionException("Group commit queue is full (" + group.size() + " movements rejected)")));
+    }
+
+    private record PendingMovement(MovementCommand command, LocalDateTime date, Collection<AccountEntity> savedAccounts,
+                                   MonoSink<Movement> caller, long submittedAt) {
+
+        boolean touches(final String accountId) {
+            return accountId.equalsIgnoreCase(command.accountId()) || accountId.equalsIgnoreCase(command.creditAccountId());
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package persistence.adapters;
+
+import domain.exception.AccountNotFoundException;
+import domain.exception.InsufficientBalanceException;
+import domain.model.Money;
+import domain.model.MovementCommand;
+import domain.model.MovementOperation;
+import domain.model.MovementResult;
+import domain.model.MovementType;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import persistence.entity.AccountEntity;
+import persistence.entity.MovementEntity;
+import persistence.entity.TimeOrderedUuid;
+import persistence.mappers.MovementMapper;
+import persistence.repository.AccountRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Applies a list of movement commands in one transaction: every involved account is loaded with one query per chunk of
+ * {@link AccountR2DBCAdapter#ID_CHUNK_SIZE} ids, the commands are applied in memory in order, and the touched balances,
+ * the new movements and their daily rollups are written in batches. Balances are updated in the order of the account
+ * ids, so two batches touching the same accounts lock them in the same order and never deadlock.
+ * <p>
+ * Transfers are netted: each is checked against the running balance of its debit account, but an account is written
+ * once with its balance after all of them, so opposing transfers between two accounts cost one update per account.
+ */
+@Component
+public class MovementBatchProcessor {
+
+    private final AccountRepository accountRepository;
+
+    private final MovementBatchWriter movementBatchWriter;
+
+    private final MovementMapper movementMapper;
+
+    private final MovementRollups movementRollups;
+
+    public MovementBatchProcessor(final AccountRepository accountRepository,
+                                  final MovementBatchWriter movementBatchWriter,
+                                  final MovementMapper movementMapper,
+                                  final MovementRollups movementRollups) {
+        this.accountRepository = accountRepository;
+        this.movementBatchWriter = movementBatchWriter;
+        this.movementMapper = movementMapper;
+        this.movementRollups = movementRollups;
+    }
+
+    /**
+     * @param savedAccounts receives the accounts the batch changed, as it wrote them, to publish once it is committed
+     */
+    @Transactional
+    public Flux<MovementResult> process(final List<MovementCommand> commands, final LocalDateTime date,
+                                        final Collection<AccountEntity> savedAccounts) {
+        return process(commands, Collections.nCopies(commands.size(), date), savedAccounts);
+    }
+
+    /**
+     * Same as {@link #process(List, LocalDateTime, Collection)}, with the date of each movement given at the same
+     * position.
+     */
+    @Transactional
+    public Flux<MovementResult> process(final List<MovementCommand> commands, final List<LocalDateTime> dates,
+                                        final Collection<AccountEntity> savedAccounts) {
+        return Flux.fromIterable(accountIds(commands))
+                .buffer(AccountR2DBCAdapter.ID_CHUNK_SIZE)
+                .concatMap(accountRepository::findAllById)
+                .collectMap(AccountEntity::getId)
+                .flatMapMany(accounts -> {
+                    final var touchedAccounts = new TreeMap<UUID, AccountEntity>();
+                    final var movements = new ArrayList<MovementEntity>();
+                    final var results = new ArrayList<MovementResult>(commands.size());
+                    for (int i = 0; i < commands.size(); i++) {
+                        try {
+                            final var movement = apply(commands.get(i), accounts, touchedAccounts, movements, dates.get(i));
+                            results.add(MovementResult.success(movementMapper.toMovement(movement)));
+                        } catch (AccountNotFoundException | InsufficientBalanceException e) {
+                            results.add(MovementResult.failure(e));
+                        }
+                    }
+                    return movementBatchWriter.updateBalances(touchedAccounts.values())
+                            .then(Mono.fromRunnable(() -> savedAccounts.addAll(touchedAccounts.values())))
+                            .then(movementBatchWriter.insertMovements(movements))
+                            .then(movementRollups.add(movements))
+                            .thenMany(Flux.fromIterable(results));
+                });
+    }
+
+    private MovementEntity apply(final MovementCommand command,
+                                 final Map<UUID, AccountEntity> accounts,
+                                 final Map<UUID, AccountEntity> touchedAccounts,
+                                 final List<MovementEntity> movements,
+                                 final LocalDateTime date) {
+        final var account = account(command.accountId(), accounts);
+        final var amount = command.amount();
+        return switch (command.operation()) {
+            case DEPOSIT -> {
+                account.setBalance(account.getBalance().plus(amount));
+                touchedAccounts.put(account.getId(), account);
+                yield movement(movements, account, amount, MovementType.CREDIT, date, null, null);
+            }
+            case WITHDRAW -> {
+                account.validateBalance(amount);
+                account.setBalance(account.getBalance().minus(amount));
+                touchedAccounts.put(account.getId(), account);
+                yield movement(movements, account, amount, MovementType.DEBIT, date, null, null);
+            }
+            case TRANSFER -> {
+                final var creditAccount = account(command.creditAccountId(), accounts);
+                account.validateBalance(amount);
+                account.setBalance(account.getBalance().minus(amount));
+                creditAccount.setBalance(creditAccount.getBalance().plus(amount));
+                touchedAccounts.put(account.getId(), account);
+                touchedAccounts.put(creditAccount.getId(), creditAccount);
+                final var transferId = TimeOrderedUuid.next();
+                final var debit = movement(movements, account, amount, MovementType.DEBIT, date, transferId, creditAccount.getId());
+                movement(movements, creditAccount, amount, MovementType.CREDIT, date, transferId, account.getId());
+                yield debit;
+            }
+        };
+    }
+
+    /**
+     * Records the movement with the balance and the movement date the account has at this point of the batch.
+     */
+    private static MovementEntity movement(final List<MovementEntity> movements, final AccountEntity account,
+                                           final Money amount, final MovementType type, final LocalDateTime date,
+                                           final UUID transferId, final UUID counterpartyAccountId) {
+        final var movement = new MovementEntity(TimeOrderedUuid.next(), account.getId(), amount, type,
+                account.nextMovementDate(date), account.getBalance(), transferId, counterpartyAccountId);
+        movements.add(movement);
+        return movement;
+    }
+
+    private static AccountEntity account(final String accountId, final Map<UUID, AccountEntity> accounts) {
+        final var id = parseId(accountId);
+        final var account = id == null ? null : accounts.get(id);
+        if (account == null) {
+            throw new AccountNotFoundException(accountId);
+        }
+        return account;
+    }
+
+    private static List<String> accountIds(final List<MovementCommand> commands) {
+        final var ids = new HashSet<String>();
+        for (final var command : commands) {
+            addId(ids, command.accountId());
+            if (command.operation() == MovementOperation.TRANSFER) {
+                addId(ids, command.creditAccountId());
+            }
+        }
+        return List.copyOf(ids);
+    }
+
+    private static void addId(final HashSet<String> ids, final String accountId) {
+        final var id = parseId(accountId);
+        if (id != null) {
+            ids.add(id.toString());
+        }
+    }
+
+    private static UUID parseId(final String accountId) {
+        try {
+            return accountId == null ? null : UUID.fromString(accountId);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package persistence.adapters;
+
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Statement;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import persistence.entity.AccountEntity;
+import persistence.entity.MovementEntity;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Writes many account balances and movements with few statements: balance updates are sent as one batched
+ * statement and movements as multi-row inserts. Joins the transaction of the caller, if any.
+ */
+@Component
+public class MovementBatchWriter {
+
+    static final int INSERT_CHUNK_SIZE = 500;
+
+    private static final String UPDATE_BALANCE =
+            "UPDATE Account SET balance = $1, version = $2, last_movement_date = $3 WHERE id = $4 AND version = $5";
+
+    private static final String INSERT_MOVEMENT = "INSERT INTO Movement (id, account_id, amount, type, date, balance_after, transfer_id, counterparty_account_id) VALUES ";
+
+    private static final int MOVEMENT_COLUMNS = 8;
+
+    private final DatabaseClient databaseClient;
+
+    public MovementBatchWriter(final DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    /**
+     * Saves the balance of the accounts, checking and incrementing their version like the optimistic lock of
+     * {@link AccountEntity} does.
+     */
+    public Mono<Void> updateBalances(final Collection<AccountEntity> accounts) {
+        if (accounts.isEmpty()) {
+            return Mono.empty();
+        }
+        return databaseClient.inConnectionMany(connection -> {
+                    final var statement = connection.createStatement(UPDATE_BALANCE);
+                    var first = true;
+                    for (final var account : accounts) {
+                        if (!first) {
+                            statement.add();
+                        }
+                        first = false;
+                        statement.bind(0, account.getBalance().toBigDecimal())
+                                .bind(1, account.getVersion() + 1)
+                                .bind(2, account.getLastMovementDate())
+                                .bind(3, account.getId())
+                                .bind(4, account.getVersion());
+                    }
+                    return Flux.from(statement.execute()).flatMap(Result::getRowsUpdated);
+                })
+                .reduce(0L, Long::sum)
+                .flatMap(updated -> {
+                    if (updated != accounts.size()) {
+                        return Mono.error(new OptimisticLockingFailureException(
+                                "Accounts were updated concurrently, " + updated + " of " + accounts.size() + " saved"));
+                    }
+                    accounts.forEach(account -> account.setVersion(account.getVersion() + 1));
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * Inserts the movements, which must already carry their ids.
+     */
+    public Mono<Void> insertMovements(final List<MovementEntity> movements) {
+        return Flux.range(0, (movements.size() + INSERT_CHUNK_SIZE - 1) / INSERT_CHUNK_SIZE)
+                .map(chunk -> movements.subList(chunk * INSERT_CHUNK_SIZE, Math.min(movements.size(), (chunk + 1) * INSERT_CHUNK_SIZE)))
+                .concatMap(this::insertChunk)
+                .then();
+    }
+
+    private Flux<Long> insertChunk(final List<MovementEntity> movements) {
+        final var sql = new StringBuilder(INSERT_MOVEMENT);
+        for (int row = 0; row < movements.size(); row++) {
+            sql.append(row == 0 ? "(" : ", (");
+            for (int column = 1; column <= MOVEMENT_COLUMNS; column++) {
+                sql.append(column == 1 ? "$" : ", $").append(row * MOVEMENT_COLUMNS + column);
+            }
+            sql.append(')');
+        }
+        return databaseClient.inConnectionMany(connection -> {
+            final var statement = connection.createStatement(sql.toString());
+            var index = 0;
+            for (final var movement : movements) {
+                statement.bind(index++, movement.getId())
+                        .bind(index++, movement.getAccountId())
+                        .bind(index++, movement.getAmount().toBigDecimal())
+                        .bind(index++, movement.getType().name())
+                        .bind(index++, movement.getDate())
+                        .bind(index++, movement.getBalanceAfter().toBigDecimal());
+                bindNullableId(statement, index++, movement.getTransferId());
+                bindNullableId(statement, index++, movement.getCounterpartyAccountId());
+            }
+            return Flux.from(statement.execute()).flatMap(Result::getRowsUpdated);
+        });
+    }
+
+    private static void bindNullableId(final Statement statement, final int index, final UUID id) {
+        if (id == null) {
+            statement.bindNull(index, UUID.class);
+        } else {
+            statement.bind(index, id);
+        }
+    }
+}
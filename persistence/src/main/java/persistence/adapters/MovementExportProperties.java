@@ -0,0 +1,13 @@
+package persistence.adapters;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings of the streaming export of an account history.
+ *
+ * @param fetchSize rows fetched from the database cursor at a time, and rows requested from it at a time
+ */
+@ConfigurationProperties(prefix = "financial.persistence.export")
+public record MovementExportProperties(@DefaultValue("256") int fetchSize) {
+}
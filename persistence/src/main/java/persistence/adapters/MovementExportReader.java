@@ -0,0 +1,82 @@
+package persistence.adapters;
+
+import domain.model.Money;
+import domain.model.Movement;
+import domain.model.MovementType;
+import io.r2dbc.spi.Readable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+/**
+ * Streams the history of an account from a single query, newest first. The statement fetch size and the demand sent
+ * upstream are both bound to the configured fetch size, so rows are only read as fast as the consumer takes them and
+ * the memory used does not depend on the size of the history.
+ */
+@Component
+public class MovementExportReader {
+
+    private final DatabaseClient databaseClient;
+
+    private final int fetchSize;
+
+    public MovementExportReader(final DatabaseClient databaseClient, final MovementExportProperties properties) {
+        this.databaseClient = databaseClient;
+        this.fetchSize = properties.fetchSize();
+    }
+
+    /**
+     * @param start movements from this date on, or {@code null} for no lower bound
+     * @param end   movements up to this date, or {@code null} for no upper bound
+     * @param type  movements of this type only, or {@code null} for both
+     */
+    public Flux<Movement> read(final UUID accountId, final LocalDateTime start, final LocalDateTime end, final MovementType type) {
+        final var sql = new StringBuilder("SELECT id, account_id, amount, type, date, transfer_id, counterparty_account_id FROM Movement WHERE account_id = :accountId");
+        if (start != null) {
+            sql.append(" AND date >= :start");
+        }
+        if (end != null) {
+            sql.append(" AND date <= :end");
+        }
+        if (type != null) {
+            sql.append(" AND type = :type ORDER BY account_id ASC, type ASC, date DESC, id DESC");
+        } else {
+            sql.append(" ORDER BY account_id ASC, date DESC, id DESC");
+        }
+
+        var spec = databaseClient.sql(sql.toString())
+                .filter((statement, next) -> next.execute(statement.fetchSize(fetchSize)))
+                .bind("accountId", accountId);
+        if (start != null) {
+            spec = spec.bind("start", start);
+        }
+        if (end != null) {
+            spec = spec.bind("end", end);
+        }
+        if (type != null) {
+            spec = spec.bind("type", type.name());
+        }
+        return spec.map(MovementExportReader::toMovement)
+                .all()
+                .limitRate(fetchSize);
+    }
+
+    private static Movement toMovement(final Readable row) {
+        return new Movement(
+                row.get("id", UUID.class).toString(),
+                row.get("account_id", UUID.class).toString(),
+                Money.of(row.get("amount", BigDecimal.class)),
+                MovementType.valueOf(row.get("type", String.class)),
+                row.get("date", LocalDateTime.class),
+                nullableId(row.get("transfer_id", UUID.class)),
+                nullableId(row.get("counterparty_account_id", UUID.class))
+        );
+    }
+
+    private static String nullableId(final UUID id) {
+        return id == null ? null : id.toString();
+    }
+}
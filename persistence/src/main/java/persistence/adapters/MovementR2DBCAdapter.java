@@ -2,169 +2,605 @@ package persistence.adapters;
 
 import domain.exception.AccountNotFoundException;
 import domain.exception.InsufficientBalanceException;
+import domain.model.Money;
 import domain.model.Movement;
+import domain.model.MovementCommand;
+import domain.model.MovementCursor;
+import domain.model.MovementOperation;
+import domain.model.MovementPage;
+import domain.model.MovementResult;
+import domain.model.MovementTotals;
 import domain.model.MovementType;
 import domain.ports.persistence.MovementPersistencePort;
 import persistence.entity.AccountEntity;
 import persistence.entity.MovementEntity;
+import persistence.entity.TimeOrderedUuid;
 import persistence.mappers.MovementMapper;
 import persistence.repository.AccountRepository;
 import persistence.repository.MovementRepository;
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.reactive.TransactionalOperator;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.util.function.Tuple2;
-import reactor.util.function.Tuple3;
-
-import static domain.model.MovementDescription.CREDIT_TRANSFER_DESCRIPTION;
-import static domain.model.MovementDescription.DEBIT_TRANSFER_DESCRIPTION;
-import static domain.model.MovementDescription.DEPOSIT_DESCRIPTION;
-import static domain.model.MovementDescription.WITHDRAW_DESCRIPTION;
+import reactor.core.publisher.SignalType;
+import reactor.util.function.Tuples;
 
 @Service
+@ConditionalOnProperty(prefix = "financial.persistence", name = "engine", havingValue = "r2dbc", matchIfMissing = true)
 public class MovementR2DBCAdapter implements MovementPersistencePort {
 
+    /**
+     * Newest first. The columns fixed by the filter lead the order so it matches the history indexes column by column,
+     * which is what lets H2 read the index in order instead of sorting the account history.
+     */
+    private static final Sort HISTORY_BY_PERIOD_ORDER = Sort.by(Sort.Order.asc("accountId"), Sort.Order.desc("date"), Sort.Order.desc("id"));
+
+    private static final Sort HISTORY_BY_TYPE_ORDER = Sort.by(Sort.Order.asc("accountId"), Sort.Order.asc("type"), Sort.Order.desc("date"), Sort.Order.desc("id"));
+
+    /**
+     * Debit leg first.
+     */
+    private static final Sort TRANSFER_ORDER = Sort.by(Sort.Order.desc("type"));
+
     private final AccountRepository accountRepository;
 
     private final MovementRepository movementRepository;
 
     private final MovementMapper movementMapper;
 
+    private final MovementBatchProcessor movementBatchProcessor;
+
+    private final GroupCommitter groupCommitter;
+
+    private final TransactionalOperator transactionalOperator;
+
+    private final BalanceUpdateProperties balanceUpdateProperties;
+
+    private final OptimisticLockRetry optimisticLockRetry;
+
+    private final MovementExportReader movementExportReader;
+
+    private final AccountCache accountCache;
+
+    private final PersistenceScheduler persistenceScheduler;
+
+    private final MovementRollups movementRollups;
+
+    private final AccountFilter accountFilter;
+
+    private final MovementStream movementStream;
+
+    private final RecentMovements recentMovements;
 
     public MovementR2DBCAdapter(final AccountRepository accountRepository,
                                 final MovementRepository movementRepository,
-                                final MovementMapper movementMapper) {
+                                final MovementMapper movementMapper,
+                                final MovementBatchProcessor movementBatchProcessor,
+                                final GroupCommitter groupCommitter,
+                                final TransactionalOperator transactionalOperator,
+                                final BalanceUpdateProperties balanceUpdateProperties,
+                                final OptimisticLockRetry optimisticLockRetry,
+                                final MovementExportReader movementExportReader,
+                                final AccountCache accountCache,
+                                final PersistenceScheduler persistenceScheduler,
+                                final MovementRollups movementRollups,
+                                final AccountFilter accountFilter,
+                                final MovementStream movementStream,
+                                final RecentMovements recentMovements) {
         this.accountRepository = accountRepository;
         this.movementRepository = movementRepository;
         this.movementMapper = movementMapper;
+        this.movementBatchProcessor = movementBatchProcessor;
+        this.groupCommitter = groupCommitter;
+        this.transactionalOperator = transactionalOperator;
+        this.balanceUpdateProperties = balanceUpdateProperties;
+        this.optimisticLockRetry = optimisticLockRetry;
+        this.movementExportReader = movementExportReader;
+        this.accountCache = accountCache;
+        this.persistenceScheduler = persistenceScheduler;
+        this.movementRollups = movementRollups;
+        this.accountFilter = accountFilter;
+        this.movementStream = movementStream;
+        this.recentMovements = recentMovements;
     }
 
     @Override
-    @Transactional
-    public Mono<Movement> deposit(final String accountId, final BigDecimal amount, final LocalDateTime date) {
-        return accountRepository.findById(accountId)
-                .switchIfEmpty(Mono.error(new AccountNotFoundException(accountId)))
-                .flatMap(accountEntity -> deposit(accountEntity, amount, date));
+    public Mono<Movement> deposit(final String accountId, final Money amount, final LocalDateTime date) {
+        if (!accountFilter.mightExist(accountId)) {
+            return Mono.error(new AccountNotFoundException(accountId));
+        }
+        return commitDeposit(accountId, amount, stored(date))
+                .flatMap(this::published)
+                .doFinally(droppedUnlessCompleted(List.of(accountId)));
+    }
+
+    private Mono<Movement> commitDeposit(final String accountId, final Money amount, final LocalDateTime date) {
+        if (groupCommitter.isEnabled()) {
+            // a group losing its optimistic lock to a movement committed outside of it fails every movement of the group
+            return optimisticLockRetry.execute(MovementOperation.DEPOSIT, accountId, () -> {
+                final var savedAccounts = new ConcurrentLinkedQueue<AccountEntity>();
+                return groupCommitter.submit(new MovementCommand(MovementOperation.DEPOSIT, accountId, null, amount), date, savedAccounts)
+                        .doOnSuccess(movement -> accountCache.written(savedAccounts));
+            });
+        }
+        if (balanceUpdateProperties.mode() == BalanceUpdateMode.CONDITIONAL) {
+            return Mono.defer(() -> {
+                final var savedAccounts = new ConcurrentLinkedQueue<AccountEntity>();
+                return persistenceScheduler.mono(transactionalOperator.transactional(conditionalDeposit(accountId, amount, date, savedAccounts)))
+                        .doOnSuccess(movement -> accountCache.written(savedAccounts));
+            });
+        }
+        return optimisticLockRetry.execute(MovementOperation.DEPOSIT, accountId, () -> {
+            final var savedAccounts = new ConcurrentLinkedQueue<AccountEntity>();
+            return persistenceScheduler.mono(transactionalOperator.transactional(accountRepository.findById(accountId)
+                            .switchIfEmpty(Mono.error(new AccountNotFoundException(accountId)))
+                            .flatMap(accountEntity -> deposit(accountEntity, amount, date, savedAccounts))))
+                    .doOnSuccess(movement -> accountCache.written(savedAccounts));
+        });
     }
 
     @Override
-    @Transactional
-    public Mono<Movement> withdraw(final String accountId, final BigDecimal amount, final LocalDateTime date) {
-        return accountRepository.findById(accountId)
-                .switchIfEmpty(Mono.error(new AccountNotFoundException(accountId)))
-                .flatMap(accountEntity -> withdraw(accountEntity, amount, date));
+    public Mono<Movement> withdraw(final String accountId, final Money amount, final LocalDateTime date) {
+        if (!accountFilter.mightExist(accountId)) {
+            return Mono.error(new AccountNotFoundException(accountId));
+        }
+        return commitWithdraw(accountId, amount, stored(date))
+                .flatMap(this::published)
+                .doFinally(droppedUnlessCompleted(List.of(accountId)));
+    }
+
+    private Mono<Movement> commitWithdraw(final String accountId, final Money amount, final LocalDateTime date) {
+        if (groupCommitter.isEnabled()) {
+            // a group losing its optimistic lock to a movement committed outside of it fails every movement of the group
+            return optimisticLockRetry.execute(MovementOperation.WITHDRAW, accountId, () -> {
+                final var savedAccounts = new ConcurrentLinkedQueue<AccountEntity>();
+                return groupCommitter.submit(new MovementCommand(MovementOperation.WITHDRAW, accountId, null, amount), date, savedAccounts)
+                        .doOnSuccess(movement -> accountCache.written(savedAccounts));
+            });
+        }
+        if (balanceUpdateProperties.mode() == BalanceUpdateMode.CONDITIONAL) {
+            return Mono.defer(() -> {
+                final var savedAccounts = new ConcurrentLinkedQueue<AccountEntity>();
+                return persistenceScheduler.mono(transactionalOperator.transactional(conditionalWithdraw(accountId, amount, date, savedAccounts)))
+                        .doOnSuccess(movement -> accountCache.written(savedAccounts));
+            });
+        }
+        return optimisticLockRetry.execute(MovementOperation.WITHDRAW, accountId, () -> {
+            final var savedAccounts = new ConcurrentLinkedQueue<AccountEntity>();
+            return persistenceScheduler.mono(transactionalOperator.transactional(accountRepository.findById(accountId)
+                            .switchIfEmpty(Mono.error(new AccountNotFoundException(accountId)))
+                            .flatMap(accountEntity -> withdraw(accountEntity, amount, date, savedAccounts))))
+                    .doOnSuccess(movement -> accountCache.written(savedAccounts));
+        });
     }
 
     @Override
-    @Transactional
-    public Mono<Movement> transfer(final String debitAccountId, final String creditAccountId, final BigDecimal amount, final LocalDateTime date) {
-        final var debitAccountMono = accountRepository.findById(debitAccountId)
-                .switchIfEmpty(Mono.error(new AccountNotFoundException(debitAccountId)));
+    public Mono<Movement> transfer(final String debitAccountId, final String creditAccountId, final Money amount, final LocalDateTime date) {
+        if (!accountFilter.mightExist(debitAccountId)) {
+            return Mono.error(new AccountNotFoundException(debitAccountId));
+        }
+        if (!accountFilter.mightExist(creditAccountId)) {
+            return Mono.error(new AccountNotFoundException(creditAccountId));
+        }
+        return commitTransfer(debitAccountId, creditAccountId, amount, stored(date))
+                .flatMap(this::published)
+                .doFinally(droppedUnlessCompleted(List.of(debitAccountId, creditAccountId)));
+    }
 
-        final var creditAccountMono = accountRepository.findById(creditAccountId)
-                .switchIfEmpty(Mono.error(new AccountNotFoundException(creditAccountId)));
+    private Mono<Movement> commitTransfer(final String debitAccountId, final String creditAccountId, final Money amount, final LocalDateTime date) {
+        if (groupCommitter.isNettingTransfers()) {
+            // a group losing its optimistic lock to a movement committed outside of it fails every transfer of the group
+            return optimisticLockRetry.execute(MovementOperation.TRANSFER, debitAccountId, () -> {
+                final var savedAccounts = new ConcurrentLinkedQueue<AccountEntity>();
+                return groupCommitter.submit(new MovementCommand(MovementOperation.TRANSFER, debitAccountId, creditAccountId, amount), date, savedAccounts)
+                        .doOnSuccess(movement -> accountCache.written(savedAccounts));
+            });
+        }
+        if (balanceUpdateProperties.mode() == BalanceUpdateMode.CONDITIONAL) {
+            return Mono.defer(() -> {
+                final var savedAccounts = new ConcurrentLinkedQueue<AccountEntity>();
+                return persistenceScheduler.mono(transactionalOperator.transactional(conditionalTransfer(debitAccountId, creditAccountId, amount, date, savedAccounts)))
+                        .doOnSuccess(movement -> accountCache.written(savedAccounts));
+            });
+        }
+        return optimisticLockRetry.execute(MovementOperation.TRANSFER, debitAccountId, () -> {
+            final var savedAccounts = new ConcurrentLinkedQueue<AccountEntity>();
+            return persistenceScheduler.mono(entityTransfer(debitAccountId, creditAccountId, amount, date, savedAccounts))
+                    .doOnSuccess(movement -> accountCache.written(savedAccounts));
+        });
+    }
 
-        return Mono.zip(debitAccountMono, creditAccountMono)
-                .flatMap(accounts -> {
-                    final var debitAccount = accounts.getT1();
-                    final var creditAccount = accounts.getT2();
-                    validateBalance(debitAccount, amount);
-                    return transfer(debitAccount, creditAccount, amount, date);
-                });
+    /**
+     * Results are released once the whole batch is committed, after the accounts it changed were written to the cache.
+     */
+    @Override
+    public Flux<MovementResult> batch(final List<MovementCommand> commands, final LocalDateTime date) {
+        if (commands.isEmpty()) {
+            return Flux.empty();
+        }
+        // the batch is one transaction: losing the optimistic lock of any of its accounts starts all of it again, and
+        // giving up is reported against its first account
+        final var first = commands.get(0);
+        final var storedDate = stored(date);
+        final var accountIds = commands.stream()
+                .flatMap(command -> Stream.of(command.accountId(), command.creditAccountId()))
+                .filter(Objects::nonNull)
+                .toList();
+        return optimisticLockRetry.execute(first.operation(), first.accountId(), () -> {
+                    final var savedAccounts = new ConcurrentLinkedQueue<AccountEntity>();
+                    return persistenceScheduler.mono(movementBatchProcessor.process(commands, storedDate, savedAccounts).collectList())
+                            .doOnSuccess(results -> accountCache.written(savedAccounts));
+                })
+                .flatMapIterable(results -> results)
+                .concatMap(result -> result.isSuccess()
+                        ? published(result.movement()).thenReturn(result)
+                        : Mono.just(result))
+                .doFinally(droppedUnlessCompleted(accountIds));
     }
 
     @Override
     public Flux<Movement> findMovementsByPeriod(final String accountId, final LocalDateTime start, final LocalDateTime end, final int page, final int pageSize) {
-        final var pageable = PageRequest.of(page, pageSize, Sort.by("date").descending());
-        return movementRepository.findAllByAccountIdAndDateIsBetween(accountId, start, end, pageable)
+        if (!accountFilter.mightExist(accountId)) {
+            return Flux.empty();
+        }
+        final var pageable = PageRequest.of(page, pageSize, HISTORY_BY_PERIOD_ORDER);
+        final var movements = Flux.defer(() -> persistenceScheduler.flux(movementRepository.findAllByAccountIdAndDateIsBetween(accountId, start, end, pageable)))
                 .map(movementMapper::toMovement);
+        if (page != 0) {
+            return movements;
+        }
+        return recentMovements.firstPage(accountId, start, inPeriod(start, end), pageSize, limit -> newestMovements(accountId, limit))
+                .map(Flux::fromIterable)
+                .defaultIfEmpty(movements)
+                .flatMapMany(Function.identity());
     }
 
     @Override
     public Flux<Movement> findMovementsByType(final String accountId, final MovementType type, final int page, final int pageSize) {
-        final var pageable = PageRequest.of(page, pageSize, Sort.by("date").descending());
-        return movementRepository.findAllByAccountIdAndType(accountId, type, pageable)
+        if (!accountFilter.mightExist(accountId)) {
+            return Flux.empty();
+        }
+        final var pageable = PageRequest.of(page, pageSize, HISTORY_BY_TYPE_ORDER);
+        final var movements = Flux.defer(() -> persistenceScheduler.flux(movementRepository.findAllByAccountIdAndType(accountId, type, pageable)))
                 .map(movementMapper::toMovement);
+        if (page != 0) {
+            return movements;
+        }
+        return recentMovements.firstPage(accountId, null, ofType(type), pageSize, limit -> newestMovements(accountId, limit))
+                .map(Flux::fromIterable)
+                .defaultIfEmpty(movements)
+                .flatMapMany(Function.identity());
     }
 
-    private Mono<Movement> transfer(final AccountEntity debitAccount, final AccountEntity creditAccount, final BigDecimal amount, final LocalDateTime date) {
-        debitAccount.setBalance(debitAccount.getBalance().subtract(amount));
+    @Override
+    public Mono<MovementPage> findMovementPageByPeriod(final String accountId, final LocalDateTime start, final LocalDateTime end, final MovementCursor after, final int pageSize) {
+        if (!accountFilter.mightExist(accountId)) {
+            return Mono.just(MovementPage.of(List.of(), pageSize));
+        }
+        if (after == null) {
+            return recentMovements.firstPage(accountId, start, inPeriod(start, end), pageSize + 1, limit -> newestMovements(accountId, limit))
+                    .map(fetched -> MovementPage.of(fetched, pageSize))
+                    .switchIfEmpty(Mono.defer(() -> persistenceScheduler.mono(toPage(movementRepository.findAllByAccountIdAndDateIsBetween(
+                            accountId, start, end, PageRequest.of(0, pageSize + 1, HISTORY_BY_PERIOD_ORDER)), pageSize))));
+        }
+        final var movements = Mono.zip(historyId(accountId), historyId(after.id()))
+                .flatMapMany(ids -> movementRepository.findPeriodPageAfter(ids.getT1(), start, end, after.date(), ids.getT2(), pageSize + 1));
+        return persistenceScheduler.mono(toPage(movements, pageSize));
+    }
+
+    @Override
+    public Mono<MovementPage> findMovementPageByType(final String accountId, final MovementType type, final MovementCursor after, final int pageSize) {
+        if (!accountFilter.mightExist(accountId)) {
+            return Mono.just(MovementPage.of(List.of(), pageSize));
+        }
+        if (after == null) {
+            return recentMovements.firstPage(accountId, null, ofType(type), pageSize + 1, limit -> newestMovements(accountId, limit))
+                    .map(fetched -> MovementPage.of(fetched, pageSize))
+                    .switchIfEmpty(Mono.defer(() -> persistenceScheduler.mono(toPage(movementRepository.findAllByAccountIdAndType(
+                            accountId, type, PageRequest.of(0, pageSize + 1, HISTORY_BY_TYPE_ORDER)), pageSize))));
+        }
+        final var movements = Mono.zip(historyId(accountId), historyId(after.id()))
+                .flatMapMany(ids -> movementRepository.findTypePageAfter(ids.getT1(), type.name(), after.date(), ids.getT2(), pageSize + 1));
+        return persistenceScheduler.mono(toPage(movements, pageSize));
+    }
+
+    @Override
+    public Flux<Movement> exportMovements(final String accountId, final LocalDateTime start, final LocalDateTime end, final MovementType type) {
+        if (!accountFilter.mightExist(accountId)) {
+            return Flux.empty();
+        }
+        return historyId(accountId)
+                .flatMapMany(id -> persistenceScheduler.flux(movementExportReader.read(id, start, end, type)));
+    }
+
+    @Override
+    public Mono<MovementTotals> sumMovementsByPeriod(final String accountId, final LocalDateTime start, final LocalDateTime end) {
+        if (!accountFilter.mightExist(accountId)) {
+            return Mono.just(MovementTotals.ZERO);
+        }
+        return historyId(accountId)
+                .flatMap(id -> persistenceScheduler.mono(movementRollups.totals(id, start, end)))
+                .defaultIfEmpty(MovementTotals.ZERO);
+    }
+
+    @Override
+    public Flux<Movement> findTransfer(final String transferId) {
+        return historyId(transferId)
+                .flatMapMany(id -> persistenceScheduler.flux(movementRepository.findAllByTransferId(id, TRANSFER_ORDER)))
+                .map(movementMapper::toMovement);
+    }
+
+    /**
+     * Registered with the stream before the catch-up is read, see {@link MovementStream#stream}.
+     */
+    @Override
+    public Flux<Movement> streamMovements(final String accountId, final String afterMovementId) {
+        if (!accountFilter.mightExist(accountId)) {
+            return Flux.error(new AccountNotFoundException(accountId));
+        }
+        return historyId(accountId)
+                .filterWhen(id -> persistenceScheduler.mono(accountRepository.existsById(id.toString())))
+                .switchIfEmpty(Mono.error(() -> new AccountNotFoundException(accountId)))
+                .flatMapMany(id -> movementStream.stream(id.toString(), catchUp(id, afterMovementId)));
+    }
+
+    /**
+     * Movements of the account committed after {@code afterMovementId}, none when it is not a movement of the account.
+     */
+    private Flux<Movement> catchUp(final UUID accountId, final String afterMovementId) {
+        if (afterMovementId == null) {
+            return Flux.empty();
+        }
+        return historyId(afterMovementId)
+                .flatMap(id -> persistenceScheduler.mono(movementRepository.findById(id.toString())))
+                .filter(last -> accountId.equals(last.getAccountId()))
+                .flatMapMany(last -> persistenceScheduler.flux(movementRepository.findAllAfter(accountId, last.getDate(), last.getId())))
+                .map(movementMapper::toMovement);
+    }
+
+    /**
+     * Movement dates are stored to the microsecond. Dated as stored, the movement returned, streamed and held by the
+     * recent movements is the one read back from the history.
+     */
+    private static LocalDateTime stored(final LocalDateTime date) {
+        return date.truncatedTo(ChronoUnit.MICROS);
+    }
+
+    private Mono<Movement> published(final Movement movement) {
+        recentMovements.written(movement);
+        return movementStream.published(movement, this::findTransfer);
+    }
+
+    /**
+     * A call cancelled or failed after its commit never {@link #published published} what it wrote, the recent
+     * movements of its accounts would miss it for good, so they are dropped and loaded again instead.
+     */
+    private Consumer<SignalType> droppedUnlessCompleted(final List<String> accountIds) {
+        return signal -> {
+            if (signal != SignalType.ON_COMPLETE) {
+                accountIds.forEach(recentMovements::invalidate);
+            }
+        };
+    }
+
+    /**
+     * Loads the recent movements projection of the account, a single seek of the account history index.
+     */
+    private Flux<Movement> newestMovements(final String accountId, final int limit) {
+        return historyId(accountId)
+                .flatMapMany(id -> persistenceScheduler.flux(movementRepository.findNewest(id, limit)))
+                .map(movementMapper::toMovement);
+    }
+
+    private static Predicate<Movement> inPeriod(final LocalDateTime start, final LocalDateTime end) {
+        return movement -> !movement.date().isBefore(start) && !movement.date().isAfter(end);
+    }
+
+    private static Predicate<Movement> ofType(final MovementType type) {
+        return movement -> movement.type() == type;
+    }
+
+    private Mono<MovementPage> toPage(final Flux<MovementEntity> movements, final int pageSize) {
+        return movements
+                .map(movementMapper::toMovement)
+                .collectList()
+                .map(fetched -> MovementPage.of(fetched, pageSize));
+    }
+
+    /**
+     * Ids of a listing that can not exist, like a malformed one, just select no movement.
+     */
+    private static Mono<UUID> historyId(final String id) {
+        try {
+            return Mono.just(UUID.fromString(id));
+        } catch (IllegalArgumentException e) {
+            return Mono.empty();
+        }
+    }
+
+    private Mono<Movement> entityTransfer(final String debitAccountId, final String creditAccountId, final Money amount, final LocalDateTime date,
+                                          final Collection<AccountEntity> savedAccounts) {
+        final var debitAccountMono = accountRepository.findById(debitAccountId)
+                .switchIfEmpty(Mono.error(new AccountNotFoundException(debitAccountId)));
+
+        final var creditAccountMono = accountRepository.findById(creditAccountId)
+                .switchIfEmpty(Mono.error(() -> new AccountNotFoundException(creditAccountId)));
+
+        return transactionalOperator.transactional(Mono.zip(debitAccountMono, creditAccountMono)
+                .flatMap(accounts -> {
+                    final var debitAccount = accounts.getT1();
+                    final var creditAccount = accounts.getT2();
+                    debitAccount.validateBalance(amount);
+                    return transfer(debitAccount, creditAccount, amount, date, savedAccounts);
+                }));
+    }
+
+    private Mono<Movement> transfer(final AccountEntity debitAccount, final AccountEntity creditAccount, final Money amount, final LocalDateTime date,
+                                    final Collection<AccountEntity> savedAccounts) {
+        final var transferId = TimeOrderedUuid.next();
+        debitAccount.setBalance(debitAccount.getBalance().minus(amount));
         final var debitMovementEntity = new MovementEntity(
                 null,
                 debitAccount.getId(),
-                String.format(DEBIT_TRANSFER_DESCRIPTION, creditAccount.getId()),
                 amount,
                 MovementType.DEBIT,
-                date
+                debitAccount.nextMovementDate(date),
+                debitAccount.getBalance(),
+                transferId,
+                creditAccount.getId()
         );
 
-        creditAccount.setBalance(creditAccount.getBalance().add(amount));
+        creditAccount.setBalance(creditAccount.getBalance().plus(amount));
         final var creditMovementEntity = new MovementEntity(
                 null,
                 creditAccount.getId(),
-                String.format(CREDIT_TRANSFER_DESCRIPTION, debitAccount.getId()),
                 amount,
                 MovementType.CREDIT,
-                date
+                creditAccount.nextMovementDate(date),
+                creditAccount.getBalance(),
+                transferId,
+                debitAccount.getId()
         );
 
-        final var debitAccountSaveMono = accountRepository.save(debitAccount);
+        final var debitAccountSaveMono = accountRepository.save(debitAccount).doOnNext(savedAccounts::add);
         final var debitMovementSaveMono = movementRepository.save(debitMovementEntity);
 
-        final var creditAccountSaveMono = accountRepository.save(creditAccount);
+        final var creditAccountSaveMono = accountRepository.save(creditAccount).doOnNext(savedAccounts::add);
         final var creditMovementSaveMono = movementRepository.save(creditMovementEntity);
 
         return Mono.zip(debitAccountSaveMono, creditAccountSaveMono, debitMovementSaveMono, creditMovementSaveMono)
-                .map(Tuple3::getT3)
+                .flatMap(saved -> movementRollups.add(List.of(saved.getT3(), saved.getT4())).thenReturn(saved.getT3()))
                 .map(movementMapper::toMovement);
     }
 
-    private Mono<Movement> withdraw(final AccountEntity account, final BigDecimal amount, final LocalDateTime date) {
-        validateBalance(account, amount);
-        account.setBalance(account.getBalance().subtract(amount));
-        final var accountSaveMono = accountRepository.save(account);
+    private Mono<Movement> withdraw(final AccountEntity account, final Money amount, final LocalDateTime date,
+                                    final Collection<AccountEntity> savedAccounts) {
+        account.validateBalance(amount);
+        account.setBalance(account.getBalance().minus(amount));
+        final var accountSaveMono = accountRepository.save(account).doOnNext(savedAccounts::add);
 
         final var movementEntity = new MovementEntity(
                 null,
                 account.getId(),
-                WITHDRAW_DESCRIPTION,
                 amount,
                 MovementType.DEBIT,
-                date
+                account.nextMovementDate(date),
+                account.getBalance(),
+                null,
+                null
         );
 
         final var movementSaveMono = movementRepository.save(movementEntity);
         return Mono.zip(accountSaveMono, movementSaveMono)
-                .map(Tuple2::getT2)
+                .flatMap(saved -> movementRollups.add(List.of(saved.getT2())).thenReturn(saved.getT2()))
                 .map(movementMapper::toMovement);
     }
 
-    private void validateBalance(final AccountEntity account, final BigDecimal amountWithdraw) {
-        if (account.getBalance().add(account.getLimit()).compareTo(amountWithdraw) < 0) {
-            throw new InsufficientBalanceException();
+    private Mono<Movement> conditionalDeposit(final String accountId, final Money amount, final LocalDateTime date,
+                                              final Collection<AccountEntity> savedAccounts) {
+        return accountUuid(accountId)
+                .flatMap(id -> accountRepository.credit(id, amount.toBigDecimal(), date))
+                .switchIfEmpty(Mono.error(() -> new AccountNotFoundException(accountId)))
+                .doOnNext(savedAccounts::add)
+                .flatMap(account -> saveMovement(account, amount, MovementType.CREDIT, null, null));
+    }
+
+    private Mono<Movement> conditionalWithdraw(final String accountId, final Money amount, final LocalDateTime date,
+                                               final Collection<AccountEntity> savedAccounts) {
+        return accountUuid(accountId)
+                .flatMap(id -> accountRepository.debit(id, amount.toBigDecimal(), date))
+                .switchIfEmpty(debitRejected(accountId))
+                .doOnNext(savedAccounts::add)
+                .flatMap(account -> saveMovement(account, amount, MovementType.DEBIT, null, null));
+    }
+
+    /**
+     * Updates both accounts with guarded statements, always locking the row with the lowest id first so two opposite
+     * transfers can not deadlock. A rejected debit rolls back a credit already applied by the transaction.
+     */
+    private Mono<Movement> conditionalTransfer(final String debitAccountId, final String creditAccountId, final Money amount,
+                                               final LocalDateTime date, final Collection<AccountEntity> savedAccounts) {
+        return Mono.zip(accountUuid(debitAccountId), accountUuid(creditAccountId))
+                .flatMap(ids -> {
+                    final var debitId = ids.getT1();
+                    final var creditId = ids.getT2();
+                    final var debit = accountRepository.debit(debitId, amount.toBigDecimal(), date)
+                            .switchIfEmpty(debitRejected(debitAccountId));
+                    final var credit = accountRepository.credit(creditId, amount.toBigDecimal(), date)
+                            .switchIfEmpty(Mono.error(() -> new AccountNotFoundException(creditAccountId)));
+                    final var accounts = debitId.compareTo(creditId) <= 0
+                            ? debit.zipWhen(debitAccount -> credit)
+                            : credit.zipWhen(creditAccount -> debit, (creditAccount, debitAccount) -> Tuples.of(debitAccount, creditAccount));
+
+                    final var transferId = TimeOrderedUuid.next();
+                    return accounts.doOnNext(updated -> savedAccounts.addAll(List.of(updated.getT1(), updated.getT2())))
+                            .flatMap(updated -> saveMovement(updated.getT2(), amount, MovementType.CREDIT, transferId, debitId)
+                                    .then(saveMovement(updated.getT1(), amount, MovementType.DEBIT, transferId, creditId)));
+                });
+    }
+
+    private static Mono<UUID> accountUuid(final String accountId) {
+        try {
+            return Mono.just(UUID.fromString(accountId));
+        } catch (IllegalArgumentException e) {
+            return Mono.error(new AccountNotFoundException(accountId));
         }
     }
 
-    private Mono<Movement> deposit(final AccountEntity account, final BigDecimal amount, final LocalDateTime date) {
-        account.setBalance(account.getBalance().add(amount));
-        final var accountSaveMono = accountRepository.save(account);
+    /**
+     * The guarded debit updated no row: tell a missing account apart from an insufficient balance. Only reached on the
+     * failure path, so the successful one never reads the account.
+     */
+    private <T> Mono<T> debitRejected(final String accountId) {
+        return Mono.defer(() -> accountRepository.existsById(accountId))
+                .flatMap(exists -> Mono.error(exists
+                        ? new InsufficientBalanceException()
+                        : new AccountNotFoundException(accountId)));
+    }
+
+    /**
+     * @param account the account as updated by the movement, which holds its balance and date
+     */
+    private Mono<Movement> saveMovement(final AccountEntity account, final Money amount, final MovementType type,
+                                        final UUID transferId, final UUID counterpartyAccountId) {
+        return movementRepository.save(new MovementEntity(null, account.getId(), amount, type, account.getLastMovementDate(), account.getBalance(),
+                        transferId, counterpartyAccountId))
+                .flatMap(saved -> movementRollups.add(List.of(saved)).thenReturn(saved))
+                .map(movementMapper::toMovement);
+    }
+
+    private Mono<Movement> deposit(final AccountEntity account, final Money amount, final LocalDateTime date,
+                                   final Collection<AccountEntity> savedAccounts) {
+        account.setBalance(account.getBalance().plus(amount));
+        final var accountSaveMono = accountRepository.save(account).doOnNext(savedAccounts::add);
 
         final var movementEntity = new MovementEntity(
                 null,
                 account.getId(),
-                DEPOSIT_DESCRIPTION,
                 amount,
                 MovementType.CREDIT,
-                date
+                account.nextMovementDate(date),
+                account.getBalance(),
+                null,
+                null
         );
         final var movementSaveMono = movementRepository.save(movementEntity);
         return Mono.zip(accountSaveMono, movementSaveMono)
-                .map(Tuple2::getT2)
+                .flatMap(saved -> movementRollups.add(List.of(saved.getT2())).thenReturn(saved.getT2()))
                 .map(movementMapper::toMovement);
     }
 
@@ -0,0 +1,104 @@
+package persistence.adapters;
+
+import domain.model.Money;
+import domain.model.MovementTotals;
+import io.r2dbc.spi.Result;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.UUID;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import persistence.entity.MovementEntity;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Daily credit and debit totals of every account, kept in {@code MovementDailyRollup} by the transactions writing
+ * the movements, so the totals of a period read one row per day instead of every movement.
+ * <p>
+ * A rollup row is only changed by a transaction that already updated the balance of its account, so the account row
+ * lock orders concurrent changes of the same rollup and two transactions never insert the same day.
+ */
+@Component
+public class MovementRollups {
+
+    private static final String ADD_TO_ROLLUP = """
+            MERGE INTO MovementDailyRollup r
+            USING (VALUES (CAST($1 AS UUID), CAST($2 AS DATE), CAST($3 AS DECIMAL(19, 2)), CAST($4 AS DECIMAL(19, 2))))
+                AS m (account_id, movement_date, credits, debits)
+            ON r.account_id = m.account_id AND r.movement_date = m.movement_date
+            WHEN MATCHED THEN UPDATE SET credits = r.credits + m.credits, debits = r.debits + m.debits
+            WHEN NOT MATCHED THEN INSERT (account_id, movement_date, credits, debits)
+                VALUES (m.account_id, m.movement_date, m.credits, m.debits)""";
+
+    private static final String TOTALS = """
+            SELECT COALESCE(SUM(credits), 0) AS credits, COALESCE(SUM(debits), 0) AS debits FROM (
+                SELECT credits, debits FROM MovementDailyRollup
+                WHERE account_id = :accountId AND movement_date BETWEEN :firstDay AND :lastDay
+                UNION ALL
+                SELECT CASE WHEN type = 'CREDIT' THEN amount ELSE 0 END, CASE WHEN type = 'DEBIT' THEN amount ELSE 0 END
+                FROM Movement WHERE account_id = :accountId AND date >= :start AND date < :headEnd
+                UNION ALL
+                SELECT CASE WHEN type = 'CREDIT' THEN amount ELSE 0 END, CASE WHEN type = 'DEBIT' THEN amount ELSE 0 END
+                FROM Movement WHERE account_id = :accountId AND date >= :tailStart AND date <= :end
+            ) totals""";
+
+    private final DatabaseClient databaseClient;
+
+    public MovementRollups(final DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    /**
+     * Adds the movements to the rollups of their day, with one statement execution per account and day. Joins the
+     * transaction of the caller, which must have updated the balance of their accounts.
+     */
+    public Mono<Void> add(final Collection<MovementEntity> movements) {
+        final var days = new LinkedHashMap<Day, MovementTotals>();
+        for (final var movement : movements) {
+            days.merge(new Day(movement.getAccountId(), movement.getDate().toLocalDate()),
+                    MovementTotals.of(movement.getType(), movement.getAmount()), MovementTotals::plus);
+        }
+        if (days.isEmpty()) {
+            return Mono.empty();
+        }
+        return databaseClient.inConnectionMany(connection -> {
+                    final var statement = connection.createStatement(ADD_TO_ROLLUP);
+                    var first = true;
+                    for (final var day : days.entrySet()) {
+                        if (!first) {
+                            statement.add();
+                        }
+                        first = false;
+                        statement.bind(0, day.getKey().accountId())
+                                .bind(1, day.getKey().date())
+                                .bind(2, day.getValue().credits().toBigDecimal())
+                                .bind(3, day.getValue().debits().toBigDecimal());
+                    }
+                    return Flux.from(statement.execute()).flatMap(Result::getRowsUpdated);
+                })
+                .then();
+    }
+
+    public Mono<MovementTotals> totals(final UUID accountId, final LocalDateTime start, final LocalDateTime end) {
+        final var period = RollupPeriod.of(start, end);
+        return databaseClient.sql(TOTALS)
+                .bind("accountId", accountId)
+                .bind("firstDay", period.firstDay())
+                .bind("lastDay", period.lastDay())
+                .bind("start", period.start())
+                .bind("headEnd", period.headEnd())
+                .bind("tailStart", period.tailStart())
+                .bind("end", period.end())
+                .map(row -> new MovementTotals(
+                        Money.of(row.get("credits", BigDecimal.class)),
+                        Money.of(row.get("debits", BigDecimal.class))))
+                .one();
+    }
+
+    private record Day(UUID accountId, LocalDate date) {
+    }
+}
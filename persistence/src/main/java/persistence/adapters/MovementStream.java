@@ -0,0 +1,133 @@
+package persistence.adapters;
+
+import domain.model.Movement;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.concurrent.Queues;
+
+/**
+ * Multicasts the movements committed on this node to the subscribers of their account. Each subscriber has its own
+ * sink buffering up to {@link MovementStreamProperties#bufferSize()} movements, so one that reads slowly never holds
+ * up the commit publishing them nor the other subscribers: once its buffer is full its stream is completed, and it
+ * resumes from the last movement it received.
+ * <p>
+ * Subscribers are kept per account, so a movement only reaches the subscribers of its own account. Their number is the
+ * {@code financial.movement_stream.subscribers} gauge, the streams completed for a full buffer the
+ * {@code financial.movement_stream.dropped} counter.
+ */
+@Component
+public class MovementStream {
+
+    /**
+     * Order the movements of an account were committed in, as dates never go back within an account.
+     */
+    private static final Comparator<Movement> COMMIT_ORDER = Comparator.comparing(Movement::date)
+            .thenComparing(Movement::id);
+
+    private final int bufferSize;
+
+    private final ConcurrentHashMap<String, List<Sinks.Many<Movement>>> subscribers = new ConcurrentHashMap<>();
+
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+
+    private final Counter dropped;
+
+    public MovementStream(final MovementStreamProperties properties, final MeterRegistry meterRegistry) {
+        this.bufferSize = properties.bufferSize();
+        Gauge.builder("financial.movement_stream.subscribers", subscriberCount, AtomicInteger::get)
+                .description("Subscribers of live movement streams")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("financial.movement_stream.dropped")
+                .description("Movement streams completed because their subscriber fell a whole buffer behind")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Registers the subscriber before {@code catchUp} is read, so no movement committed meanwhile is lost, and skips
+     * the live movements the catch-up already emitted.
+     *
+     * @param accountId canonical id of the account
+     * @param catchUp   movements committed before the subscription, oldest first
+     */
+    public Flux<Movement> stream(final String accountId, final Flux<Movement> catchUp) {
+        return Flux.defer(() -> {
+            final var sink = Sinks.many().unicast().<Movement>onBackpressureBuffer(Queues.<Movement>get(bufferSize).get());
+            subscribers.compute(accountId, (id, accountSubscribers) -> {
+                final var added = accountSubscribers == null ? new CopyOnWriteArrayList<Sinks.Many<Movement>>() : accountSubscribers;
+                added.add(sink);
+                return added;
+            });
+            subscriberCount.incrementAndGet();
+            final var last = new AtomicReference<Movement>();
+            return catchUp.doOnNext(last::set)
+                    .concatWith(sink.asFlux()
+                            .filter(movement -> last.get() == null || COMMIT_ORDER.compare(movement, last.get()) > 0))
+                    .doFinally(signal -> remove(accountId, sink));
+        });
+    }
+
+    public boolean isWatched(final String accountId) {
+        return accountId != null && subscribers.containsKey(accountId);
+    }
+
+    /**
+     * Hands a committed movement to the subscribers of its account.
+     */
+    public void publish(final Movement movement) {
+        final var accountSubscribers = subscribers.get(movement.account_id());
+        if (accountSubscribers == null) {
+            return;
+        }
+        for (final var sink : accountSubscribers) {
+            var result = sink.tryEmitNext(movement);
+            while (result == Sinks.EmitResult.FAIL_NON_SERIALIZED) {
+                Thread.onSpinWait();
+                result = sink.tryEmitNext(movement);
+            }
+            // the sink queues what is published while its subscriber still reads the catch-up; a full queue is reported
+            // as FAIL_ZERO_SUBSCRIBER until the subscriber reaches the sink, FAIL_OVERFLOW afterwards
+            if (result == Sinks.EmitResult.FAIL_OVERFLOW || result == Sinks.EmitResult.FAIL_ZERO_SUBSCRIBER) {
+                dropped.increment();
+                sink.tryEmitComplete();
+                remove(movement.account_id(), sink);
+            }
+        }
+    }
+
+    /**
+     * Publishes a committed movement, and the other leg of a transfer when its account is watched. That leg is only
+     * then read with {@code findTransfer}; failing to read it does not fail the committed movement.
+     */
+    public Mono<Movement> published(final Movement movement, final Function<String, Flux<Movement>> findTransfer) {
+        publish(movement);
+        if (movement.transfer_id() == null || !isWatched(movement.counterparty_account_id())) {
+            return Mono.just(movement);
+        }
+        return findTransfer.apply(movement.transfer_id())
+                .filter(leg -> !leg.id().equals(movement.id()))
+                .doOnNext(this::publish)
+                .onErrorResume(error -> Mono.empty())
+                .then(Mono.just(movement));
+    }
+
+    private void remove(final String accountId, final Sinks.Many<Movement> sink) {
+        subscribers.computeIfPresent(accountId, (id, accountSubscribers) -> {
+            if (accountSubscribers.remove(sink)) {
+                subscriberCount.decrementAndGet();
+            }
+            return accountSubscribers.isEmpty() ? null : accountSubscribers;
+        });
+    }
+}
@@ -0,0 +1,14 @@
+package persistence.adapters;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings of the live movement streams.
+ *
+ * @param bufferSize movements held for a subscriber not reading them yet, rounded up to a power of two of at least 8.
+ *                   Its stream is completed beyond it, so it resumes from the last movement it received
+ */
+@ConfigurationProperties(prefix = "financial.persistence.movement-stream")
+public record MovementStreamProperties(@DefaultValue("256") int bufferSize) {
+}
@@ -0,0 +1,75 @@
+package persistence.adapters;
+
+import domain.exception.MovementConflictException;
+import domain.model.MovementOperation;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Supplier;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+/**
+ * Runs a movement again, with a jittered exponential backoff, when it loses an optimistic lock. Each attempt is built
+ * anew by the given supplier, so it reads the fresh state of the accounts in its own transaction. Once the attempts
+ * are exhausted the movement fails with a {@link MovementConflictException}.
+ */
+@Component
+public class OptimisticLockRetry {
+
+    private final OptimisticLockRetryProperties properties;
+
+    private final Map<MovementOperation, OperationCounters> counters = new EnumMap<>(MovementOperation.class);
+
+    public OptimisticLockRetry(final OptimisticLockRetryProperties properties, final MeterRegistry meterRegistry) {
+        this.properties = properties;
+        for (final var operation : MovementOperation.values()) {
+            counters.put(operation, new OperationCounters(operation, meterRegistry));
+        }
+    }
+
+    public <T> Mono<T> execute(final MovementOperation operation, final String accountId, final Supplier<Mono<T>> attempt) {
+        final var operationCounters = counters.get(operation);
+        final var retry = Retry.backoff(Math.max(properties.maxAttempts() - 1, 0), properties.initialBackoff())
+                .maxBackoff(properties.maxBackoff())
+                .jitter(properties.jitter())
+                .filter(OptimisticLockingFailureException.class::isInstance)
+                .doBeforeRetry(signal -> operationCounters.retries.increment())
+                .onRetryExhaustedThrow((spec, signal) -> {
+                    operationCounters.exhausted.increment();
+                    return new MovementConflictException(accountId, signal.failure());
+                });
+
+        return Mono.defer(attempt)
+                .doOnError(OptimisticLockingFailureException.class, error -> operationCounters.conflicts.increment())
+                .retryWhen(retry);
+    }
+
+    private static final class OperationCounters {
+
+        private final Counter conflicts;
+
+        private final Counter retries;
+
+        private final Counter exhausted;
+
+        private OperationCounters(final MovementOperation operation, final MeterRegistry meterRegistry) {
+            final var tag = operation.name().toLowerCase();
+            this.conflicts = Counter.builder("financial.optimistic_lock.conflicts")
+                    .description("Attempts that lost an optimistic lock to a concurrent update")
+                    .tag("operation", tag)
+                    .register(meterRegistry);
+            this.retries = Counter.builder("financial.optimistic_lock.retries")
+                    .description("Attempts started again after a conflict")
+                    .tag("operation", tag)
+                    .register(meterRegistry);
+            this.exhausted = Counter.builder("financial.optimistic_lock.exhausted")
+                    .description("Movements given up after their last attempt conflicted")
+                    .tag("operation", tag)
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package persistence.adapters;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings of the retry of movements that lose an optimistic lock to a concurrent update.
+ *
+ * @param maxAttempts    attempts, the first one included, before the movement fails with a conflict
+ * @param initialBackoff wait before the first retry, doubled on each following one
+ * @param maxBackoff     longest wait between two attempts
+ * @param jitter         random share of each wait, from {@code 0} (none) to {@code 1}
+ */
+@ConfigurationProperties(prefix = "financial.persistence.retry")
+public record OptimisticLockRetryProperties(@DefaultValue("5") int maxAttempts,
+                                           @DefaultValue("5ms") Duration initialBackoff,
+                                           @DefaultValue("200ms") Duration maxBackoff,
+                                           @DefaultValue("0.5") double jitter) {
+}
@@ -0,0 +1,118 @@
+package persistence.adapters;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Bounded pool of threads the r2dbc adapters subscribe their database calls on. The H2 driver does its work, file
+ * I/O included, on the thread that subscribes or requests, so without it a heavy query stalls the event loop serving
+ * every other HTTP request of that loop.
+ * <p>
+ * Calls submitted while every thread is busy wait in a bounded queue, whose depth is the
+ * {@code financial.persistence.scheduler.queued} gauge and whose wait is the {@code financial.persistence.scheduler.wait}
+ * timer. Calls beyond the queue fail with a {@link RejectedExecutionException}.
+ */
+@Component
+public class PersistenceScheduler implements AutoCloseable {
+
+    private final boolean enabled;
+
+    private final Scheduler scheduler;
+
+    private final AtomicInteger queued = new AtomicInteger();
+
+    private final Timer waitTime;
+
+    private final Counter rejected;
+
+    public PersistenceScheduler(final PersistenceSchedulerProperties properties, final MeterRegistry meterRegistry) {
+        this.enabled = properties.enabled();
+        this.scheduler = enabled
+                ? Schedulers.newBoundedElastic(properties.parallelism(), properties.queueCapacity(), "persistence")
+                : Schedulers.immediate();
+        Gauge.builder("financial.persistence.scheduler.queued", queued, AtomicInteger::get)
+                .description("Persistence calls waiting for a thread")
+                .register(meterRegistry);
+        this.waitTime = Timer.builder("financial.persistence.scheduler.wait")
+                .description("Time a persistence call waited for a thread")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("financial.persistence.scheduler.rejected")
+                .description("Persistence calls rejected because the queue was full")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return {@code call} subscribed on a persistence thread, which also emits its result
+     */
+    public <T> Mono<T> mono(final Mono<T> call) {
+        if (!enabled) {
+            return call;
+        }
+        return Mono.defer(() -> {
+            final var waiting = new Waiting();
+            return call.doOnSubscribe(subscription -> waiting.started())
+                    .subscribeOn(scheduler)
+                    .doOnError(RejectedExecutionException.class, error -> rejected.increment())
+                    .doFinally(signal -> waiting.abandoned());
+        });
+    }
+
+    /**
+     * @return {@code call} subscribed on a persistence thread, which also requests and emits its elements
+     */
+    public <T> Flux<T> flux(final Flux<T> call) {
+        if (!enabled) {
+            return call;
+        }
+        return Flux.defer(() -> {
+            final var waiting = new Waiting();
+            return call.doOnSubscribe(subscription -> waiting.started())
+                    .subscribeOn(scheduler)
+                    .doOnError(RejectedExecutionException.class, error -> rejected.increment())
+                    .doFinally(signal -> waiting.abandoned());
+        });
+    }
+
+    @Override
+    public void close() {
+        scheduler.dispose();
+    }
+
+    /**
+     * A call counted in the queue until it starts, or until it ends without starting, rejected or cancelled.
+     */
+    private final class Waiting {
+
+        private final long submittedAt = System.nanoTime();
+
+        private final AtomicBoolean left = new AtomicBoolean();
+
+        private Waiting() {
+            queued.incrementAndGet();
+        }
+
+        void started() {
+            if (left.compareAndSet(false, true)) {
+                queued.decrementAndGet();
+                waitTime.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        void abandoned() {
+            if (left.compareAndSet(false, true)) {
+                queued.decrementAndGet();
+            }
+        }
+    }
+}
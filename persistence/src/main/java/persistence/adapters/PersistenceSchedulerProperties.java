@@ -0,0 +1,17 @@
+package persistence.adapters;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings of the scheduler running the persistence calls of the r2dbc adapters.
+ *
+ * @param enabled       run persistence calls on their own threads instead of the caller's, usually an event loop
+ * @param parallelism   threads running persistence calls, no more than the connections of the pool are useful
+ * @param queueCapacity calls each thread queues once all of them are busy, beyond which calls are rejected
+ */
+@ConfigurationProperties(prefix = "financial.persistence.scheduler")
+public record PersistenceSchedulerProperties(@DefaultValue("true") boolean enabled,
+                                             @DefaultValue("10") int parallelism,
+                                             @DefaultValue("1000") int queueCapacity) {
+}
@@ -0,0 +1,253 @@
+package persistence.adapters;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import domain.model.Movement;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Projection of the newest {@link RecentMovementsProperties#perAccount()} movements of each account, loaded on the
+ * first history read of the account and written through by the movement adapter once a movement is committed, so the
+ * first page of a history listing is answered without the database whenever the projection holds all of it.
+ * <p>
+ * Like the {@link AccountCache}, a load only installs what it read if no movement of the account was written since the
+ * load started. The other leg of a transfer is not known when its debit is written, so the counterparty account is
+ * dropped and loaded again on its next read. An account expires {@link RecentMovementsProperties#ttl()} after it was
+ * loaded whatever was written to it since, so a movement it missed, committed by another node or by a call that never
+ * published it, is not kept out of its first page for longer than that. The movements kept over every account are
+ * bounded by {@link RecentMovementsProperties#maximumMovements()}, evicting the accounts least used.
+ * <p>
+ * First pages answered from the projection without reading the database, and the others, are the
+ * {@code financial.recent_movements.reads} counter tagged with the result, their ratio the
+ * {@code financial.recent_movements.hit_rate} gauge.
+ */
+@Component
+@ConditionalOnProperty(prefix = "financial.persistence", name = "engine", havingValue = "r2dbc", matchIfMissing = true)
+public class RecentMovements {
+
+    /**
+     * Order of the history listings.
+     */
+    private static final Comparator<Movement> NEWEST_FIRST = Comparator.comparing(Movement::date)
+            .thenComparing(Movement::id)
+            .reversed();
+
+    private static final int GENERATION_STRIPES = 1024;
+
+    private final boolean enabled;
+
+    private final int perAccount;
+
+    private final Cache<String, Recent> cache;
+
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    private final Counter hits;
+
+    private final Counter misses;
+
+    public RecentMovements(final RecentMovementsProperties properties, final MeterRegistry meterRegistry) {
+        this.enabled = properties.enabled();
+        this.perAccount = Math.max(1, properties.perAccount());
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(properties.maximumMovements())
+                .weigher((String accountId, Recent recent) -> Math.max(1, recent.movements().size()))
+                .expireAfter(expiringAfterLoad(properties.ttl()))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "recent_movements");
+        Gauge.builder("financial.recent_movements.movements", cache, held -> held.policy().eviction()
+                        .map(eviction -> eviction.weightedSize().orElse(0))
+                        .orElse(0L))
+                .description("Movements held by the recent movements projection")
+                .register(meterRegistry);
+        this.hits = Counter.builder("financial.recent_movements.reads")
+                .description("First pages of history listings by where they were answered from")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("financial.recent_movements.reads")
+                .description("First pages of history listings by where they were answered from")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("financial.recent_movements.hit_rate", this, RecentMovements::hitRate)
+                .description("Share of first pages of history listings answered from memory")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param start  oldest date the listing selects, {@code null} when it is not bounded by date
+     * @param filter movements the listing selects
+     * @param count  movements of the page
+     * @param loader reads the given number of newest movements of the account, newest first, when it is not held; the
+     *               page is then answered from what it read when possible
+     * @return the first {@code count} selected movements, newest first, or empty when the projection does not hold all
+     * of them and the page must be read from the database
+     */
+    public Mono<List<Movement>> firstPage(final String accountId, final LocalDateTime start, final Predicate<Movement> filter,
+                                          final int count, final IntFunction<Flux<Movement>> loader) {
+        final var key = key(accountId);
+        if (!enabled || key == null) {
+            return Mono.empty();
+        }
+        return Mono.defer(() -> {
+            final var cached = cache.getIfPresent(key);
+            if (cached == null) {
+                misses.increment();
+                return load(key, loader).mapNotNull(loaded -> loaded.firstPage(start, filter, count));
+            }
+            final var page = cached.firstPage(start, filter, count);
+            (page != null ? hits : misses).increment();
+            return Mono.justOrEmpty(page);
+        });
+    }
+
+    /**
+     * Adds a committed movement to its account when it is held, and drops the counterparty account of a transfer.
+     */
+    public void written(final Movement movement) {
+        final var key = key(movement.account_id());
+        if (!enabled || key == null) {
+            return;
+        }
+        cache.asMap().compute(key, (id, current) -> {
+            generations.incrementAndGet(stripe(key));
+            return current == null ? null : current.with(movement, perAccount);
+        });
+        if (movement.transfer_id() != null) {
+            invalidate(movement.counterparty_account_id());
+        }
+    }
+
+    /**
+     * Drops the account after a committed change whose movements are not known here.
+     */
+    public void invalidate(final String accountId) {
+        final var key = key(accountId);
+        if (!enabled || key == null) {
+            return;
+        }
+        cache.asMap().compute(key, (id, current) -> {
+            generations.incrementAndGet(stripe(key));
+            return null;
+        });
+    }
+
+    private Mono<Recent> load(final String key, final IntFunction<Flux<Movement>> loader) {
+        final var generation = generations.get(stripe(key));
+        return loader.apply(perAccount)
+                .collectList()
+                .map(movements -> {
+                    final var loaded = new Recent(List.copyOf(movements), movements.size() < perAccount);
+                    cache.asMap().compute(key, (id, current) -> current == null && generations.get(stripe(key)) == generation
+                            ? loaded
+                            : current);
+                    return loaded;
+                });
+    }
+
+    /**
+     * Expires an account the given time after it was loaded, neither extended by the movements written to it nor by
+     * its reads.
+     */
+    private static Expiry<String, Recent> expiringAfterLoad(final Duration ttl) {
+        return new Expiry<>() {
+            @Override
+            public long expireAfterCreate(final String accountId, final Recent recent, final long currentTime) {
+                return ttl.toNanos();
+            }
+
+            @Override
+            public long expireAfterUpdate(final String accountId, final Recent recent, final long currentTime,
+                                          final long currentDuration) {
+                return currentDuration;
+            }
+
+            @Override
+            public long expireAfterRead(final String accountId, final Recent recent, final long currentTime,
+                                        final long currentDuration) {
+                return currentDuration;
+            }
+        };
+    }
+
+    private double hitRate() {
+        final var reads = hits.count() + misses.count();
+        return reads == 0 ? 0 : hits.count() / reads;
+    }
+
+    private static int stripe(final String key) {
+        return Math.floorMod(key.hashCode(), GENERATION_STRIPES);
+    }
+
+    /**
+     * Canonical form of the id, or {@code null} when it is not an id an account could have.
+     */
+    private static String key(final String accountId) {
+        try {
+            return UUID.fromString(accountId).toString();
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Newest movements of an account, newest first, never replaced in place.
+     *
+     * @param complete whether they are every movement of the account
+     */
+    private record Recent(List<Movement> movements, boolean complete) {
+
+        /**
+         * @return the page, {@code null} when a selected movement older than those held may belong to it
+         */
+        List<Movement> firstPage(final LocalDateTime start, final Predicate<Movement> filter, final int count) {
+            final var page = movements.stream()
+                    .filter(filter)
+                    .limit(count)
+                    .toList();
+            if (page.size() == count || complete) {
+                return page;
+            }
+            final var olderThanPeriod = start != null && !movements.isEmpty()
+                    && movements.get(movements.size() - 1).date().isBefore(start);
+            return olderThanPeriod ? page : null;
+        }
+
+        Recent with(final Movement movement, final int perAccount) {
+            final var index = Collections.binarySearch(movements, movement, NEWEST_FIRST);
+            if (index >= 0) {
+                return this;
+            }
+            final var position = -index - 1;
+            // older than every movement held while older ones exist: it is not known what lies in between
+            if (position == movements.size() && !complete) {
+                return this;
+            }
+            final var added = new ArrayList<>(movements);
+            added.add(position, movement);
+            if (added.size() > perAccount) {
+                added.remove(added.size() - 1);
+                return new Recent(List.copyOf(added), false);
+            }
+            return new Recent(List.copyOf(added), complete);
+        }
+    }
+}
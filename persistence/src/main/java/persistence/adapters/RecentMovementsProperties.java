@@ -0,0 +1,21 @@
+package persistence.adapters;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings of the in-memory projection of the newest movements of each account.
+ *
+ * @param enabled          answer the first page of history listings from the projection when it holds all of it
+ * @param perAccount       newest movements kept per account, the largest first page it can answer by itself
+ * @param maximumMovements movements kept over every account, the least used accounts are evicted beyond it
+ * @param ttl              time an account is kept after it was loaded, writes do not extend it, bounds the staleness
+ *                         of movements committed by other nodes
+ */
+@ConfigurationProperties(prefix = "financial.persistence.recent-movements")
+public record RecentMovementsProperties(@DefaultValue("true") boolean enabled,
+                                        @DefaultValue("64") int perAccount,
+                                        @DefaultValue("200000") long maximumMovements,
+                                        @DefaultValue("60s") Duration ttl) {
+}
@@ -0,0 +1,46 @@
+package persistence.adapters;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * A period, both bounds included, split into the whole days it covers, answered by the daily rollups, and the partial
+ * days at its edges, answered by the movements: the head from {@code start} until {@code headEnd} excluded and the
+ * tail from {@code tailStart} to {@code end}. Without whole days the head is empty and the tail is the period.
+ */
+public record RollupPeriod(LocalDateTime start, LocalDateTime end, LocalDate firstDay, LocalDate lastDay) {
+
+    public static RollupPeriod of(final LocalDateTime start, final LocalDateTime end) {
+        final var firstDay = start.toLocalTime().equals(LocalTime.MIDNIGHT)
+                ? start.toLocalDate()
+                : start.toLocalDate().plusDays(1);
+        // a day is whole when the period reaches its last instant, the one just before the next day
+        final var lastDay = end.plusNanos(1).toLocalDate().minusDays(1);
+        return new RollupPeriod(start, end, firstDay, lastDay);
+    }
+
+    public boolean hasWholeDays() {
+        return !firstDay.isAfter(lastDay);
+    }
+
+    public LocalDateTime headEnd() {
+        return hasWholeDays() ? firstDay.atStartOfDay() : start;
+    }
+
+    public LocalDateTime tailStart() {
+        return hasWholeDays() ? lastDay.plusDays(1).atStartOfDay() : start;
+    }
+
+    public boolean hasPartialDays() {
+        return start.isBefore(headEnd()) || !tailStart().isAfter(end);
+    }
+
+    /**
+     * @return whether a movement of this date is in a partial day of the period
+     */
+    public boolean inPartialDay(final LocalDateTime date) {
+        return !date.isBefore(start) && date.isBefore(headEnd())
+                || !date.isBefore(tailStart()) && !date.isAfter(end);
+    }
+}
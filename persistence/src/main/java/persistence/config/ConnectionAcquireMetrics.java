@@ -0,0 +1,71 @@
+package persistence.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.Wrapped;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Times how long each connection takes to be acquired from a pool, in the {@code r2dbc.pool.acquire} timer tagged with
+ * the bean name like the {@code r2dbc.pool.*} gauges of the pool. The pool stays reachable through {@link Wrapped}, so
+ * those gauges are still bound.
+ */
+@Component
+public class ConnectionAcquireMetrics implements BeanPostProcessor {
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public ConnectionAcquireMetrics(final ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(final Object bean, final String beanName) {
+        if (!(bean instanceof ConnectionPool pool)) {
+            return bean;
+        }
+        final var acquireTime = Timer.builder("r2dbc.pool.acquire")
+                .description("Time to acquire a connection from the pool, waiting for a free one included")
+                .tag("name", beanName)
+                .register(meterRegistry.getObject());
+        return new TimedConnectionFactory(pool, acquireTime);
+    }
+
+    private record TimedConnectionFactory(ConnectionPool pool, Timer acquireTime)
+            implements ConnectionFactory, Wrapped<ConnectionFactory> {
+
+        @Override
+        public Mono<Connection> create() {
+            return Mono.defer(() -> {
+                final var start = System.nanoTime();
+                return pool.create()
+                        .doOnSuccess(connection -> acquireTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+            });
+        }
+
+        @Override
+        public ConnectionFactoryMetadata getMetadata() {
+            return pool.getMetadata();
+        }
+
+        @Override
+        public ConnectionFactory unwrap() {
+            return pool;
+        }
+
+        /**
+         * Destroy method of the pool bean.
+         */
+        public void dispose() {
+            pool.dispose();
+        }
+    }
+}
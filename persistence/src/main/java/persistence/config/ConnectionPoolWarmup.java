@@ -0,0 +1,51 @@
+package persistence.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Wrapped;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Opens the initial connections of the pool while the application starts. Runners complete before the application
+ * reports ready, so the first requests it receives do not pay for opening, and validating, their connections.
+ */
+@Component
+public class ConnectionPoolWarmup implements ApplicationRunner {
+
+    private final ConnectionPoolWarmupProperties properties;
+
+    private final ObjectProvider<ConnectionFactory> connectionFactories;
+
+    public ConnectionPoolWarmup(final ConnectionPoolWarmupProperties properties,
+                                final ObjectProvider<ConnectionFactory> connectionFactories) {
+        this.properties = properties;
+        this.connectionFactories = connectionFactories;
+    }
+
+    @Override
+    public void run(final ApplicationArguments args) {
+        if (!properties.enabled()) {
+            return;
+        }
+        connectionFactories.forEach(connectionFactory -> {
+            final var pool = pool(connectionFactory);
+            if (pool != null) {
+                pool.warmup().block(properties.timeout());
+            }
+        });
+    }
+
+    /**
+     * @return the pool behind the connection factory, or {@code null} when connections are not pooled
+     */
+    static ConnectionPool pool(final ConnectionFactory connectionFactory) {
+        Object candidate = connectionFactory;
+        while (!(candidate instanceof ConnectionPool) && candidate instanceof Wrapped<?> wrapped) {
+            candidate = wrapped.unwrap();
+        }
+        return candidate instanceof ConnectionPool pool ? pool : null;
+    }
+}
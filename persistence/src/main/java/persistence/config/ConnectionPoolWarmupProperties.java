@@ -0,0 +1,16 @@
+package persistence.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings of the warm-up of the r2dbc connection pool, sized by the {@code spring.r2dbc.pool.*} properties.
+ *
+ * @param enabled open the {@code initial-size} connections of the pool before the application reports ready
+ * @param timeout longest wait for them, after which the startup fails
+ */
+@ConfigurationProperties(prefix = "financial.persistence.pool-warmup")
+public record ConnectionPoolWarmupProperties(@DefaultValue("true") boolean enabled,
+                                             @DefaultValue("30s") Duration timeout) {
+}
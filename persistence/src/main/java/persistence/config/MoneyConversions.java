@@ -0,0 +1,45 @@
+package persistence.config;
+
+import domain.model.Money;
+import io.r2dbc.spi.ConnectionFactory;
+import java.math.BigDecimal;
+import java.util.List;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.convert.WritingConverter;
+import org.springframework.data.r2dbc.convert.R2dbcCustomConversions;
+import org.springframework.data.r2dbc.dialect.DialectResolver;
+
+/**
+ * Maps {@link Money} to the {@code DECIMAL(19, 2)} columns, so the entities keep amounts as cents and
+ * {@link BigDecimal} only exists while a row is read or written.
+ */
+@Configuration
+public class MoneyConversions {
+
+    @Bean
+    public R2dbcCustomConversions r2dbcCustomConversions(final ConnectionFactory connectionFactory) {
+        return R2dbcCustomConversions.of(DialectResolver.getDialect(connectionFactory),
+                List.of(new MoneyToBigDecimal(), new BigDecimalToMoney()));
+    }
+
+    @WritingConverter
+    static class MoneyToBigDecimal implements Converter<Money, BigDecimal> {
+
+        @Override
+        public BigDecimal convert(final Money source) {
+            return source.toBigDecimal();
+        }
+    }
+
+    @ReadingConverter
+    static class BigDecimalToMoney implements Converter<BigDecimal, Money> {
+
+        @Override
+        public Money convert(final BigDecimal source) {
+            return Money.of(source);
+        }
+    }
+}
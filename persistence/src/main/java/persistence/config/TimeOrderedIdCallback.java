@@ -0,0 +1,28 @@
+package persistence.config;
+
+import org.reactivestreams.Publisher;
+import org.springframework.data.r2dbc.mapping.event.BeforeConvertCallback;
+import org.springframework.data.relational.core.sql.SqlIdentifier;
+import org.springframework.stereotype.Component;
+import persistence.entity.AccountEntity;
+import persistence.entity.MovementEntity;
+import persistence.entity.TimeOrderedUuid;
+import reactor.core.publisher.Mono;
+
+/**
+ * Gives the accounts and movements inserted without an id a {@link TimeOrderedUuid}, in place of the random default of
+ * their table. Only runs on inserts: the repositories still tell new entities by their missing id or version.
+ */
+@Component
+public class TimeOrderedIdCallback implements BeforeConvertCallback<Object> {
+
+    @Override
+    public Publisher<Object> onBeforeConvert(final Object entity, final SqlIdentifier table) {
+        if (entity instanceof MovementEntity movement && movement.getId() == null) {
+            movement.setId(TimeOrderedUuid.next());
+        } else if (entity instanceof AccountEntity account && account.getId() == null) {
+            account.setId(TimeOrderedUuid.next());
+        }
+        return Mono.just(entity);
+    }
+}
@@ -1,7 +1,9 @@
 package persistence.entity;
 
 
-import java.math.BigDecimal;
+import domain.exception.InsufficientBalanceException;
+import domain.model.Money;
+import java.time.LocalDateTime;
 import java.util.Objects;
 import java.util.UUID;
 import org.springframework.data.annotation.Id;
@@ -17,18 +19,25 @@ public class AccountEntity {
 
     private String name;
 
-    private BigDecimal balance;
+    private Money balance;
 
     @Column("balanceLimit")
-    private BigDecimal limit;
+    private Money limit;
 
     @Version
     Long version;
 
+    /**
+     * Date of the latest movement applied to the account. A new movement is never dated before it, so the dates of the
+     * movements of an account follow the order they changed its balance in.
+     */
+    @Column("last_movement_date")
+    private LocalDateTime lastMovementDate;
+
     public AccountEntity() {
     }
 
-    public AccountEntity(UUID id, String name, BigDecimal balance, BigDecimal limit) {
+    public AccountEntity(UUID id, String name, Money balance, Money limit) {
         this.id = id;
         this.name = name;
         this.balance = balance;
@@ -51,19 +60,19 @@ public class AccountEntity {
         this.name = name;
     }
 
-    public BigDecimal getBalance() {
+    public Money getBalance() {
         return balance;
     }
 
-    public void setBalance(BigDecimal balance) {
+    public void setBalance(Money balance) {
         this.balance = balance;
     }
 
-    public BigDecimal getLimit() {
+    public Money getLimit() {
         return limit;
     }
 
-    public void setLimit(BigDecimal limit) {
+    public void setLimit(Money limit) {
         this.limit = limit;
     }
 
@@ -75,6 +84,33 @@ public class AccountEntity {
         this.version = version;
     }
 
+    public LocalDateTime getLastMovementDate() {
+        return lastMovementDate;
+    }
+
+    public void setLastMovementDate(final LocalDateTime lastMovementDate) {
+        this.lastMovementDate = lastMovementDate;
+    }
+
+    /**
+     * Dates a new movement of the account: {@code date}, or the date of the latest movement when that one is later.
+     */
+    public LocalDateTime nextMovementDate(final LocalDateTime date) {
+        if (lastMovementDate == null || lastMovementDate.isBefore(date)) {
+            lastMovementDate = date;
+        }
+        return lastMovementDate;
+    }
+
+    /**
+     * @throws InsufficientBalanceException when the balance, extended by the limit, can not pay {@code amount}
+     */
+    public void validateBalance(final Money amount) {
+        if (!balance.covers(limit, amount)) {
+            throw new InsufficientBalanceException();
+        }
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -1,7 +1,7 @@
 package persistence.entity;
 
+import domain.model.Money;
 import domain.model.MovementType;
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Objects;
 import java.util.UUID;
@@ -18,24 +18,43 @@ public class MovementEntity {
     @Column("account_id")
     private UUID accountId;
 
-    private String description;
-
-    private BigDecimal amount;
+    private Money amount;
 
     private MovementType type;
 
     private LocalDateTime date;
 
+    /**
+     * Balance of the account once this movement was applied.
+     */
+    @Column("balance_after")
+    private Money balanceAfter;
+
+    /**
+     * Shared by both legs of a transfer, {@code null} on other movements.
+     */
+    @Column("transfer_id")
+    private UUID transferId;
+
+    /**
+     * Account of the other leg of a transfer, {@code null} on other movements.
+     */
+    @Column("counterparty_account_id")
+    private UUID counterpartyAccountId;
+
     public MovementEntity() {
     }
 
-    public MovementEntity(UUID id, UUID accountId, String description, BigDecimal amount, MovementType type, LocalDateTime date) {
+    public MovementEntity(UUID id, UUID accountId, Money amount, MovementType type, LocalDateTime date, Money balanceAfter,
+                          UUID transferId, UUID counterpartyAccountId) {
         this.id = id;
         this.accountId = accountId;
-        this.description = description;
         this.amount = amount;
         this.type = type;
         this.date = date;
+        this.balanceAfter = balanceAfter;
+        this.transferId = transferId;
+        this.counterpartyAccountId = counterpartyAccountId;
     }
 
     public UUID getId() {
@@ -54,19 +73,11 @@ public class MovementEntity {
         this.accountId = accountId;
     }
 
-    public String getDescription() {
-        return description;
-    }
-
-    public void setDescription(String description) {
-        this.description = description;
-    }
-
-    public BigDecimal getAmount() {
+    public Money getAmount() {
         return amount;
     }
 
-    public void setAmount(BigDecimal amount) {
+    public void setAmount(Money amount) {
         this.amount = amount;
     }
 
@@ -86,16 +97,40 @@ public class MovementEntity {
         this.date = date;
     }
 
+    public Money getBalanceAfter() {
+        return balanceAfter;
+    }
+
+    public void setBalanceAfter(Money balanceAfter) {
+        this.balanceAfter = balanceAfter;
+    }
+
+    public UUID getTransferId() {
+        return transferId;
+    }
+
+    public void setTransferId(UUID transferId) {
+        this.transferId = transferId;
+    }
+
+    public UUID getCounterpartyAccountId() {
+        return counterpartyAccountId;
+    }
+
+    public void setCounterpartyAccountId(UUID counterpartyAccountId) {
+        this.counterpartyAccountId = counterpartyAccountId;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         MovementEntity that = (MovementEntity) o;
-        return Objects.equals(id, that.id) && Objects.equals(accountId, that.accountId) && Objects.equals(description, that.description) && Objects.equals(amount, that.amount) && type == that.type && Objects.equals(date, that.date);
+        return Objects.equals(id, that.id) && Objects.equals(accountId, that.accountId) && Objects.equals(amount, that.amount) && type == that.type && Objects.equals(date, that.date) && Objects.equals(balanceAfter, that.balanceAfter) && Objects.equals(transferId, that.transferId) && Objects.equals(counterpartyAccountId, that.counterpartyAccountId);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(id, accountId, description, amount, type, date);
+        return Objects.hash(id, accountId, amount, type, date, balanceAfter, transferId, counterpartyAccountId);
     }
 }
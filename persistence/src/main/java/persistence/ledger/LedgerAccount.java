@@ -0,0 +1,98 @@
+package persistence.ledger;
+
+import domain.model.Account;
+import domain.model.Money;
+import domain.model.MovementTotals;
+import domain.model.MovementType;
+import domain.model.VersionedAccount;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Mutable account state, only ever touched by the thread of the shard that owns it.
+ */
+final class LedgerAccount {
+
+    final UUID id;
+
+    final String name;
+
+    final Money limit;
+
+    Money balance;
+
+    long version;
+
+    /**
+     * Oldest first, appended in date order.
+     */
+    final LedgerMovementLog movements = new LedgerMovementLog();
+
+    /**
+     * Totals of the movements of each day, rebuilt from the movements on recovery.
+     */
+    final NavigableMap<LocalDate, MovementTotals> dailyTotals = new TreeMap<>();
+
+    /**
+     * Balance after the movements of each date, accounts opening with a zero balance. Rebuilt like the daily totals.
+     */
+    final NavigableMap<LocalDateTime, Money> balances = new TreeMap<>();
+
+    private Money runningBalance = Money.ZERO;
+
+    LedgerAccount(final UUID id, final String name, final Money balance, final Money limit, final long version) {
+        this.id = id;
+        this.name = name;
+        this.balance = balance;
+        this.limit = limit;
+        this.version = version;
+    }
+
+    void apply(final LedgerMovement movement) {
+        balance = movement.type() == MovementType.CREDIT
+                ? balance.plus(movement.amount())
+                : balance.minus(movement.amount());
+        version++;
+        restore(movement);
+    }
+
+    /**
+     * Adds a movement already reflected in the balance, as read from a snapshot.
+     */
+    void restore(final LedgerMovement movement) {
+        movements.add(movement);
+        dailyTotals.merge(movement.date().toLocalDate(), MovementTotals.of(movement.type(), movement.amount()), MovementTotals::plus);
+        runningBalance = movement.type() == MovementType.CREDIT
+                ? runningBalance.plus(movement.amount())
+                : runningBalance.minus(movement.amount());
+        balances.put(movement.date(), runningBalance);
+    }
+
+    /**
+     * Dates a new movement: {@code date}, or the date of the latest movement when that one is later, so movement dates
+     * follow the order the balance changed in.
+     */
+    LocalDateTime nextMovementDate(final LocalDateTime date) {
+        return balances.isEmpty() || balances.lastKey().isBefore(date) ? date : balances.lastKey();
+    }
+
+    Money balanceAsOf(final LocalDateTime date) {
+        final var entry = balances.floorEntry(date);
+        return entry == null ? Money.ZERO : entry.getValue();
+    }
+
+    boolean covers(final Money amount) {
+        return balance.covers(limit, amount);
+    }
+
+    Account toAccount() {
+        return new Account(id.toString(), name, balance, limit);
+    }
+
+    VersionedAccount toVersionedAccount() {
+        return new VersionedAccount(toAccount(), version);
+    }
+}
@@ -0,0 +1,75 @@
+package persistence.ledger;
+
+import domain.model.Account;
+import domain.model.Money;
+import domain.model.VersionedAccount;
+import domain.ports.persistence.AccountPersistencePort;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Service
+@ConditionalOnProperty(prefix = "financial.persistence", name = "engine", havingValue = "ledger")
+public class LedgerAccountAdapter implements AccountPersistencePort {
+
+    private final LedgerEngine ledgerEngine;
+
+    public LedgerAccountAdapter(final LedgerEngine ledgerEngine) {
+        this.ledgerEngine = ledgerEngine;
+    }
+
+    @Override
+    public Mono<Account> createNewAccount(final Account account) {
+        return Mono.fromFuture(() -> ledgerEngine.createAccount(account.name(), account.limit()));
+    }
+
+    @Override
+    public Mono<Account> findAccountById(final String id) {
+        return LedgerMovementAdapter.parseId(id)
+                .flatMap(accountId -> Mono.fromFuture(() -> ledgerEngine.findAccount(accountId)))
+                .flatMap(Mono::justOrEmpty);
+    }
+
+    @Override
+    public Mono<VersionedAccount> findVersionedAccountById(final String id) {
+        return LedgerMovementAdapter.parseId(id)
+                .flatMap(accountId -> Mono.fromFuture(() -> ledgerEngine.findVersionedAccount(accountId)))
+                .flatMap(Mono::justOrEmpty);
+    }
+
+    /**
+     * The account is in memory, so reading it is as cheap as reading its version.
+     */
+    @Override
+    public Mono<Long> findAccountVersion(final String id) {
+        return findVersionedAccountById(id)
+                .map(VersionedAccount::version);
+    }
+
+    @Override
+    public Mono<Money> findBalanceByAccountId(final String accountId) {
+        return findAccountById(accountId)
+                .map(Account::balance);
+    }
+
+    /**
+     * Looks the accounts up concurrently, each on the shard that owns it.
+     */
+    @Override
+    public Flux<Account> findAccountsByIds(final Set<String> ids) {
+        return Flux.fromIterable(ids)
+                .flatMap(this::findAccountById);
+    }
+
+    @Override
+    public Mono<Money> findBalanceAsOf(final String accountId, final LocalDateTime date) {
+        return LedgerMovementAdapter.parseId(accountId)
+                .flatMap(id -> Mono.fromFuture(() -> ledgerEngine.findBalanceAsOf(id, date)))
+                .flatMap(Mono::justOrEmpty);
+    }
+}
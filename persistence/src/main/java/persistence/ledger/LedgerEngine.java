@@ -0,0 +1,321 @@
+package persistence.ledger;
+
+import domain.exception.AccountNotFoundException;
+import domain.model.Account;
+import domain.model.Money;
+import domain.model.MovementTotals;
+import domain.model.MovementType;
+import domain.model.VersionedAccount;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import persistence.adapters.RollupPeriod;
+import persistence.entity.TimeOrderedUuid;
+
+/**
+ * In-memory ledger with accounts partitioned by id across single-writer {@link LedgerShard shards}.
+ * <p>
+ * Durability comes from one journal per shard plus periodic snapshots, grouped in a generation folder. On start the
+ * current generation is recovered (snapshot, then the journal a snapshot being written had rotated out, then the
+ * journal tail), transfers interrupted between their debit and credit shards are completed, and the result is written
+ * as a new generation sized for the configured shard count.
+ */
+@Component
+@ConditionalOnProperty(prefix = "financial.persistence", name = "engine", havingValue = "ledger")
+public class LedgerEngine implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LedgerEngine.class);
+
+    private static final String CURRENT_GENERATION = "CURRENT";
+
+    private static final String GENERATION_PREFIX = "generation-";
+
+    private final LedgerShard[] shards;
+
+    private final Set<UUID> accountIds = ConcurrentHashMap.newKeySet();
+
+    private final Counter pendingCredits;
+
+    public LedgerEngine(final LedgerProperties properties, final MeterRegistry meterRegistry) {
+        final var root = Path.of(properties.directory());
+        final var previousGeneration = currentGeneration(root);
+        final var accounts = recover(previousGeneration);
+        completeInterruptedTransfers(accounts);
+        accountIds.addAll(accounts.keySet());
+
+        final var shardCount = properties.effectiveShards();
+        final var generation = root.resolve(GENERATION_PREFIX + previousGeneration
+                .map(path -> Long.parseLong(path.getFileName().toString().substring(GENERATION_PREFIX.length())) + 1)
+                .orElse(1L));
+        final var partitions = partition(accounts, shardCount);
+        if (Files.exists(generation)) {
+            // left behind by a start that crashed before switching to it
+            deleteGeneration(generation);
+        }
+        createDirectories(generation);
+        for (int i = 0; i < shardCount; i++) {
+            LedgerSnapshot.write(snapshotPath(generation, i), 0, LedgerSnapshot.images(partitions.get(i).values()));
+        }
+        switchGeneration(root, generation);
+        previousGeneration.ifPresent(LedgerEngine::deleteGeneration);
+
+        this.pendingCredits = Counter.builder("financial.ledger.transfer.pending_credits")
+                .description("Transfers debited whose credit failed, completed by the next recovery")
+                .register(meterRegistry);
+        this.shards = new LedgerShard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new LedgerShard(i, generation, partitions.get(i), accountIds, properties, meterRegistry);
+        }
+    }
+
+    public CompletableFuture<Account> createAccount(final String name, final Money limit) {
+        final var id = TimeOrderedUuid.next();
+        final var accountLimit = limit == null ? Money.ZERO : limit;
+        return shardOf(id).submit(shard -> shard.createAccount(id, name, accountLimit));
+    }
+
+    public CompletableFuture<Optional<Account>> findAccount(final UUID id) {
+        if (!accountIds.contains(id)) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+        return shardOf(id).submit(shard -> Optional.ofNullable(shard.findAccount(id)));
+    }
+
+    public CompletableFuture<Optional<VersionedAccount>> findVersionedAccount(final UUID id) {
+        if (!accountIds.contains(id)) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+        return shardOf(id).submit(shard -> Optional.ofNullable(shard.findVersionedAccount(id)));
+    }
+
+    public CompletableFuture<LedgerMovement> deposit(final UUID accountId, final Money amount, final LocalDateTime date) {
+        return shardOf(accountId).submit(shard -> shard.deposit(accountId, amount, date));
+    }
+
+    public CompletableFuture<LedgerMovement> withdraw(final UUID accountId, final Money amount, final LocalDateTime date) {
+        return shardOf(accountId).submit(shard -> shard.withdraw(accountId, amount, date));
+    }
+
+    /**
+     * Debits on the shard of the debit account and then credits on the shard of the credit account. The credit can
+     * only fail when its shard stopped, unable to write its journal: the call then fails with that error, while the
+     * durable debit is kept and its credit completed by the next recovery, like after a crash between both legs. Such
+     * transfers are the {@code financial.ledger.transfer.pending_credits} counter.
+     */
+    public CompletableFuture<LedgerMovement> transfer(final UUID debitAccountId, final UUID creditAccountId,
+                                                      final Money amount, final LocalDateTime date) {
+        if (!accountIds.contains(creditAccountId)) {
+            return CompletableFuture.failedFuture(new AccountNotFoundException(creditAccountId.toString()));
+        }
+        final var transferId = TimeOrderedUuid.next();
+        final var debitShard = shardOf(debitAccountId);
+        final var creditShard = shardOf(creditAccountId);
+        if (debitShard == creditShard) {
+            return debitShard.submit(shard -> {
+                final var debit = shard.debitTransfer(debitAccountId, creditAccountId, transferId, amount, date);
+                shard.creditTransfer(creditAccountId, debitAccountId, transferId, amount, date);
+                return debit;
+            });
+        }
+        return debitShard
+                .submit(shard -> shard.debitTransfer(debitAccountId, creditAccountId, transferId, amount, date))
+                .thenCompose(debit -> creditShard
+                        .submit(shard -> shard.creditTransfer(creditAccountId, debitAccountId, transferId, amount, date))
+                        .handle((credit, error) -> {
+                            if (error == null) {
+                                return CompletableFuture.completedFuture(debit);
+                            }
+                            pendingCredits.increment();
+                            LOGGER.error("Transfer {} was debited but not credited, its credit is completed on the next recovery",
+                                    transferId, error);
+                            return CompletableFuture.<LedgerMovement>failedFuture(error);
+                        })
+                        .thenCompose(Function.identity()));
+    }
+
+    public CompletableFuture<List<LedgerMovement>> findMovements(final UUID accountId,
+                                                                 final Predicate<LedgerMovement> filter,
+                                                                 final int page, final int pageSize) {
+        if (!accountIds.contains(accountId)) {
+            return CompletableFuture.completedFuture(List.of());
+        }
+        return shardOf(accountId).submit(shard -> shard.findMovements(accountId, filter, page, pageSize));
+    }
+
+    public CompletableFuture<Optional<Money>> findBalanceAsOf(final UUID accountId, final LocalDateTime date) {
+        if (!accountIds.contains(accountId)) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+        return shardOf(accountId).submit(shard -> Optional.ofNullable(shard.findBalanceAsOf(accountId, date)));
+    }
+
+    /**
+     * Asks every shard, since the legs live on the shards of their accounts, and puts the debit leg first.
+     */
+    public CompletableFuture<List<LedgerMovement>> findTransfer(final UUID transferId) {
+        final var legs = Arrays.stream(shards)
+                .map(shard -> shard.submit(owner -> owner.findTransfer(transferId)))
+                .toList();
+        return CompletableFuture.allOf(legs.toArray(CompletableFuture[]::new))
+                .thenApply(done -> legs.stream()
+                        .flatMap(shardLegs -> shardLegs.join().stream())
+                        .sorted(Comparator.comparing(LedgerMovement::type).reversed())
+                        .toList());
+    }
+
+    public CompletableFuture<MovementTotals> sumMovements(final UUID accountId, final RollupPeriod period) {
+        if (!accountIds.contains(accountId)) {
+            return CompletableFuture.completedFuture(MovementTotals.ZERO);
+        }
+        return shardOf(accountId).submit(shard -> shard.sumMovements(accountId, period));
+    }
+
+    @Override
+    public void close() {
+        for (final var shard : shards) {
+            shard.close();
+        }
+    }
+
+    static Path snapshotPath(final Path generation, final int shard) {
+        return generation.resolve("shard-" + shard + ".snapshot");
+    }
+
+    static Path journalPath(final Path generation, final int shard) {
+        return generation.resolve("shard-" + shard + ".journal");
+    }
+
+    static Path previousJournalPath(final Path generation, final int shard) {
+        return generation.resolve("shard-" + shard + ".journal.previous");
+    }
+
+    private LedgerShard shardOf(final UUID accountId) {
+        return shards[Math.floorMod(accountId.hashCode(), shards.length)];
+    }
+
+    private static Map<UUID, LedgerAccount> recover(final Optional<Path> generation) {
+        final var accounts = new HashMap<UUID, LedgerAccount>();
+        if (generation.isEmpty()) {
+            return accounts;
+        }
+        try (Stream<Path> files = Files.list(generation.get())) {
+            final var snapshots = files
+                    .filter(file -> file.getFileName().toString().endsWith(".snapshot"))
+                    .toList();
+            for (final var snapshot : snapshots) {
+                final var name = snapshot.getFileName().toString();
+                final var journal = snapshot.resolveSibling(name.replace(".snapshot", ".journal"));
+                final var previousJournal = snapshot.resolveSibling(name.replace(".snapshot", ".journal.previous"));
+                final var shardAccounts = new HashMap<UUID, LedgerAccount>();
+                final var sequence = LedgerSnapshot.read(snapshot, shardAccounts);
+                LedgerJournal.replay(previousJournal, sequence, shardAccounts);
+                LedgerJournal.replay(journal, sequence, shardAccounts);
+                accounts.putAll(shardAccounts);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return accounts;
+    }
+
+    /**
+     * Credits dated like their debit, or like the latest movement of the credit account when that one is later, so the
+     * movements of every account stay in date order.
+     */
+    private static void completeInterruptedTransfers(final Map<UUID, LedgerAccount> accounts) {
+        final var creditedTransfers = new HashSet<UUID>();
+        accounts.values().forEach(account -> account.movements.stream()
+                .filter(movement -> movement.transferId() != null && movement.type() == MovementType.CREDIT)
+                .forEach(movement -> creditedTransfers.add(movement.transferId())));
+
+        final var pendingCredits = accounts.values().stream()
+                .flatMap(account -> account.movements.stream())
+                .filter(movement -> movement.transferId() != null && movement.type() == MovementType.DEBIT)
+                .filter(movement -> !creditedTransfers.contains(movement.transferId()))
+                .toList();
+        for (final var debit : pendingCredits) {
+            final var creditAccount = accounts.get(debit.counterpartyId());
+            if (creditAccount != null) {
+                creditAccount.apply(new LedgerMovement(
+                        TimeOrderedUuid.next(),
+                        creditAccount.id,
+                        debit.amount(),
+                        MovementType.CREDIT,
+                        creditAccount.nextMovementDate(debit.date()),
+                        debit.transferId(),
+                        debit.accountId()
+                ));
+            }
+        }
+    }
+
+    private static List<Map<UUID, LedgerAccount>> partition(final Map<UUID, LedgerAccount> accounts, final int shardCount) {
+        final var partitions = Stream.<Map<UUID, LedgerAccount>>generate(HashMap::new).limit(shardCount).toList();
+        accounts.forEach((id, account) -> partitions.get(Math.floorMod(id.hashCode(), shardCount)).put(id, account));
+        return partitions;
+    }
+
+    private static Optional<Path> currentGeneration(final Path root) {
+        final var current = root.resolve(CURRENT_GENERATION);
+        if (!Files.exists(current)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(root.resolve(Files.readString(current).trim()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void switchGeneration(final Path root, final Path generation) {
+        final var temporary = root.resolve(CURRENT_GENERATION + ".tmp");
+        try {
+            Files.writeString(temporary, generation.getFileName().toString());
+            Files.move(temporary, root.resolve(CURRENT_GENERATION),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void deleteGeneration(final Path generation) {
+        try (Stream<Path> files = Files.walk(generation)) {
+            for (final var file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void createDirectories(final Path directory) {
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
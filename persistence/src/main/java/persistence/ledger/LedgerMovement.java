@@ -0,0 +1,21 @@
+package persistence.ledger;
+
+import domain.model.Money;
+import domain.model.Movement;
+import domain.model.MovementType;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Movement applied by the ledger. Both legs of a transfer share the same {@code transferId} and point to each other
+ * through {@code counterpartyId}, which lets the recovery complete a transfer interrupted between its two shards.
+ */
+public record LedgerMovement(UUID id, UUID accountId, Money amount, MovementType type, LocalDateTime date,
+                             UUID transferId, UUID counterpartyId) {
+
+    Movement toMovement() {
+        return new Movement(id.toString(), accountId.toString(), amount, type, date,
+                transferId == null ? null : transferId.toString(),
+                counterpartyId == null ? null : counterpartyId.toString());
+    }
+}
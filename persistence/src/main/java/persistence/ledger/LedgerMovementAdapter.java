@@ -0,0 +1,208 @@
+package persistence.ledger;
+
+import domain.exception.AccountNotFoundException;
+import domain.exception.InsufficientBalanceException;
+import domain.model.Money;
+import domain.model.Movement;
+import domain.model.MovementCommand;
+import domain.model.MovementCursor;
+import domain.model.MovementPage;
+import domain.model.MovementResult;
+import domain.model.MovementTotals;
+import domain.model.MovementType;
+import domain.ports.persistence.MovementPersistencePort;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Predicate;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import persistence.adapters.MovementStream;
+import persistence.adapters.RollupPeriod;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Service
+@ConditionalOnProperty(prefix = "financial.persistence", name = "engine", havingValue = "ledger")
+public class LedgerMovementAdapter implements MovementPersistencePort {
+
+    private final LedgerEngine ledgerEngine;
+
+    private final MovementStream movementStream;
+
+    public LedgerMovementAdapter(final LedgerEngine ledgerEngine, final MovementStream movementStream) {
+        this.ledgerEngine = ledgerEngine;
+        this.movementStream = movementStream;
+    }
+
+    @Override
+    public Mono<Movement> deposit(final String accountId, final Money amount, final LocalDateTime date) {
+        return existingAccountId(accountId)
+                .flatMap(id -> Mono.fromFuture(() -> ledgerEngine.deposit(id, amount, date)))
+                .map(LedgerMovement::toMovement)
+                .flatMap(this::published);
+    }
+
+    @Override
+    public Mono<Movement> withdraw(final String accountId, final Money amount, final LocalDateTime date) {
+        return existingAccountId(accountId)
+                .flatMap(id -> Mono.fromFuture(() -> ledgerEngine.withdraw(id, amount, date)))
+                .map(LedgerMovement::toMovement)
+                .flatMap(this::published);
+    }
+
+    @Override
+    public Mono<Movement> transfer(final String debitAccount, final String creditAccount, final Money amount, final LocalDateTime date) {
+        return Mono.zip(existingAccountId(debitAccount), existingAccountId(creditAccount))
+                .flatMap(ids -> Mono.fromFuture(() -> ledgerEngine.transfer(ids.getT1(), ids.getT2(), amount, date)))
+                .map(LedgerMovement::toMovement)
+                .flatMap(this::published);
+    }
+
+    /**
+     * Submits the commands without waiting for each other, so they are pipelined into the shards while each shard
+     * still applies the commands of an account in the order of the list.
+     */
+    @Override
+    public Flux<MovementResult> batch(final List<MovementCommand> commands, final LocalDateTime date) {
+        return Flux.fromIterable(commands)
+                .flatMapSequential(command -> apply(command, date)
+                        .map(MovementResult::success)
+                        .onErrorResume(AccountNotFoundException.class, e -> Mono.just(MovementResult.failure(e)))
+                        .onErrorResume(InsufficientBalanceException.class, e -> Mono.just(MovementResult.failure(e))));
+    }
+
+    @Override
+    public Flux<Movement> findMovementsByPeriod(final String accountId, final LocalDateTime start, final LocalDateTime end, final int page, final int pageSize) {
+        return parseId(accountId)
+                .flatMap(id -> Mono.fromFuture(() -> ledgerEngine.findMovements(
+                        id,
+                        movement -> !movement.date().isBefore(start) && !movement.date().isAfter(end),
+                        page,
+                        pageSize
+                )))
+                .flatMapIterable(movements -> movements)
+                .map(LedgerMovement::toMovement);
+    }
+
+    @Override
+    public Flux<Movement> findMovementsByType(final String accountId, final MovementType type, final int page, final int pageSize) {
+        return parseId(accountId)
+                .flatMap(id -> Mono.fromFuture(() -> ledgerEngine.findMovements(
+                        id,
+                        movement -> movement.type() == type,
+                        page,
+                        pageSize
+                )))
+                .flatMapIterable(movements -> movements)
+                .map(LedgerMovement::toMovement);
+    }
+
+    @Override
+    public Mono<MovementPage> findMovementPageByPeriod(final String accountId, final LocalDateTime start, final LocalDateTime end, final MovementCursor after, final int pageSize) {
+        return findMovementPage(accountId, movement -> !movement.date().isBefore(start) && !movement.date().isAfter(end), after, pageSize);
+    }
+
+    @Override
+    public Mono<MovementPage> findMovementPageByType(final String accountId, final MovementType type, final MovementCursor after, final int pageSize) {
+        return findMovementPage(accountId, movement -> movement.type() == type, after, pageSize);
+    }
+
+    @Override
+    public Flux<Movement> exportMovements(final String accountId, final LocalDateTime start, final LocalDateTime end, final MovementType type) {
+        final Predicate<LedgerMovement> filter = movement -> (start == null || !movement.date().isBefore(start))
+                && (end == null || !movement.date().isAfter(end))
+                && (type == null || movement.type() == type);
+        return parseId(accountId)
+                .flatMap(id -> Mono.fromFuture(() -> ledgerEngine.findMovements(id, filter, 0, Integer.MAX_VALUE)))
+                .flatMapIterable(movements -> movements)
+                .map(LedgerMovement::toMovement);
+    }
+
+    /**
+     * Whole days are read from the daily totals of the account, only the partial days scan its movements.
+     */
+    @Override
+    public Mono<MovementTotals> sumMovementsByPeriod(final String accountId, final LocalDateTime start, final LocalDateTime end) {
+        return parseId(accountId)
+                .flatMap(id -> Mono.fromFuture(() -> ledgerEngine.sumMovements(id, RollupPeriod.of(start, end))))
+                .defaultIfEmpty(MovementTotals.ZERO);
+    }
+
+    @Override
+    public Flux<Movement> findTransfer(final String transferId) {
+        return parseId(transferId)
+                .flatMap(id -> Mono.fromFuture(() -> ledgerEngine.findTransfer(id)))
+                .flatMapIterable(movements -> movements)
+                .map(LedgerMovement::toMovement);
+    }
+
+    @Override
+    public Flux<Movement> streamMovements(final String accountId, final String afterMovementId) {
+        return existingAccountId(accountId)
+                .filterWhen(id -> Mono.fromFuture(() -> ledgerEngine.findAccount(id)).map(Optional::isPresent))
+                .switchIfEmpty(Mono.error(() -> new AccountNotFoundException(accountId)))
+                .flatMapMany(id -> movementStream.stream(id.toString(), catchUp(id, afterMovementId)));
+    }
+
+    /**
+     * Movements of the account newer than {@code afterMovementId}, oldest first, none when it is not a movement of the
+     * account.
+     */
+    private Flux<Movement> catchUp(final UUID accountId, final String afterMovementId) {
+        if (afterMovementId == null) {
+            return Flux.empty();
+        }
+        return parseId(afterMovementId)
+                .flatMap(afterId -> Mono.fromFuture(() -> ledgerEngine.findMovements(accountId, movement -> movement.id().equals(afterId), 0, 1)))
+                .flatMapIterable(last -> last)
+                .next()
+                .flatMap(last -> Mono.fromFuture(() -> ledgerEngine.findMovements(accountId, movement -> movement.date().isAfter(last.date())
+                        || (movement.date().isEqual(last.date()) && movement.id().compareTo(last.id()) > 0), 0, Integer.MAX_VALUE)))
+                .flatMapIterable(newestFirst -> {
+                    final var oldestFirst = new ArrayList<>(newestFirst);
+                    Collections.reverse(oldestFirst);
+                    return oldestFirst;
+                })
+                .map(LedgerMovement::toMovement);
+    }
+
+    private Mono<Movement> published(final Movement movement) {
+        return movementStream.published(movement, this::findTransfer);
+    }
+
+    private Mono<MovementPage> findMovementPage(final String accountId, final Predicate<LedgerMovement> filter, final MovementCursor after, final int pageSize) {
+        final Mono<Predicate<LedgerMovement>> pageFilter = after == null
+                ? Mono.just(filter)
+                : parseId(after.id()).map(afterId -> filter.and(movement -> movement.date().isBefore(after.date())
+                        || (movement.date().isEqual(after.date()) && movement.id().compareTo(afterId) < 0)));
+        return Mono.zip(parseId(accountId), pageFilter)
+                .flatMap(query -> Mono.fromFuture(() -> ledgerEngine.findMovements(query.getT1(), query.getT2(), 0, pageSize + 1)))
+                .map(movements -> MovementPage.of(movements.stream().map(LedgerMovement::toMovement).toList(), pageSize))
+                .defaultIfEmpty(new MovementPage(List.of(), null));
+    }
+
+    private Mono<Movement> apply(final MovementCommand command, final LocalDateTime date) {
+        return switch (command.operation()) {
+            case DEPOSIT -> deposit(command.accountId(), command.amount(), date);
+            case WITHDRAW -> withdraw(command.accountId(), command.amount(), date);
+            case TRANSFER -> transfer(command.accountId(), command.creditAccountId(), command.amount(), date);
+        };
+    }
+
+    static Mono<UUID> parseId(final String id) {
+        try {
+            return Mono.just(UUID.fromString(id));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return Mono.empty();
+        }
+    }
+
+    private static Mono<UUID> existingAccountId(final String id) {
+        return parseId(id)
+                .switchIfEmpty(Mono.error(() -> new AccountNotFoundException(id)));
+    }
+}
@@ -0,0 +1,95 @@
+package persistence.ledger;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * Movements of an account, oldest first, only ever appended. They are held in chunks twice as large as the previous
+ * one that are never moved once allocated, so a {@link #prefix()} taken by the thread owning the account costs nothing
+ * and can be read by another thread while movements keep being added.
+ */
+final class LedgerMovementLog extends AbstractList<LedgerMovement> implements RandomAccess {
+
+    private static final int FIRST_CHUNK_BITS = 4;
+
+    private static final int FIRST_CHUNK_SIZE = 1 << FIRST_CHUNK_BITS;
+
+    private LedgerMovement[][] chunks = new LedgerMovement[1][];
+
+    private int size;
+
+    @Override
+    public boolean add(final LedgerMovement movement) {
+        final var chunk = chunk(size);
+        if (chunk == chunks.length) {
+            chunks = Arrays.copyOf(chunks, chunks.length * 2);
+        }
+        if (chunks[chunk] == null) {
+            chunks[chunk] = new LedgerMovement[FIRST_CHUNK_SIZE << chunk];
+        }
+        chunks[chunk][offset(size, chunk)] = movement;
+        size++;
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public LedgerMovement get(final int index) {
+        Objects.checkIndex(index, size);
+        return get(chunks, index);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * The movements added so far, unaffected by the ones added later.
+     */
+    List<LedgerMovement> prefix() {
+        return new Prefix(chunks, size);
+    }
+
+    private static LedgerMovement get(final LedgerMovement[][] chunks, final int index) {
+        final var chunk = chunk(index);
+        return chunks[chunk][offset(index, chunk)];
+    }
+
+    /**
+     * Chunk {@code k} holds {@code 16 << k} movements, from index {@code 16 * (2^k - 1)}.
+     */
+    private static int chunk(final int index) {
+        return 31 - Integer.numberOfLeadingZeros((index >>> FIRST_CHUNK_BITS) + 1);
+    }
+
+    private static int offset(final int index, final int chunk) {
+        return index + FIRST_CHUNK_SIZE - (FIRST_CHUNK_SIZE << chunk);
+    }
+
+    private static final class Prefix extends AbstractList<LedgerMovement> implements RandomAccess {
+
+        private final LedgerMovement[][] chunks;
+
+        private final int size;
+
+        private Prefix(final LedgerMovement[][] chunks, final int size) {
+            this.chunks = chunks;
+            this.size = size;
+        }
+
+        @Override
+        public LedgerMovement get(final int index) {
+            Objects.checkIndex(index, size);
+            return LedgerMovementLog.get(chunks, index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package persistence.ledger;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings of the in-memory ledger engine, used when {@code financial.persistence.engine=ledger}.
+ *
+ * @param shards        number of single-writer shards, {@code 0} means one per available processor
+ * @param directory     folder holding the journal and snapshot files
+ * @param snapshotEvery journal records appended by a shard before it writes a new snapshot
+ * @param maxBatchSize  commands a shard applies before flushing its journal
+ * @param fsync         force the journal to the disk before completing the commands of a batch
+ */
+@ConfigurationProperties(prefix = "financial.persistence.ledger")
+public record LedgerProperties(@DefaultValue("0") int shards,
+                               @DefaultValue("./ledger") String directory,
+                               @DefaultValue("100000") int snapshotEvery,
+                               @DefaultValue("1024") int maxBatchSize,
+                               @DefaultValue("true") boolean fsync) {
+
+    public int effectiveShards() {
+        return shards > 0 ? shards : Runtime.getRuntime().availableProcessors();
+    }
+}
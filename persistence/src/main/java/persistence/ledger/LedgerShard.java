@@ -0,0 +1,408 @@
+package persistence.ledger;
+
+import domain.exception.AccountNotFoundException;
+import domain.exception.InsufficientBalanceException;
+import domain.model.Account;
+import domain.model.Money;
+import domain.model.MovementTotals;
+import domain.model.MovementType;
+import domain.model.VersionedAccount;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import persistence.adapters.RollupPeriod;
+import persistence.entity.TimeOrderedUuid;
+
+/**
+ * A partition of the accounts owned by a single thread. Commands are queued, applied in arrival order and their
+ * journal records flushed once per drained batch before any of the callers is completed, so the disk write is shared
+ * by every command of the batch.
+ * <p>
+ * Snapshots are written by a thread of their own from an image of the accounts taken between two batches, while the
+ * shard keeps applying commands into a new journal. The previous journal is only dropped once the snapshot holding its
+ * records is on disk; until then a recovery replays both.
+ */
+final class LedgerShard implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LedgerShard.class);
+
+    private final int index;
+
+    private final Map<UUID, LedgerAccount> accounts;
+
+    private final Set<UUID> knownAccountIds;
+
+    /**
+     * Legs of the transfers of the accounts of this shard, by transfer id.
+     */
+    private final Map<UUID, List<LedgerMovement>> transfers = new HashMap<>();
+
+    private LedgerJournal journal;
+
+    private final Path journalPath;
+
+    private final Path previousJournalPath;
+
+    private final Path snapshotPath;
+
+    private final ExecutorService snapshotWriter;
+
+    /**
+     * Whether a snapshot is being written, cleared by the snapshot thread once it is done.
+     */
+    private volatile boolean snapshotting;
+
+    private final LedgerProperties properties;
+
+    private final BlockingQueue<Task<?>> queue = new LinkedBlockingQueue<>();
+
+    /**
+     * Held to check {@link #running} and queue a task as one step, so no task is queued once the shard stopped and its
+     * queue was drained.
+     */
+    private final Object submitLock = new Object();
+
+    private final Thread thread;
+
+    private final Counter snapshotFailures;
+
+    private volatile boolean running = true;
+
+    private long snapshotSequence;
+
+    LedgerShard(final int index,
+                final Path directory,
+                final Map<UUID, LedgerAccount> accounts,
+                final Set<UUID> knownAccountIds,
+                final LedgerProperties properties,
+                final MeterRegistry meterRegistry) {
+        this.index = index;
+        this.accounts = accounts;
+        this.knownAccountIds = knownAccountIds;
+        accounts.values().forEach(account -> account.movements.forEach(this::indexTransfer));
+        this.properties = properties;
+        this.snapshotPath = LedgerEngine.snapshotPath(directory, index);
+        this.journalPath = LedgerEngine.journalPath(directory, index);
+        this.previousJournalPath = LedgerEngine.previousJournalPath(directory, index);
+        this.journal = new LedgerJournal(journalPath, 0);
+        this.snapshotWriter = Executors.newSingleThreadExecutor(task -> {
+            final var writer = new Thread(task, "ledger-snapshot-" + index);
+            writer.setDaemon(true);
+            return writer;
+        });
+        this.snapshotFailures = Counter.builder("financial.ledger.snapshot.failures")
+                .description("Shard snapshots that could not be written, their journal records kept for recovery")
+                .register(meterRegistry);
+        this.thread = new Thread(this::run, "ledger-shard-" + index);
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    <T> CompletableFuture<T> submit(final Function<LedgerShard, T> operation) {
+        final var task = new Task<>(operation);
+        synchronized (submitLock) {
+            if (!running) {
+                return CompletableFuture.failedFuture(new IllegalStateException("Ledger shard is stopped"));
+            }
+            queue.add(task);
+        }
+        return task.future;
+    }
+
+    Account createAccount(final UUID id, final String name, final Money limit) {
+        final var account = new LedgerAccount(id, name, Money.ZERO, limit, 0);
+        accounts.put(id, account);
+        knownAccountIds.add(id);
+        journal.appendAccount(account);
+        return account.toAccount();
+    }
+
+    Account findAccount(final UUID id) {
+        final var account = accounts.get(id);
+        return account == null ? null : account.toAccount();
+    }
+
+    VersionedAccount findVersionedAccount(final UUID id) {
+        final var account = accounts.get(id);
+        return account == null ? null : account.toVersionedAccount();
+    }
+
+    LedgerMovement deposit(final UUID accountId, final Money amount, final LocalDateTime date) {
+        final var account = account(accountId);
+        return apply(account, new LedgerMovement(
+                TimeOrderedUuid.next(), accountId, amount, MovementType.CREDIT, account.nextMovementDate(date), null, null));
+    }
+
+    LedgerMovement withdraw(final UUID accountId, final Money amount, final LocalDateTime date) {
+        final var account = account(accountId);
+        validateBalance(account, amount);
+        return apply(account, new LedgerMovement(
+                TimeOrderedUuid.next(), accountId, amount, MovementType.DEBIT, account.nextMovementDate(date), null, null));
+    }
+
+    LedgerMovement debitTransfer(final UUID debitAccountId, final UUID creditAccountId, final UUID transferId,
+                                 final Money amount, final LocalDateTime date) {
+        final var account = account(debitAccountId);
+        validateBalance(account, amount);
+        return apply(account, new LedgerMovement(
+                TimeOrderedUuid.next(), debitAccountId, amount, MovementType.DEBIT, account.nextMovementDate(date), transferId, creditAccountId));
+    }
+
+    LedgerMovement creditTransfer(final UUID creditAccountId, final UUID debitAccountId, final UUID transferId,
+                                  final Money amount, final LocalDateTime date) {
+        final var account = account(creditAccountId);
+        return apply(account, new LedgerMovement(
+                TimeOrderedUuid.next(), creditAccountId, amount, MovementType.CREDIT, account.nextMovementDate(date), transferId, debitAccountId));
+    }
+
+    /**
+     * Walks the movements back from the newest, since they are appended in date order, and stops once the page is full.
+     */
+    List<LedgerMovement> findMovements(final UUID accountId, final Predicate<LedgerMovement> filter,
+                                       final int page, final int pageSize) {
+        final var account = accounts.get(accountId);
+        if (account == null) {
+            return List.of();
+        }
+        final var movements = account.movements;
+        final var found = new ArrayList<LedgerMovement>(Math.min(pageSize, movements.size()));
+        var toSkip = (long) page * pageSize;
+        for (int i = movements.size() - 1; i >= 0 && found.size() < pageSize; i--) {
+            final var movement = movements.get(i);
+            if (!filter.test(movement)) {
+                continue;
+            }
+            if (toSkip > 0) {
+                toSkip--;
+            } else {
+                found.add(movement);
+            }
+        }
+        return found;
+    }
+
+    List<LedgerMovement> findTransfer(final UUID transferId) {
+        return transfers.getOrDefault(transferId, List.of());
+    }
+
+    Money findBalanceAsOf(final UUID accountId, final LocalDateTime date) {
+        final var account = accounts.get(accountId);
+        return account == null ? null : account.balanceAsOf(date);
+    }
+
+    MovementTotals sumMovements(final UUID accountId, final RollupPeriod period) {
+        final var account = accounts.get(accountId);
+        if (account == null) {
+            return MovementTotals.ZERO;
+        }
+        var totals = MovementTotals.ZERO;
+        if (period.hasWholeDays()) {
+            for (final var day : account.dailyTotals.subMap(period.firstDay(), true, period.lastDay(), true).values()) {
+                totals = totals.plus(day);
+            }
+        }
+        if (period.hasPartialDays()) {
+            for (final var movement : account.movements) {
+                if (period.inPartialDay(movement.date())) {
+                    totals = totals.plus(MovementTotals.of(movement.type(), movement.amount()));
+                }
+            }
+        }
+        return totals;
+    }
+
+    @Override
+    public void close() {
+        synchronized (submitLock) {
+            running = false;
+        }
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+            snapshotWriter.shutdown();
+            snapshotWriter.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // left by a thread that stopped before reaching them
+        failQueued(new IllegalStateException("Ledger shard is stopped"));
+        journal.close();
+    }
+
+    private LedgerAccount account(final UUID accountId) {
+        final var account = accounts.get(accountId);
+        if (account == null) {
+            throw new AccountNotFoundException(accountId.toString());
+        }
+        return account;
+    }
+
+    private LedgerMovement apply(final LedgerAccount account, final LedgerMovement movement) {
+        account.apply(movement);
+        journal.appendMovement(movement);
+        indexTransfer(movement);
+        return movement;
+    }
+
+    private void indexTransfer(final LedgerMovement movement) {
+        if (movement.transferId() != null) {
+            transfers.computeIfAbsent(movement.transferId(), id -> new ArrayList<>(2)).add(movement);
+        }
+    }
+
+    private void validateBalance(final LedgerAccount account, final Money amount) {
+        if (!account.covers(amount)) {
+            throw new InsufficientBalanceException();
+        }
+    }
+
+    private void run() {
+        final var batch = new ArrayList<Task<?>>(properties.maxBatchSize());
+        while (running || !queue.isEmpty()) {
+            final Task<?> first;
+            try {
+                first = queue.poll(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            if (first == null) {
+                continue;
+            }
+            batch.add(first);
+            queue.drainTo(batch, properties.maxBatchSize() - 1);
+            for (final var task : batch) {
+                task.run(this);
+            }
+            try {
+                journal.flush(properties.fsync());
+                batch.forEach(Task::complete);
+            } catch (RuntimeException e) {
+                // the memory state is ahead of the disk now, stop taking commands until the next recovery
+                LOGGER.error("Ledger shard {} could not write its journal, stopped until the next recovery", index, e);
+                batch.forEach(task -> task.fail(e));
+                stop(e);
+                return;
+            }
+            batch.clear();
+            if (!snapshotting && journal.sequence() - snapshotSequence >= properties.snapshotEvery()) {
+                try {
+                    snapshot();
+                } catch (RuntimeException e) {
+                    // the journal may be closed, the records applied since can no longer be made durable
+                    LOGGER.error("Ledger shard {} could not rotate its journal, stopped until the next recovery", index, e);
+                    stop(e);
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Takes no more tasks and fails the ones queued.
+     */
+    private void stop(final RuntimeException error) {
+        synchronized (submitLock) {
+            running = false;
+        }
+        failQueued(error);
+    }
+
+    private void failQueued(final RuntimeException error) {
+        Task<?> task;
+        while ((task = queue.poll()) != null) {
+            task.fail(error);
+        }
+    }
+
+    /**
+     * Takes the image of the accounts and hands it to the snapshot thread. The journal is rotated first, unless the
+     * previous one is still there because its snapshot failed: the next snapshot then holds its records as well.
+     */
+    private void snapshot() {
+        final var sequence = journal.sequence();
+        final var images = LedgerSnapshot.images(accounts.values());
+        if (!Files.exists(previousJournalPath)) {
+            journal.close();
+            move(journalPath, previousJournalPath);
+            journal = new LedgerJournal(journalPath, sequence);
+        }
+        snapshotSequence = sequence;
+        snapshotting = true;
+        snapshotWriter.execute(() -> {
+            try {
+                LedgerSnapshot.write(snapshotPath, sequence, images);
+                Files.deleteIfExists(previousJournalPath);
+            } catch (IOException | UncheckedIOException e) {
+                // the previous journal still holds the records, replayed on recovery until a later snapshot is written
+                snapshotFailures.increment();
+                LOGGER.warn("Ledger shard {} could not write its snapshot at sequence {}, its journal is kept", index, sequence, e);
+            } finally {
+                snapshotting = false;
+            }
+        });
+    }
+
+    private static void move(final Path source, final Path target) {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static final class Task<T> {
+
+        private final Function<LedgerShard, T> operation;
+
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+
+        private T result;
+
+        private RuntimeException error;
+
+        private Task(final Function<LedgerShard, T> operation) {
+            this.operation = operation;
+        }
+
+        private void run(final LedgerShard shard) {
+            try {
+                result = operation.apply(shard);
+            } catch (RuntimeException e) {
+                error = e;
+            }
+        }
+
+        private void complete() {
+            if (error != null) {
+                future.completeExceptionally(error);
+            } else {
+                future.complete(result);
+            }
+        }
+
+        private void fail(final Throwable throwable) {
+            future.completeExceptionally(throwable);
+        }
+    }
+}
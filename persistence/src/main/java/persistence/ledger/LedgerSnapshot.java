@@ -0,0 +1,115 @@
+package persistence.ledger;
+
+import domain.model.Money;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Full image of the accounts of a shard, tagged with the last journal sequence it contains. It is written from
+ * {@link #images copies} of the accounts, so the shard can keep changing them meanwhile.
+ */
+final class LedgerSnapshot {
+
+    private static final int MAGIC = 0x4C444752;
+
+    private LedgerSnapshot() {
+    }
+
+    /**
+     * Writes the snapshot to a temporary file and atomically moves it in place, so a crash never leaves a partial
+     * snapshot behind.
+     */
+    static void write(final Path path, final long sequence, final Collection<AccountImage> accounts) {
+        final var temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (var file = new FileOutputStream(temporary.toFile());
+             var out = new DataOutputStream(new BufferedOutputStream(file, 64 * 1024))) {
+            out.writeInt(MAGIC);
+            out.writeLong(sequence);
+            out.writeInt(accounts.size());
+            for (final var account : accounts) {
+                LedgerJournal.writeUUID(out, account.id());
+                out.writeUTF(account.name());
+                out.writeUTF(account.balance().toBigDecimal().toPlainString());
+                out.writeUTF(account.limit().toBigDecimal().toPlainString());
+                out.writeLong(account.version());
+                out.writeInt(account.movements().size());
+                for (final var movement : account.movements()) {
+                    LedgerJournal.writeMovement(out, movement);
+                }
+            }
+            out.flush();
+            file.getChannel().force(true);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        try {
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Captures the state of the accounts to write, by the thread owning them. Movements are only ever appended, so
+     * each account keeps a {@link LedgerMovementLog#prefix() prefix} of them and the capture does not grow with the
+     * history.
+     */
+    static List<AccountImage> images(final Collection<LedgerAccount> accounts) {
+        final var images = new ArrayList<AccountImage>(accounts.size());
+        for (final var account : accounts) {
+            images.add(new AccountImage(account.id, account.name, account.balance, account.limit, account.version,
+                    account.movements.prefix()));
+        }
+        return images;
+    }
+
+    /**
+     * @return the journal sequence the snapshot was taken at, or {@code 0} when there is no snapshot yet
+     */
+    static long read(final Path path, final Map<UUID, LedgerAccount> accounts) {
+        if (!Files.exists(path)) {
+            return 0;
+        }
+        try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 64 * 1024))) {
+            if (in.readInt() != MAGIC) {
+                throw new IllegalStateException("Not a ledger snapshot: " + path);
+            }
+            final var sequence = in.readLong();
+            final var accountCount = in.readInt();
+            for (int i = 0; i < accountCount; i++) {
+                final var account = new LedgerAccount(
+                        LedgerJournal.readUUID(in),
+                        in.readUTF(),
+                        Money.of(new BigDecimal(in.readUTF())),
+                        Money.of(new BigDecimal(in.readUTF())),
+                        in.readLong()
+                );
+                final var movementCount = in.readInt();
+                for (int j = 0; j < movementCount; j++) {
+                    account.restore(LedgerJournal.readMovement(in));
+                }
+                accounts.put(account.id, account);
+            }
+            return sequence;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    record AccountImage(UUID id, String name, Money balance, Money limit, long version, List<LedgerMovement> movements) {
+    }
+}
@@ -2,6 +2,7 @@ package persistence.mappers;
 
 import domain.model.Movement;
 import persistence.entity.MovementEntity;
+import java.util.UUID;
 import org.mapstruct.Mapper;
 
 @Mapper(componentModel = "spring")
@@ -11,10 +12,15 @@ public interface MovementMapper {
         return new Movement(
                 movementEntity.getId().toString(),
                 movementEntity.getAccountId().toString(),
-                movementEntity.getDescription(),
                 movementEntity.getAmount(),
                 movementEntity.getType(),
-                movementEntity.getDate()
+                movementEntity.getDate(),
+                nullableId(movementEntity.getTransferId()),
+                nullableId(movementEntity.getCounterpartyAccountId())
         );
     }
+
+    private static String nullableId(final UUID id) {
+        return id == null ? null : id.toString();
+    }
 }
@@ -1,11 +1,49 @@
 package persistence.repository;
 
 import persistence.entity.AccountEntity;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.r2dbc.repository.R2dbcRepository;
 import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 @Repository
 public interface AccountRepository extends R2dbcRepository<AccountEntity, String> {
 
+    /**
+     * Credits the account for a movement dated {@code date}, or at its latest movement date when later.
+     *
+     * @return the account once credited, empty when it does not exist
+     */
+    @Query("""
+            SELECT * FROM FINAL TABLE (
+                UPDATE Account SET balance = balance + :amount, version = version + 1,
+                                   last_movement_date = GREATEST(COALESCE(last_movement_date, :date), :date)
+                WHERE id = :id)
+            """)
+    Mono<AccountEntity> credit(final UUID id, final BigDecimal amount, final LocalDateTime date);
+
+    /**
+     * Debits only when the balance plus the limit covers the amount, updating no row otherwise.
+     *
+     * @return the account once debited, empty when no row was updated
+     * @see #credit
+     */
+    @Query("""
+            SELECT * FROM FINAL TABLE (
+                UPDATE Account SET balance = balance - :amount, version = version + 1,
+                                   last_movement_date = GREATEST(COALESCE(last_movement_date, :date), :date)
+                WHERE id = :id AND balance + balanceLimit >= :amount)
+            """)
+    Mono<AccountEntity> debit(final UUID id, final BigDecimal amount, final LocalDateTime date);
+
+    @Query("SELECT version FROM Account WHERE id = :id")
+    Mono<Long> findVersionById(final UUID id);
+
+    @Query("SELECT id FROM Account")
+    Flux<UUID> findAllIds();
 
 }
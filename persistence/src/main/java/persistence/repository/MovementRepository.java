@@ -3,10 +3,14 @@ package persistence.repository;
 import domain.model.MovementType;
 import persistence.entity.MovementEntity;
 import java.time.LocalDateTime;
+import java.util.UUID;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.r2dbc.repository.R2dbcRepository;
 import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 @Repository
 public interface MovementRepository extends R2dbcRepository<MovementEntity, String> {
@@ -14,4 +18,68 @@ public interface MovementRepository extends R2dbcRepository<MovementEntity, Stri
     Flux<MovementEntity> findAllByAccountIdAndDateIsBetween(final String accountId, final LocalDateTime start, final LocalDateTime end, final Pageable pageable);
 
     Flux<MovementEntity> findAllByAccountIdAndType(final String accountId, final MovementType type, final Pageable pageable);
+
+    Flux<MovementEntity> findAllByTransferId(final UUID transferId, final Sort sort);
+
+    /**
+     * Movements of the period older than ({@code afterDate}, {@code afterId}), newest first. The redundant
+     * {@code date <= :afterDate} bounds the index range, so the page is read by seeking instead of skipping rows.
+     */
+    @Query("""
+            SELECT * FROM Movement
+            WHERE account_id = :accountId AND date BETWEEN :start AND :end
+              AND date <= :afterDate AND (date < :afterDate OR id < :afterId)
+            ORDER BY account_id ASC, date DESC, id DESC
+            LIMIT :limit
+            """)
+    Flux<MovementEntity> findPeriodPageAfter(final UUID accountId, final LocalDateTime start, final LocalDateTime end,
+                                             final LocalDateTime afterDate, final UUID afterId, final int limit);
+
+    /**
+     * @see #findPeriodPageAfter
+     */
+    @Query("""
+            SELECT * FROM Movement
+            WHERE account_id = :accountId AND type = :type
+              AND date <= :afterDate AND (date < :afterDate OR id < :afterId)
+            ORDER BY account_id ASC, type ASC, date DESC, id DESC
+            LIMIT :limit
+            """)
+    Flux<MovementEntity> findTypePageAfter(final UUID accountId, final String type,
+                                           final LocalDateTime afterDate, final UUID afterId, final int limit);
+
+    /**
+     * Movements of the account newer than ({@code afterDate}, {@code afterId}), oldest first: the catch-up of a resumed
+     * movement stream. Seeks the account history index from {@code afterDate}, only the movements read are sorted.
+     */
+    @Query("""
+            SELECT * FROM Movement
+            WHERE account_id = :accountId
+              AND date >= :afterDate AND (date > :afterDate OR id > :afterId)
+            ORDER BY date ASC, id ASC
+            """)
+    Flux<MovementEntity> findAllAfter(final UUID accountId, final LocalDateTime afterDate, final UUID afterId);
+
+    /**
+     * Newest movements of the account. Without a bound on the date H2 reads them through the account foreign key index
+     * and sorts the whole history, the redundant one leads it to the account history index, read in order.
+     */
+    @Query("""
+            SELECT * FROM Movement
+            WHERE account_id = :accountId AND date <= TIMESTAMP '9999-12-31 23:59:59'
+            ORDER BY account_id ASC, date DESC, id DESC
+            LIMIT :limit
+            """)
+    Flux<MovementEntity> findNewest(final UUID accountId, final int limit);
+
+    /**
+     * Latest movement of the account at or before {@code date}, a single seek of the account history index.
+     */
+    @Query("""
+            SELECT * FROM Movement
+            WHERE account_id = :accountId AND date <= :date
+            ORDER BY account_id ASC, date DESC, id DESC
+            LIMIT 1
+            """)
+    Mono<MovementEntity> findLatestAtOrBefore(final UUID accountId, final LocalDateTime date);
 }
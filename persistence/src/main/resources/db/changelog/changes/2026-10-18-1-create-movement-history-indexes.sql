@@ -0,0 +1,6 @@
+--liquibase formatted sql
+
+--changeset argenta:2026-10-18-1-create-movement-history-indexes
+CREATE INDEX IF NOT EXISTS idx_movement_account_date ON Movement (account_id, date DESC);
+CREATE INDEX IF NOT EXISTS idx_movement_account_type_date ON Movement (account_id, type, date DESC);
+-- rollback drop index idx_movement_account_type_date; drop index idx_movement_account_date;
@@ -0,0 +1,8 @@
+--liquibase formatted sql
+
+--changeset argenta:2026-10-18-2-add-id-to-movement-history-indexes
+DROP INDEX IF EXISTS idx_movement_account_date;
+DROP INDEX IF EXISTS idx_movement_account_type_date;
+CREATE INDEX IF NOT EXISTS idx_movement_account_date_id ON Movement (account_id, date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_movement_account_type_date_id ON Movement (account_id, type, date DESC, id DESC);
+-- rollback drop index idx_movement_account_type_date_id; drop index idx_movement_account_date_id; create index idx_movement_account_date on Movement (account_id, date desc); create index idx_movement_account_type_date on Movement (account_id, type, date desc);
@@ -0,0 +1,21 @@
+--liquibase formatted sql
+
+--changeset argenta:2026-10-18-3-create-movement-daily-rollup-table
+CREATE TABLE IF NOT EXISTS MovementDailyRollup
+(
+    account_id    UUID           NOT NULL,
+    movement_date DATE           NOT NULL,
+    credits       DECIMAL(19, 2) NOT NULL DEFAULT 0.00,
+    debits        DECIMAL(19, 2) NOT NULL DEFAULT 0.00,
+    PRIMARY KEY (account_id, movement_date),
+    FOREIGN KEY (account_id) REFERENCES Account (id)
+);
+INSERT INTO MovementDailyRollup (account_id, movement_date, credits, debits)
+SELECT account_id,
+       CAST(date AS DATE),
+       SUM(CASE WHEN type = 'CREDIT' THEN amount ELSE 0 END),
+       SUM(CASE WHEN type = 'DEBIT' THEN amount ELSE 0 END)
+FROM Movement
+WHERE account_id IS NOT NULL
+GROUP BY account_id, CAST(date AS DATE);
+-- rollback drop table MovementDailyRollup
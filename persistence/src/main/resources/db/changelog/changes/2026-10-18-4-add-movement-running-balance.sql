@@ -0,0 +1,17 @@
+--liquibase formatted sql
+
+--changeset argenta:2026-10-18-4-add-movement-running-balance
+ALTER TABLE Movement ADD COLUMN IF NOT EXISTS balance_after DECIMAL(19, 2);
+MERGE INTO Movement m
+USING (SELECT m.id,
+              a.balance
+                  - SUM(CASE WHEN m.type = 'CREDIT' THEN m.amount ELSE -m.amount END) OVER (PARTITION BY m.account_id)
+                  + SUM(CASE WHEN m.type = 'CREDIT' THEN m.amount ELSE -m.amount END)
+                        OVER (PARTITION BY m.account_id ORDER BY m.date, m.id) AS balance_after
+       FROM Movement m
+                JOIN Account a ON a.id = m.account_id) AS r
+ON m.id = r.id
+WHEN MATCHED THEN UPDATE SET balance_after = r.balance_after;
+ALTER TABLE Account ADD COLUMN IF NOT EXISTS last_movement_date TIMESTAMP;
+UPDATE Account a SET last_movement_date = (SELECT MAX(m.date) FROM Movement m WHERE m.account_id = a.id);
+-- rollback alter table Account drop column last_movement_date; alter table Movement drop column balance_after
@@ -0,0 +1,14 @@
+--liquibase formatted sql
+
+--changeset argenta:2026-10-18-5-add-movement-transfer-columns
+ALTER TABLE Movement ADD COLUMN IF NOT EXISTS transfer_id UUID;
+ALTER TABLE Movement ADD COLUMN IF NOT EXISTS counterparty_account_id UUID;
+UPDATE Movement SET counterparty_account_id = CAST(SUBSTRING(description, LENGTH('Transfer to account ') + 1) AS UUID)
+WHERE description LIKE 'Transfer to account %';
+UPDATE Movement SET counterparty_account_id = CAST(SUBSTRING(description, LENGTH('Transfer from account ') + 1) AS UUID)
+WHERE description LIKE 'Transfer from account %';
+CREATE INDEX IF NOT EXISTS idx_movement_transfer_id ON Movement (transfer_id);
+ALTER TABLE Movement DROP COLUMN IF EXISTS description;
+-- rollback alter table Movement add column description varchar(255);
+-- rollback update Movement set description = case when counterparty_account_id is null then case when type = 'CREDIT' then 'Deposit in account' else 'Withdraw on account' end when type = 'CREDIT' then 'Transfer from account ' || counterparty_account_id else 'Transfer to account ' || counterparty_account_id end;
+-- rollback drop index idx_movement_transfer_id; alter table Movement drop column counterparty_account_id; alter table Movement drop column transfer_id
@@ -0,0 +1,108 @@
+package adapters;
+
+import domain.model.Money;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+import persistence.adapters.AccountCache;
+import persistence.adapters.AccountCacheProperties;
+import persistence.entity.AccountEntity;
+import persistence.mappers.AccountMapper;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+class AccountCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final AccountCache accountCache = new AccountCache(
+            new AccountCacheProperties(true, 100, Duration.ofMinutes(1)),
+            Mappers.getMapper(AccountMapper.class),
+            meterRegistry
+    );
+
+    @Test
+    void secondReadServedFromCache() {
+        // Arrange
+        final var account = account(Money.of(BigDecimal.TEN), 0);
+        final var loads = new AtomicInteger();
+
+        // act
+        accountCache.find(account.getId().toString(), () -> load(account, loads)).block();
+        final var cached = accountCache.find(account.getId().toString(), () -> load(account, loads)).block();
+
+        // assert
+        Assertions.assertEquals(Money.of(BigDecimal.TEN), cached.balance());
+        Assertions.assertEquals(1, loads.get());
+        Assertions.assertEquals(1, meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count());
+        Assertions.assertEquals(1, meterRegistry.get("financial.account_cache.load").timer().count());
+    }
+
+    @Test
+    void writtenStateReplacesCachedState() {
+        // Arrange
+        final var account = account(Money.of(BigDecimal.TEN), 0);
+        accountCache.find(account.getId().toString(), () -> Mono.just(account)).block();
+
+        // act
+        accountCache.written(account(Money.of(BigDecimal.ONE), 1, account.getId()));
+
+        // assert
+        final var cached = accountCache.find(account.getId().toString(), Mono::empty).block();
+        Assertions.assertEquals(Money.of(BigDecimal.ONE), cached.balance());
+    }
+
+    @Test
+    void loadFinishedAfterWriteDoesNotInstallOlderState() {
+        // Arrange
+        final var account = account(Money.of(BigDecimal.TEN), 0);
+        final var id = account.getId().toString();
+        final var slowLoad = Sinks.<AccountEntity>one();
+        final var pendingRead = accountCache.find(id, slowLoad::asMono).toFuture();
+
+        // act
+        accountCache.invalidate(id);
+        slowLoad.tryEmitValue(account);
+        pendingRead.join();
+
+        // assert
+        final var reloaded = accountCache.find(id, () -> Mono.just(account(Money.of(BigDecimal.ONE), 1, account.getId()))).block();
+        Assertions.assertEquals(Money.of(BigDecimal.ONE), reloaded.balance());
+    }
+
+    @Test
+    void cachedVersionFollowsWrittenState() {
+        // Arrange
+        final var account = account(Money.of(BigDecimal.TEN), 2);
+        final var id = account.getId().toString();
+
+        // act and assert
+        Assertions.assertNull(accountCache.cachedVersion(id));
+        accountCache.find(id, () -> Mono.just(account)).block();
+        Assertions.assertEquals(2, accountCache.cachedVersion(id));
+        accountCache.written(account(Money.of(BigDecimal.ONE), 3, account.getId()));
+        Assertions.assertEquals(3, accountCache.findVersioned(id, Mono::empty).block().version());
+    }
+
+    private static Mono<AccountEntity> load(final AccountEntity account, final AtomicInteger loads) {
+        return Mono.fromSupplier(() -> {
+            loads.incrementAndGet();
+            return account;
+        });
+    }
+
+    private static AccountEntity account(final Money balance, final long version) {
+        return account(balance, version, UUID.randomUUID());
+    }
+
+    private static AccountEntity account(final Money balance, final long version, final UUID id) {
+        final var account = new AccountEntity(id, "cached", balance, Money.ZERO);
+        account.setVersion(version);
+        return account;
+    }
+}
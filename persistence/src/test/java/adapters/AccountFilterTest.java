@@ -0,0 +1,77 @@
+package adapters;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.UUID;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import persistence.adapters.AccountFilter;
+import persistence.adapters.AccountFilterProperties;
+import persistence.entity.TimeOrderedUuid;
+import persistence.repository.AccountRepository;
+import reactor.core.publisher.Flux;
+
+class AccountFilterTest {
+
+    private static final int ACCOUNTS = 10_000;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final AccountRepository accountRepository = Mockito.mock(AccountRepository.class);
+
+    @Test
+    void rejectsUnknownIdsWithinTheConfiguredRate() {
+        // Arrange
+        final var loaded = Stream.generate(TimeOrderedUuid::next).limit(ACCOUNTS).toList();
+        Mockito.when(accountRepository.findAllIds()).thenReturn(Flux.fromIterable(loaded));
+        final var accountFilter = filter(true);
+
+        // act
+        accountFilter.run(null);
+        final var created = TimeOrderedUuid.next();
+        accountFilter.add(created);
+
+        // assert
+        Assertions.assertTrue(loaded.stream().allMatch(id -> accountFilter.mightExist(id.toString())));
+        Assertions.assertTrue(accountFilter.mightExist(created.toString()));
+        final var falsePositives = Stream.generate(UUID::randomUUID)
+                .limit(ACCOUNTS)
+                .filter(id -> accountFilter.mightExist(id.toString()))
+                .count();
+        Assertions.assertTrue(falsePositives < ACCOUNTS * 0.02, falsePositives + " unknown ids let through");
+        Assertions.assertEquals(ACCOUNTS - falsePositives, meterRegistry.get("financial.account_filter.rejected").counter().count());
+        Assertions.assertEquals(ACCOUNTS + 1, meterRegistry.get("financial.account_filter.accounts").gauge().value());
+        Assertions.assertEquals(0.01, meterRegistry.get("financial.account_filter.false_positive_rate").gauge().value(), 0.002);
+        Assertions.assertTrue(meterRegistry.get("financial.account_filter.memory").gauge().value() > 0);
+    }
+
+    @Test
+    void everyIdMayExistUntilLoadedOrWhenDisabled() {
+        // Arrange
+        final var unknownId = UUID.randomUUID().toString();
+
+        // act and assert
+        Assertions.assertTrue(filter(true).mightExist(unknownId));
+        final var disabled = filter(false);
+        disabled.run(null);
+        Assertions.assertTrue(disabled.mightExist(unknownId));
+        Mockito.verifyNoInteractions(accountRepository);
+    }
+
+    @Test
+    void rejectsMalformedIds() {
+        // Arrange
+        Mockito.when(accountRepository.findAllIds()).thenReturn(Flux.empty());
+        final var accountFilter = filter(true);
+        accountFilter.run(null);
+
+        // act and assert
+        Assertions.assertFalse(accountFilter.mightExist("not-an-id"));
+        Assertions.assertFalse(accountFilter.mightExist(null));
+    }
+
+    private AccountFilter filter(final boolean enabled) {
+        return new AccountFilter(new AccountFilterProperties(enabled, ACCOUNTS, 0.01), accountRepository, meterRegistry);
+    }
+}
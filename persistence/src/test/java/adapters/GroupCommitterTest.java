@@ -0,0 +1,296 @@
+package adapters;
+
+import domain.exception.InsufficientBalanceException;
+import domain.model.Money;
+import domain.model.Movement;
+import domain.model.MovementCommand;
+import domain.model.MovementOperation;
+import domain.model.MovementResult;
+import domain.model.MovementType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import persistence.adapters.GroupCommitProperties;
+import persistence.adapters.GroupCommitter;
+import persistence.adapters.MovementBatchProcessor;
+import persistence.adapters.MovementBatchWriter;
+import persistence.adapters.MovementRollups;
+import persistence.adapters.PersistenceScheduler;
+import persistence.adapters.PersistenceSchedulerProperties;
+import persistence.entity.AccountEntity;
+import persistence.mappers.MovementMapper;
+import persistence.repository.AccountRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+
+@ExtendWith(MockitoExtension.class)
+class GroupCommitterTest {
+
+    @Mock
+    MovementBatchProcessor movementBatchProcessor;
+
+    @Mock
+    AccountRepository accountRepository;
+
+    @Mock
+    MovementBatchWriter movementBatchWriter;
+
+    @Mock
+    MovementRollups movementRollups;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final PersistenceScheduler persistenceScheduler = new PersistenceScheduler(
+            new PersistenceSchedulerProperties(true, 2, 100), meterRegistry);
+
+    private GroupCommitter groupCommitter;
+
+    @AfterEach
+    void tearDown() {
+        groupCommitter.close();
+        persistenceScheduler.close();
+    }
+
+    @Test
+    void concurrentMovementsShareOneCommitWithTheirOwnResults() {
+        // Arrange
+        groupCommitter = new GroupCommitter(
+                new GroupCommitProperties(true, Duration.ofMillis(200), 3, false, 64),
+                movementBatchProcessor,
+                persistenceScheduler,
+                meterRegistry
+        );
+        final var accountId = UUID.randomUUID().toString();
+        final var deposit = new MovementCommand(MovementOperation.DEPOSIT, accountId, null, Money.of(BigDecimal.TEN));
+        final var withdraw = new MovementCommand(MovementOperation.WITHDRAW, accountId, null, Money.of(BigDecimal.TEN));
+        final var movement = new Movement(UUID.randomUUID().toString(), accountId, Money.of(BigDecimal.TEN),
+                MovementType.CREDIT, LocalDateTime.now());
+
+        Mockito.when(movementBatchProcessor.process(eq(List.of(deposit, withdraw, deposit)), anyList(), any()))
+                .thenReturn(Flux.just(
+                        MovementResult.success(movement),
+                        MovementResult.failure(new InsufficientBalanceException()),
+                        MovementResult.success(movement)
+                ));
+
+        // act
+        final var results = Flux.merge(
+                        groupCommitter.submit(deposit, LocalDateTime.now(), new ArrayList<>()).map(Object.class::cast),
+                        groupCommitter.submit(withdraw, LocalDateTime.now(), new ArrayList<>()).map(Object.class::cast).onErrorResume(Mono::just),
+                        groupCommitter.submit(deposit, LocalDateTime.now(), new ArrayList<>()).map(Object.class::cast)
+                )
+                .collectList()
+                .block(Duration.ofSeconds(5));
+
+        // assert
+        Assertions.assertEquals(3, results.size());
+        Assertions.assertEquals(2, results.stream().filter(movement::equals).count());
+        Assertions.assertEquals(1, results.stream().filter(InsufficientBalanceException.class::isInstance).count());
+        Mockito.verify(movementBatchProcessor, Mockito.times(1)).process(anyList(), anyList(), any());
+        Assertions.assertEquals(3.0, meterRegistry.get("financial.group_commit.batch.size").summary().totalAmount());
+    }
+
+    @Test
+    void transfersBetweenTheSameAccountsShareOneCommit() {
+        // Arrange
+        groupCommitter = new GroupCommitter(
+                new GroupCommitProperties(false, Duration.ofMillis(200), 3, true, 64),
+                movementBatchProcessor,
+                persistenceScheduler,
+                meterRegistry
+        );
+        final var debitAccountId = UUID.randomUUID().toString();
+        final var creditAccountId = UUID.randomUUID().toString();
+        final var transfer = new MovementCommand(MovementOperation.TRANSFER, debitAccountId, creditAccountId, Money.of(BigDecimal.ONE));
+        final var settlement = new MovementCommand(MovementOperation.TRANSFER, creditAccountId, debitAccountId, Money.of(BigDecimal.TEN));
+        Mockito.when(movementBatchProcessor.process(eq(List.of(transfer, transfer, settlement)), anyList(), any()))
+                .thenAnswer(invocation -> Flux.fromIterable(invocation.<List<MovementCommand>>getArgument(0))
+                        .map(command -> MovementResult.success(new Movement(UUID.randomUUID().toString(), command.accountId(),
+                                command.amount(), MovementType.DEBIT, LocalDateTime.now()))));
+
+        // act
+        final var results = Flux.mergeSequential(
+                        groupCommitter.submit(transfer, LocalDateTime.now(), new ArrayList<>()),
+                        groupCommitter.submit(transfer, LocalDateTime.now(), new ArrayList<>()),
+                        groupCommitter.submit(settlement, LocalDateTime.now(), new ArrayList<>())
+                )
+                .collectList()
+                .block(Duration.ofSeconds(5));
+
+        // assert
+        Assertions.assertFalse(groupCommitter.isEnabled());
+        Assertions.assertTrue(groupCommitter.isNettingTransfers());
+        Assertions.assertEquals(List.of(Money.of(BigDecimal.ONE), Money.of(BigDecimal.ONE), Money.of(BigDecimal.TEN)),
+                results.stream().map(Movement::amount).toList());
+        Mockito.verify(movementBatchProcessor, Mockito.times(1)).process(anyList(), anyList(), any());
+        Assertions.assertEquals(2.0, meterRegistry.get("financial.group_commit.accounts").summary().totalAmount());
+    }
+
+    @Test
+    void opposingTransfersOfOneWindowUpdateEachBalanceOnceByItsNet() {
+        // Arrange
+        groupCommitter = new GroupCommitter(
+                new GroupCommitProperties(false, Duration.ofMillis(200), 2, true, 64),
+                new MovementBatchProcessor(accountRepository, movementBatchWriter, new MovementMapper() { }, movementRollups),
+                persistenceScheduler,
+                meterRegistry
+        );
+        final var debitAccount = new AccountEntity(UUID.randomUUID(), UUID.randomUUID().toString(), Money.of(new BigDecimal("100")), Money.ZERO);
+        final var creditAccount = new AccountEntity(UUID.randomUUID(), UUID.randomUUID().toString(), Money.ZERO, Money.ZERO);
+        final var transfer = new MovementCommand(MovementOperation.TRANSFER, debitAccount.getId().toString(),
+                creditAccount.getId().toString(), Money.of(BigDecimal.TEN));
+        final var refund = new MovementCommand(MovementOperation.TRANSFER, creditAccount.getId().toString(),
+                debitAccount.getId().toString(), Money.of(new BigDecimal("3")));
+        final var updatedBalances = new AtomicReference<Map<UUID, Money>>();
+        Mockito.when(accountRepository.findAllById(anyList())).thenReturn(Flux.just(debitAccount, creditAccount));
+        Mockito.when(movementBatchWriter.updateBalances(any())).thenAnswer(invocation -> {
+            updatedBalances.set(invocation.<Collection<AccountEntity>>getArgument(0).stream()
+                    .collect(Collectors.toMap(AccountEntity::getId, AccountEntity::getBalance)));
+            return Mono.empty();
+        });
+        Mockito.when(movementBatchWriter.insertMovements(anyList())).thenReturn(Mono.empty());
+        Mockito.when(movementRollups.add(anyList())).thenReturn(Mono.empty());
+
+        // act
+        Flux.mergeSequential(
+                        groupCommitter.submit(transfer, LocalDateTime.now(), new ArrayList<>()),
+                        groupCommitter.submit(refund, LocalDateTime.now(), new ArrayList<>())
+                )
+                .blockLast(Duration.ofSeconds(5));
+
+        // assert
+        Mockito.verify(movementBatchWriter, Mockito.times(1)).updateBalances(any());
+        Assertions.assertEquals(Map.of(
+                debitAccount.getId(), Money.of(new BigDecimal("93")),
+                creditAccount.getId(), Money.of(new BigDecimal("7"))
+        ), updatedBalances.get());
+        Mockito.verify(movementBatchWriter).insertMovements(argThat(movements -> movements.size() == 4));
+    }
+
+    @Test
+    void committedGroupHandsEachMovementTheAccountsItTouched() {
+        // Arrange
+        groupCommitter = new GroupCommitter(
+                new GroupCommitProperties(true, Duration.ofMillis(200), 2, false, 64),
+                movementBatchProcessor,
+                persistenceScheduler,
+                meterRegistry
+        );
+        final var account = new AccountEntity(UUID.randomUUID(), UUID.randomUUID().toString(), Money.of(BigDecimal.TEN), Money.ZERO);
+        final var otherAccount = new AccountEntity(UUID.randomUUID(), UUID.randomUUID().toString(), Money.of(BigDecimal.ONE), Money.ZERO);
+        final var deposit = new MovementCommand(MovementOperation.DEPOSIT, account.getId().toString().toUpperCase(), null, Money.of(BigDecimal.TEN));
+        final var otherDeposit = new MovementCommand(MovementOperation.DEPOSIT, otherAccount.getId().toString(), null, Money.of(BigDecimal.ONE));
+        Mockito.when(movementBatchProcessor.process(eq(List.of(deposit, otherDeposit)), anyList(), any()))
+                .thenAnswer(invocation -> {
+                    invocation.<Collection<AccountEntity>>getArgument(2).addAll(List.of(account, otherAccount));
+                    return Flux.fromIterable(invocation.<List<MovementCommand>>getArgument(0))
+                            .map(command -> MovementResult.success(new Movement(UUID.randomUUID().toString(), command.accountId(),
+                                    command.amount(), MovementType.CREDIT, LocalDateTime.now())));
+                });
+        final var savedAccounts = new ArrayList<AccountEntity>();
+        final var otherSavedAccounts = new ArrayList<AccountEntity>();
+
+        // act
+        Flux.merge(
+                        groupCommitter.submit(deposit, LocalDateTime.now(), savedAccounts),
+                        groupCommitter.submit(otherDeposit, LocalDateTime.now(), otherSavedAccounts)
+                )
+                .blockLast(Duration.ofSeconds(5));
+
+        // assert
+        Assertions.assertEquals(List.of(account), savedAccounts);
+        Assertions.assertEquals(List.of(otherAccount), otherSavedAccounts);
+    }
+
+    @Test
+    void groupClosedByItsWindowCommitsOnPersistenceThread() {
+        // Arrange
+        groupCommitter = new GroupCommitter(
+                new GroupCommitProperties(true, Duration.ofMillis(1), 10, false, 64),
+                movementBatchProcessor,
+                persistenceScheduler,
+                meterRegistry
+        );
+        final var accountId = UUID.randomUUID().toString();
+        final var command = new MovementCommand(MovementOperation.DEPOSIT, accountId, null, Money.of(BigDecimal.TEN));
+        final var movement = new Movement(UUID.randomUUID().toString(), accountId, Money.of(BigDecimal.TEN),
+                MovementType.CREDIT, LocalDateTime.now());
+        final var committedOn = new AtomicReference<String>();
+        Mockito.when(movementBatchProcessor.process(anyList(), anyList(), any()))
+                .thenReturn(Flux.defer(() -> {
+                    committedOn.set(Thread.currentThread().getName());
+                    return Flux.just(MovementResult.success(movement));
+                }));
+
+        // act
+        groupCommitter.submit(command, LocalDateTime.now(), new ArrayList<>()).block(Duration.ofSeconds(5));
+
+        // assert
+        Assertions.assertTrue(committedOn.get().startsWith("persistence"), committedOn.get());
+        Assertions.assertEquals(1, meterRegistry.get("financial.persistence.scheduler.wait").timer().count());
+    }
+
+    @Test
+    void failedCommitFailsEveryMovementOfTheGroup() {
+        // Arrange
+        groupCommitter = new GroupCommitter(
+                new GroupCommitProperties(true, Duration.ofMillis(1), 10, false, 64),
+                movementBatchProcessor,
+                persistenceScheduler,
+                meterRegistry
+        );
+        final var command = new MovementCommand(MovementOperation.DEPOSIT, UUID.randomUUID().toString(), null, Money.of(BigDecimal.TEN));
+        Mockito.when(movementBatchProcessor.process(anyList(), any(List.class), any()))
+                .thenReturn(Flux.error(new IllegalStateException("database is down")));
+
+        // act and assert
+        StepVerifier.create(groupCommitter.submit(command, LocalDateTime.now(), new ArrayList<>()))
+                .expectError(IllegalStateException.class)
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void groupClosedWhileTheQueueIsFullIsRejected() {
+        // Arrange
+        groupCommitter = new GroupCommitter(
+                new GroupCommitProperties(true, Duration.ofMillis(1), 1, false, 1),
+                movementBatchProcessor,
+                persistenceScheduler,
+                meterRegistry
+        );
+        final var command = new MovementCommand(MovementOperation.DEPOSIT, UUID.randomUUID().toString(), null, Money.of(BigDecimal.TEN));
+        Mockito.when(movementBatchProcessor.process(anyList(), anyList(), any()))
+                .thenReturn(Flux.never());
+        for (int i = 0; i < 5; i++) {
+            groupCommitter.submit(command, LocalDateTime.now(), new ArrayList<>()).subscribe(movement -> { }, error -> { });
+        }
+
+        // act and assert
+        StepVerifier.create(groupCommitter.submit(command, LocalDateTime.now(), new ArrayList<>()))
+                .expectError(RejectedExecutionException.class)
+                .verify(Duration.ofSeconds(5));
+        Assertions.assertTrue(meterRegistry.get("financial.group_commit.rejected").counter().count() >= 1);
+    }
+}
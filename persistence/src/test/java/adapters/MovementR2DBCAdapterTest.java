@@ -2,36 +2,66 @@ package adapters;
 
 import domain.exception.AccountNotFoundException;
 import domain.exception.InsufficientBalanceException;
+import domain.exception.MovementConflictException;
+import domain.model.Money;
+import domain.model.Movement;
+import domain.model.MovementCommand;
+import domain.model.MovementOperation;
 import domain.model.MovementType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import persistence.adapters.AccountCache;
+import persistence.adapters.AccountFilter;
+import persistence.adapters.AccountFilterProperties;
+import persistence.adapters.BalanceUpdateMode;
+import persistence.adapters.BalanceUpdateProperties;
+import persistence.adapters.GroupCommitter;
+import persistence.adapters.MovementBatchProcessor;
+import persistence.adapters.MovementExportReader;
 import persistence.adapters.MovementR2DBCAdapter;
+import persistence.adapters.MovementRollups;
+import persistence.adapters.MovementStream;
+import persistence.adapters.MovementStreamProperties;
+import persistence.adapters.OptimisticLockRetry;
+import persistence.adapters.OptimisticLockRetryProperties;
+import persistence.adapters.PersistenceScheduler;
+import persistence.adapters.PersistenceSchedulerProperties;
+import persistence.adapters.RecentMovements;
+import persistence.adapters.RecentMovementsProperties;
 import persistence.entity.AccountEntity;
 import persistence.entity.MovementEntity;
 import persistence.mappers.MovementMapper;
 import persistence.repository.AccountRepository;
 import persistence.repository.MovementRepository;
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import static domain.model.MovementDescription.DEPOSIT_DESCRIPTION;
 import static domain.model.MovementDescription.WITHDRAW_DESCRIPTION;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 
 
 @ExtendWith(MockitoExtension.class)
 class MovementR2DBCAdapterTest {
 
-    @InjectMocks
     MovementR2DBCAdapter movementR2DBCAdapter;
 
     @Mock
@@ -43,18 +73,78 @@ class MovementR2DBCAdapterTest {
     @Mock
     MovementMapper movementMapper;
 
+    @Mock
+    GroupCommitter groupCommitter;
+
+    @Mock
+    MovementBatchProcessor movementBatchProcessor;
+
+    @Mock
+    TransactionalOperator transactionalOperator;
+
+    @Mock
+    MovementExportReader movementExportReader;
+
+    @Mock
+    AccountCache accountCache;
+
+    @Mock
+    MovementRollups movementRollups;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final MovementStream movementStream = new MovementStream(new MovementStreamProperties(4), meterRegistry);
+
+    private final RecentMovements recentMovements = new RecentMovements(
+            new RecentMovementsProperties(true, 4, 100, Duration.ofMinutes(1)), meterRegistry);
+
+    @BeforeEach
+    void setUp() {
+        Mockito.lenient().when(transactionalOperator.transactional(any(Mono.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        Mockito.lenient().when(movementRollups.add(any())).thenReturn(Mono.empty());
+        movementR2DBCAdapter = adapter(BalanceUpdateMode.ENTITY);
+    }
+
+    private MovementR2DBCAdapter adapter(final BalanceUpdateMode mode) {
+        return adapter(mode, new AccountFilter(new AccountFilterProperties(false, 1, 0.01), accountRepository, meterRegistry));
+    }
+
+    private MovementR2DBCAdapter adapter(final BalanceUpdateMode mode, final AccountFilter accountFilter) {
+        return new MovementR2DBCAdapter(
+                accountRepository,
+                movementRepository,
+                movementMapper,
+                movementBatchProcessor,
+                groupCommitter,
+                transactionalOperator,
+                new BalanceUpdateProperties(mode),
+                new OptimisticLockRetry(
+                        new OptimisticLockRetryProperties(2, Duration.ofMillis(1), Duration.ofMillis(5), 0.5),
+                        meterRegistry
+                ),
+                movementExportReader,
+                accountCache,
+                new PersistenceScheduler(new PersistenceSchedulerProperties(true, 2, 100), meterRegistry),
+                movementRollups,
+                accountFilter,
+                movementStream,
+                recentMovements
+        );
+    }
+
     @Test
     void depositWithSuccess() {
         // Arrange
         final var accountId = UUID.randomUUID();
-        final var depositDate = LocalDateTime.now();
-        final var amount = BigDecimal.TEN;
+        final var depositDate = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        final var amount = Money.of(BigDecimal.TEN);
 
         final var accountEntity = new AccountEntity(
                 accountId,
                 UUID.randomUUID().toString(),
-                BigDecimal.ONE,
-                BigDecimal.ZERO
+                Money.of(BigDecimal.ONE),
+                Money.ZERO
         );
         Mockito.when(accountRepository.findById(eq(accountId.toString())))
                 .thenReturn(Mono.just(accountEntity));
@@ -62,7 +152,7 @@ class MovementR2DBCAdapterTest {
         final var expectedSaveAccount = new AccountEntity(
                 accountId,
                 accountEntity.getName(),
-                accountEntity.getBalance().add(amount),
+                accountEntity.getBalance().plus(amount),
                 accountEntity.getLimit()
         );
         Mockito.when(accountRepository.save(eq(expectedSaveAccount)))
@@ -71,23 +161,28 @@ class MovementR2DBCAdapterTest {
         final var expectedMovement = new MovementEntity(
                 null,
                 accountId,
-                DEPOSIT_DESCRIPTION,
                 amount,
                 MovementType.CREDIT,
-                depositDate
+                depositDate,
+                expectedSaveAccount.getBalance(),
+                null,
+                null
         );
         final var savedMovementEntity = new MovementEntity(
                 UUID.randomUUID(),
                 expectedMovement.getAccountId(),
-                expectedMovement.getDescription(),
                 expectedMovement.getAmount(),
                 expectedMovement.getType(),
-                expectedMovement.getDate()
+                expectedMovement.getDate(),
+                expectedMovement.getBalanceAfter(),
+                expectedMovement.getTransferId(),
+                expectedMovement.getCounterpartyAccountId()
         );
         Mockito.when(movementRepository.save(eq(expectedMovement)))
                 .thenReturn(Mono.just(savedMovementEntity));
 
         Mockito.when(movementMapper.toMovement(any())).thenCallRealMethod();
+        final var streamed = movementStream.stream(accountId.toString(), Flux.empty()).next().toFuture();
 
         // act and assert
         StepVerifier.create(movementR2DBCAdapter.deposit(accountId.toString(), amount, depositDate))
@@ -96,9 +191,170 @@ class MovementR2DBCAdapterTest {
                     Assertions.assertEquals(savedMovementEntity.getAccountId().toString(), movement.account_id());
                     Assertions.assertEquals(savedMovementEntity.getType(), movement.type());
                     Assertions.assertEquals(savedMovementEntity.getAmount(), movement.amount());
-                    Assertions.assertEquals(savedMovementEntity.getDescription(), movement.description());
+                    Assertions.assertEquals(DEPOSIT_DESCRIPTION, movement.description());
                 })
                 .verifyComplete();
+        Mockito.verify(movementRollups).add(eq(List.of(savedMovementEntity)));
+        Assertions.assertEquals(savedMovementEntity.getId().toString(), streamed.join().id());
+    }
+
+    @Test
+    void firstPageAfterDepositServedFromRecentMovements() {
+        // Arrange
+        final var accountId = UUID.randomUUID();
+        final var date = LocalDateTime.now();
+        final var older = new MovementEntity(UUID.randomUUID(), accountId, Money.of(BigDecimal.ONE), MovementType.CREDIT,
+                date.minusMinutes(1), Money.of(BigDecimal.ONE), null, null);
+        final var accountEntity = new AccountEntity(accountId, UUID.randomUUID().toString(), Money.of(BigDecimal.ONE), Money.ZERO);
+        Mockito.when(movementRepository.findNewest(eq(accountId), eq(4)))
+                .thenReturn(Flux.just(older));
+        Mockito.when(accountRepository.findById(eq(accountId.toString())))
+                .thenReturn(Mono.just(accountEntity));
+        Mockito.when(accountRepository.save(any()))
+                .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        Mockito.when(movementRepository.save(any()))
+                .thenAnswer(invocation -> {
+                    final MovementEntity movement = invocation.getArgument(0);
+                    movement.setId(UUID.randomUUID());
+                    return Mono.just(movement);
+                });
+        Mockito.when(movementMapper.toMovement(any())).thenCallRealMethod();
+        movementR2DBCAdapter.findMovementPageByPeriod(accountId.toString(), date.minusDays(1), date.plusDays(1), null, 25).block();
+
+        // act
+        final var deposit = movementR2DBCAdapter.deposit(accountId.toString(), Money.of(BigDecimal.TEN), date).block();
+        final var page = movementR2DBCAdapter.findMovementPageByPeriod(accountId.toString(), date.minusDays(1), date.plusDays(1), null, 25).block();
+
+        // assert
+        Assertions.assertEquals(date.truncatedTo(ChronoUnit.MICROS), deposit.date());
+        Assertions.assertEquals(List.of(deposit.id(), older.getId().toString()),
+                page.movements().stream().map(movement -> movement.id()).toList());
+        Assertions.assertNull(page.next());
+        Mockito.verify(movementRepository).findNewest(eq(accountId), eq(4));
+        Mockito.verify(movementRepository, Mockito.never()).findAllByAccountIdAndDateIsBetween(any(), any(), any(), any());
+        Assertions.assertEquals(1, meterRegistry.get("financial.recent_movements.reads").tag("result", "hit").counter().count());
+    }
+
+    @Test
+    void depositCancelledAfterItsCommitDropsRecentMovements() {
+        // Arrange
+        final var accountId = UUID.randomUUID();
+        final var date = LocalDateTime.now();
+        final var older = new MovementEntity(UUID.randomUUID(), accountId, Money.of(BigDecimal.ONE), MovementType.CREDIT,
+                date.minusMinutes(1), Money.of(BigDecimal.ONE), null, null);
+        Mockito.when(movementRepository.findNewest(eq(accountId), eq(4)))
+                .thenReturn(Flux.just(older));
+        Mockito.when(movementMapper.toMovement(any())).thenCallRealMethod();
+        Mockito.when(groupCommitter.isEnabled()).thenReturn(true);
+        Mockito.when(groupCommitter.submit(any(), any(), any())).thenReturn(Mono.never());
+        movementR2DBCAdapter.findMovementPageByPeriod(accountId.toString(), date.minusDays(1), date.plusDays(1), null, 25).block();
+
+        // act
+        movementR2DBCAdapter.deposit(accountId.toString(), Money.of(BigDecimal.TEN), date).subscribe().dispose();
+        movementR2DBCAdapter.findMovementPageByPeriod(accountId.toString(), date.minusDays(1), date.plusDays(1), null, 25).block();
+
+        // assert
+        Mockito.verify(movementRepository, Mockito.times(2)).findNewest(eq(accountId), eq(4));
+        Assertions.assertEquals(0, meterRegistry.get("financial.recent_movements.reads").tag("result", "hit").counter().count());
+    }
+
+    @Test
+    void nettedTransferRetriedWhenItsGroupConflicts() {
+        // Arrange
+        final var debitAccountId = UUID.randomUUID().toString();
+        final var creditAccountId = UUID.randomUUID().toString();
+        final var amount = Money.of(BigDecimal.TEN);
+        final var transfer = new Movement(UUID.randomUUID().toString(), debitAccountId, amount, MovementType.DEBIT,
+                LocalDateTime.now(), UUID.randomUUID().toString(), creditAccountId);
+        Mockito.when(groupCommitter.isNettingTransfers()).thenReturn(true);
+        final var debitAccount = new AccountEntity(UUID.fromString(debitAccountId), UUID.randomUUID().toString(), Money.ZERO, Money.ZERO);
+        final var creditAccount = new AccountEntity(UUID.fromString(creditAccountId), UUID.randomUUID().toString(), amount, Money.ZERO);
+        Mockito.when(groupCommitter.submit(eq(new MovementCommand(MovementOperation.TRANSFER, debitAccountId, creditAccountId, amount)), any(), any()))
+                .thenReturn(Mono.error(new OptimisticLockingFailureException("conflict")))
+                .thenAnswer(invocation -> {
+                    invocation.<Collection<AccountEntity>>getArgument(2).addAll(List.of(debitAccount, creditAccount));
+                    return Mono.just(transfer);
+                });
+
+        // act and assert
+        StepVerifier.create(movementR2DBCAdapter.transfer(debitAccountId, creditAccountId, amount, LocalDateTime.now()))
+                .expectNext(transfer)
+                .verifyComplete();
+        Mockito.verify(groupCommitter, Mockito.times(2)).submit(any(), any(), any());
+        Mockito.verify(accountCache).written(argThat((Collection<AccountEntity> accounts) ->
+                List.copyOf(accounts).equals(List.of(debitAccount, creditAccount))));
+        Mockito.verifyNoInteractions(accountRepository);
+    }
+
+    @Test
+    void groupedDepositRetriedWhenItsGroupConflicts() {
+        // Arrange
+        final var accountId = UUID.randomUUID().toString();
+        final var amount = Money.of(BigDecimal.TEN);
+        final var deposit = new Movement(UUID.randomUUID().toString(), accountId, amount, MovementType.CREDIT, LocalDateTime.now());
+        Mockito.when(groupCommitter.isEnabled()).thenReturn(true);
+        final var account = new AccountEntity(UUID.fromString(accountId), UUID.randomUUID().toString(), amount, Money.ZERO);
+        Mockito.when(groupCommitter.submit(eq(new MovementCommand(MovementOperation.DEPOSIT, accountId, null, amount)), any(), any()))
+                .thenReturn(Mono.error(new OptimisticLockingFailureException("conflict")))
+                .thenAnswer(invocation -> {
+                    invocation.<Collection<AccountEntity>>getArgument(2).add(account);
+                    return Mono.just(deposit);
+                });
+
+        // act and assert
+        StepVerifier.create(movementR2DBCAdapter.deposit(accountId, amount, LocalDateTime.now()))
+                .expectNext(deposit)
+                .verifyComplete();
+        Mockito.verify(groupCommitter, Mockito.times(2)).submit(any(), any(), any());
+        Mockito.verify(accountCache).written(argThat((Collection<AccountEntity> accounts) -> List.copyOf(accounts).equals(List.of(account))));
+        Mockito.verifyNoInteractions(accountRepository);
+    }
+
+    @Test
+    void batchLosingItsOptimisticLockEveryAttemptIsConflict() {
+        // Arrange
+        final var accountId = UUID.randomUUID().toString();
+        final var commands = List.of(new MovementCommand(MovementOperation.WITHDRAW, accountId, null, Money.of(BigDecimal.ONE)));
+        Mockito.when(movementBatchProcessor.process(eq(commands), any(LocalDateTime.class), any()))
+                .thenAnswer(invocation -> Flux.error(new OptimisticLockingFailureException("conflict")));
+
+        // act and assert
+        StepVerifier.create(movementR2DBCAdapter.batch(commands, LocalDateTime.now()))
+                .expectErrorSatisfies(error -> {
+                    Assertions.assertInstanceOf(MovementConflictException.class, error);
+                    Assertions.assertEquals(accountId, ((MovementConflictException) error).getAccountId());
+                })
+                .verify();
+        Mockito.verify(movementBatchProcessor, Mockito.times(2)).process(eq(commands), any(LocalDateTime.class), any());
+        Mockito.verifyNoInteractions(accountCache);
+    }
+
+    @Test
+    void depositNeverDatedBeforeLatestMovement() {
+        // Arrange
+        final var accountId = UUID.randomUUID();
+        final var latestMovementDate = LocalDateTime.now();
+        final var amount = Money.of(BigDecimal.TEN);
+
+        final var accountEntity = new AccountEntity(accountId, UUID.randomUUID().toString(), Money.of(BigDecimal.ONE), Money.ZERO);
+        accountEntity.setLastMovementDate(latestMovementDate);
+        Mockito.when(accountRepository.findById(eq(accountId.toString())))
+                .thenReturn(Mono.just(accountEntity));
+        Mockito.when(accountRepository.save(any()))
+                .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        Mockito.when(movementRepository.save(any()))
+                .thenAnswer(invocation -> {
+                    final MovementEntity movement = invocation.getArgument(0);
+                    movement.setId(UUID.randomUUID());
+                    return Mono.just(movement);
+                });
+        Mockito.when(movementMapper.toMovement(any())).thenCallRealMethod();
+
+        // act and assert
+        StepVerifier.create(movementR2DBCAdapter.deposit(accountId.toString(), amount, latestMovementDate.minusSeconds(1)))
+                .assertNext(movement -> Assertions.assertEquals(latestMovementDate, movement.date()))
+                .verifyComplete();
+        Mockito.verify(movementRepository).save(argThat(movement -> movement.getBalanceAfter().equals(Money.of(new BigDecimal("11.00")))));
     }
 
     @Test
@@ -106,7 +362,7 @@ class MovementR2DBCAdapterTest {
         // Arrange
         final var accountId = UUID.randomUUID().toString();
         final var depositDate = LocalDateTime.now();
-        final var amount = BigDecimal.TEN;
+        final var amount = Money.of(BigDecimal.TEN);
 
         Mockito.when(accountRepository.findById(eq(accountId)))
                 .thenReturn(Mono.empty());
@@ -117,18 +373,33 @@ class MovementR2DBCAdapterTest {
                 .verify();
     }
 
+    @Test
+    void depositOfAccountUnknownToFilterNeverReadsTheDatabase() {
+        // Arrange
+        final var accountId = UUID.randomUUID().toString();
+        Mockito.when(accountRepository.findAllIds()).thenReturn(Flux.just(UUID.randomUUID()));
+        final var accountFilter = new AccountFilter(new AccountFilterProperties(true, 100, 0.0001), accountRepository, meterRegistry);
+        accountFilter.run(null);
+
+        // act and assert
+        StepVerifier.create(adapter(BalanceUpdateMode.ENTITY, accountFilter).deposit(accountId, Money.of(BigDecimal.TEN), LocalDateTime.now()))
+                .expectError(AccountNotFoundException.class)
+                .verify();
+        Mockito.verify(accountRepository, Mockito.never()).findById(any(String.class));
+    }
+
     @Test
     void withdrawWithBalanceSuccess() {
         // Arrange
         final var accountId = UUID.randomUUID();
-        final var depositDate = LocalDateTime.now();
-        final var amount = BigDecimal.TEN;
+        final var depositDate = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        final var amount = Money.of(BigDecimal.TEN);
 
         final var accountEntity = new AccountEntity(
                 accountId,
                 UUID.randomUUID().toString(),
-                BigDecimal.TEN,
-                BigDecimal.ZERO
+                Money.of(BigDecimal.TEN),
+                Money.ZERO
         );
         Mockito.when(accountRepository.findById(eq(accountId.toString())))
                 .thenReturn(Mono.just(accountEntity));
@@ -136,7 +407,7 @@ class MovementR2DBCAdapterTest {
         final var expectedSaveAccount = new AccountEntity(
                 accountId,
                 accountEntity.getName(),
-                BigDecimal.ZERO,
+                Money.ZERO,
                 accountEntity.getLimit()
         );
         Mockito.when(accountRepository.save(eq(expectedSaveAccount)))
@@ -145,18 +416,22 @@ class MovementR2DBCAdapterTest {
         final var expectedMovement = new MovementEntity(
                 null,
                 accountId,
-                WITHDRAW_DESCRIPTION,
                 amount,
                 MovementType.DEBIT,
-                depositDate
+                depositDate,
+                expectedSaveAccount.getBalance(),
+                null,
+                null
         );
         final var savedMovementEntity = new MovementEntity(
                 UUID.randomUUID(),
                 expectedMovement.getAccountId(),
-                expectedMovement.getDescription(),
                 expectedMovement.getAmount(),
                 expectedMovement.getType(),
-                expectedMovement.getDate()
+                expectedMovement.getDate(),
+                expectedMovement.getBalanceAfter(),
+                expectedMovement.getTransferId(),
+                expectedMovement.getCounterpartyAccountId()
         );
         Mockito.when(movementRepository.save(eq(expectedMovement)))
                 .thenReturn(Mono.just(savedMovementEntity));
@@ -170,7 +445,7 @@ class MovementR2DBCAdapterTest {
                     Assertions.assertEquals(savedMovementEntity.getAccountId().toString(), movement.account_id());
                     Assertions.assertEquals(savedMovementEntity.getType(), movement.type());
                     Assertions.assertEquals(savedMovementEntity.getAmount(), movement.amount());
-                    Assertions.assertEquals(savedMovementEntity.getDescription(), movement.description());
+                    Assertions.assertEquals(WITHDRAW_DESCRIPTION, movement.description());
                 })
                 .verifyComplete();
     }
@@ -179,14 +454,14 @@ class MovementR2DBCAdapterTest {
     void withdrawWithLimitSuccess() {
         // Arrange
         final var accountId = UUID.randomUUID();
-        final var depositDate = LocalDateTime.now();
-        final var amount = BigDecimal.TEN;
+        final var depositDate = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        final var amount = Money.of(BigDecimal.TEN);
 
         final var accountEntity = new AccountEntity(
                 accountId,
                 UUID.randomUUID().toString(),
-                BigDecimal.ZERO,
-                BigDecimal.TEN
+                Money.ZERO,
+                Money.of(BigDecimal.TEN)
         );
         Mockito.when(accountRepository.findById(eq(accountId.toString())))
                 .thenReturn(Mono.just(accountEntity));
@@ -194,7 +469,7 @@ class MovementR2DBCAdapterTest {
         final var expectedSaveAccount = new AccountEntity(
                 accountId,
                 accountEntity.getName(),
-                BigDecimal.TEN.negate(),
+                Money.of(BigDecimal.TEN).negate(),
                 accountEntity.getLimit()
         );
         Mockito.when(accountRepository.save(eq(expectedSaveAccount)))
@@ -203,18 +478,22 @@ class MovementR2DBCAdapterTest {
         final var expectedMovement = new MovementEntity(
                 null,
                 accountId,
-                WITHDRAW_DESCRIPTION,
                 amount,
                 MovementType.DEBIT,
-                depositDate
+                depositDate,
+                expectedSaveAccount.getBalance(),
+                null,
+                null
         );
         final var savedMovementEntity = new MovementEntity(
                 UUID.randomUUID(),
                 expectedMovement.getAccountId(),
-                expectedMovement.getDescription(),
                 expectedMovement.getAmount(),
                 expectedMovement.getType(),
-                expectedMovement.getDate()
+                expectedMovement.getDate(),
+                expectedMovement.getBalanceAfter(),
+                expectedMovement.getTransferId(),
+                expectedMovement.getCounterpartyAccountId()
         );
         Mockito.when(movementRepository.save(eq(expectedMovement)))
                 .thenReturn(Mono.just(savedMovementEntity));
@@ -228,7 +507,7 @@ class MovementR2DBCAdapterTest {
                     Assertions.assertEquals(savedMovementEntity.getAccountId(), UUID.fromString(movement.account_id()));
                     Assertions.assertEquals(savedMovementEntity.getType(), movement.type());
                     Assertions.assertEquals(savedMovementEntity.getAmount(), movement.amount());
-                    Assertions.assertEquals(savedMovementEntity.getDescription(), movement.description());
+                    Assertions.assertEquals(WITHDRAW_DESCRIPTION, movement.description());
                 })
                 .verifyComplete();
     }
@@ -238,13 +517,13 @@ class MovementR2DBCAdapterTest {
         // Arrange
         final var accountId = UUID.randomUUID();
         final var depositDate = LocalDateTime.now();
-        final var amount = BigDecimal.TEN;
+        final var amount = Money.of(BigDecimal.TEN);
 
         final var accountEntity = new AccountEntity(
                 accountId,
                 UUID.randomUUID().toString(),
-                BigDecimal.ONE,
-                BigDecimal.ZERO
+                Money.of(BigDecimal.ONE),
+                Money.ZERO
         );
         Mockito.when(accountRepository.findById(eq(accountId.toString())))
                 .thenReturn(Mono.just(accountEntity));
@@ -261,7 +540,7 @@ class MovementR2DBCAdapterTest {
         // Arrange
         final var accountId = UUID.randomUUID().toString();
         final var depositDate = LocalDateTime.now();
-        final var amount = BigDecimal.TEN;
+        final var amount = Money.of(BigDecimal.TEN);
 
         Mockito.when(accountRepository.findById(eq(accountId)))
                 .thenReturn(Mono.empty());
@@ -271,4 +550,139 @@ class MovementR2DBCAdapterTest {
                 .expectError(AccountNotFoundException.class)
                 .verify();
     }
-}
\ No newline at end of file
+
+    @Test
+    void withdrawRetriedWithFreshAccountAfterConflict() {
+        // Arrange
+        final var accountId = UUID.randomUUID();
+        final var depositDate = LocalDateTime.now();
+        final var amount = Money.of(BigDecimal.TEN);
+        final var name = UUID.randomUUID().toString();
+
+        Mockito.when(accountRepository.findById(eq(accountId.toString())))
+                .thenAnswer(invocation -> Mono.just(new AccountEntity(accountId, name, Money.of(BigDecimal.TEN), Money.ZERO)));
+
+        final var expectedSaveAccount = new AccountEntity(accountId, name, Money.ZERO, Money.ZERO);
+        Mockito.when(accountRepository.save(eq(expectedSaveAccount)))
+                .thenReturn(Mono.error(new OptimisticLockingFailureException("conflict")), Mono.just(expectedSaveAccount));
+
+        Mockito.when(movementRepository.save(any()))
+                .thenAnswer(invocation -> {
+                    final MovementEntity movement = invocation.getArgument(0);
+                    return Mono.just(new MovementEntity(UUID.randomUUID(), movement.getAccountId(), movement.getAmount(),
+                            movement.getType(), movement.getDate(), movement.getBalanceAfter(), movement.getTransferId(),
+                            movement.getCounterpartyAccountId()));
+                });
+        Mockito.when(movementMapper.toMovement(any())).thenCallRealMethod();
+
+        // act and assert
+        StepVerifier.create(movementR2DBCAdapter.withdraw(accountId.toString(), amount, depositDate))
+                .assertNext(movement -> Assertions.assertEquals(MovementType.DEBIT, movement.type()))
+                .verifyComplete();
+
+        Mockito.verify(accountRepository, Mockito.times(2)).findById(eq(accountId.toString()));
+        Assertions.assertEquals(1, meterRegistry.get("financial.optimistic_lock.conflicts").tag("operation", "withdraw").counter().count());
+        Assertions.assertEquals(1, meterRegistry.get("financial.optimistic_lock.retries").tag("operation", "withdraw").counter().count());
+    }
+
+    @Test
+    void depositConflictAfterLastAttempt() {
+        // Arrange
+        final var accountId = UUID.randomUUID();
+        final var name = UUID.randomUUID().toString();
+
+        Mockito.when(accountRepository.findById(eq(accountId.toString())))
+                .thenAnswer(invocation -> Mono.just(new AccountEntity(accountId, name, Money.ZERO, Money.ZERO)));
+        Mockito.when(accountRepository.save(any()))
+                .thenReturn(Mono.error(new OptimisticLockingFailureException("conflict")));
+        Mockito.when(movementRepository.save(any()))
+                .thenReturn(Mono.never());
+
+        // act and assert
+        StepVerifier.create(movementR2DBCAdapter.deposit(accountId.toString(), Money.of(BigDecimal.TEN), LocalDateTime.now()))
+                .expectError(MovementConflictException.class)
+                .verify();
+
+        Assertions.assertEquals(2, meterRegistry.get("financial.optimistic_lock.conflicts").tag("operation", "deposit").counter().count());
+        Assertions.assertEquals(1, meterRegistry.get("financial.optimistic_lock.exhausted").tag("operation", "deposit").counter().count());
+    }
+
+    @Test
+    void conditionalWithdrawWithSuccess() {
+        // Arrange
+        final var accountId = UUID.randomUUID();
+        final var withdrawDate = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        final var amount = Money.of(BigDecimal.TEN);
+
+        final var debitedAccount = new AccountEntity(accountId, UUID.randomUUID().toString(), Money.of(new BigDecimal("5.00")), Money.ZERO);
+        debitedAccount.setLastMovementDate(withdrawDate);
+        Mockito.when(accountRepository.debit(eq(accountId), eq(amount.toBigDecimal()), eq(withdrawDate)))
+                .thenReturn(Mono.just(debitedAccount));
+
+        final var expectedMovement = new MovementEntity(
+                null,
+                accountId,
+                amount,
+                MovementType.DEBIT,
+                withdrawDate,
+                Money.of(new BigDecimal("5.00")),
+                null,
+                null
+        );
+        final var savedMovementEntity = new MovementEntity(
+                UUID.randomUUID(),
+                expectedMovement.getAccountId(),
+                expectedMovement.getAmount(),
+                expectedMovement.getType(),
+                expectedMovement.getDate(),
+                expectedMovement.getBalanceAfter(),
+                expectedMovement.getTransferId(),
+                expectedMovement.getCounterpartyAccountId()
+        );
+        Mockito.when(movementRepository.save(eq(expectedMovement)))
+                .thenReturn(Mono.just(savedMovementEntity));
+
+        Mockito.when(movementMapper.toMovement(any())).thenCallRealMethod();
+
+        // act and assert
+        StepVerifier.create(adapter(BalanceUpdateMode.CONDITIONAL).withdraw(accountId.toString(), amount, withdrawDate))
+                .assertNext(movement -> Assertions.assertEquals(savedMovementEntity.getId().toString(), movement.id()))
+                .verifyComplete();
+        Mockito.verify(accountRepository, Mockito.never()).findById(any(String.class));
+    }
+
+    @Test
+    void conditionalWithdrawWithoutBalanceOrLimitError() {
+        // Arrange
+        final var accountId = UUID.randomUUID().toString();
+        final var amount = Money.of(BigDecimal.TEN);
+
+        Mockito.when(accountRepository.debit(eq(UUID.fromString(accountId)), eq(amount.toBigDecimal()), any()))
+                .thenReturn(Mono.empty());
+        Mockito.when(accountRepository.existsById(eq(accountId)))
+                .thenReturn(Mono.just(true));
+
+        // act and assert
+        StepVerifier.create(adapter(BalanceUpdateMode.CONDITIONAL).withdraw(accountId, amount, LocalDateTime.now()))
+                .expectError(InsufficientBalanceException.class)
+                .verify();
+        Mockito.verify(movementRepository, Mockito.never()).save(any());
+    }
+
+    @Test
+    void conditionalWithdrawWithAccountNotFound() {
+        // Arrange
+        final var accountId = UUID.randomUUID().toString();
+        final var amount = Money.of(BigDecimal.TEN);
+
+        Mockito.when(accountRepository.debit(eq(UUID.fromString(accountId)), eq(amount.toBigDecimal()), any()))
+                .thenReturn(Mono.empty());
+        Mockito.when(accountRepository.existsById(eq(accountId)))
+                .thenReturn(Mono.just(false));
+
+        // act and assert
+        StepVerifier.create(adapter(BalanceUpdateMode.CONDITIONAL).withdraw(accountId, amount, LocalDateTime.now()))
+                .expectError(AccountNotFoundException.class)
+                .verify();
+    }
+}
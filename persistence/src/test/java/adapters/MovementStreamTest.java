@@ -0,0 +1,90 @@
+package adapters;
+
+import domain.model.Money;
+import domain.model.Movement;
+import domain.model.MovementType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import persistence.adapters.MovementStream;
+import persistence.adapters.MovementStreamProperties;
+import persistence.entity.TimeOrderedUuid;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+class MovementStreamTest {
+
+    private static final LocalDateTime DATE = LocalDateTime.of(2023, 10, 31, 18, 0);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final MovementStream movementStream = new MovementStream(new MovementStreamProperties(4), meterRegistry);
+
+    private final String accountId = UUID.randomUUID().toString();
+
+    @Test
+    void catchUpThenLiveMovementsWithoutDuplicates() {
+        // Arrange
+        final var missed = movement(accountId, DATE);
+        final var committedDuringCatchUp = movement(accountId, DATE.plusSeconds(1));
+        final var live = movement(accountId, DATE.plusSeconds(2));
+        final var catchUp = Sinks.many().unicast().<Movement>onBackpressureBuffer();
+
+        // act and assert
+        StepVerifier.create(movementStream.stream(accountId, catchUp.asFlux()))
+                .then(() -> {
+                    movementStream.publish(committedDuringCatchUp);
+                    catchUp.tryEmitNext(missed);
+                    catchUp.tryEmitNext(committedDuringCatchUp);
+                    catchUp.tryEmitComplete();
+                    movementStream.publish(live);
+                    movementStream.publish(movement(UUID.randomUUID().toString(), DATE.plusSeconds(3)));
+                })
+                .expectNext(missed, committedDuringCatchUp, live)
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+        Assertions.assertFalse(movementStream.isWatched(accountId));
+        Assertions.assertEquals(0, meterRegistry.get("financial.movement_stream.subscribers").gauge().value());
+    }
+
+    @Test
+    void slowSubscriberStreamCompletesOnceItsBufferIsFull() {
+        // act and assert
+        StepVerifier.create(movementStream.stream(accountId, Flux.never()))
+                .then(() -> {
+                    for (int i = 0; i < 10; i++) {
+                        movementStream.publish(movement(accountId, DATE.plusSeconds(i)));
+                    }
+                })
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+        Assertions.assertEquals(1, meterRegistry.get("financial.movement_stream.dropped").counter().count());
+    }
+
+    @Test
+    void otherSubscribersKeepReceivingWhenOneFallsBehind() {
+        // Arrange
+        final var slow = movementStream.stream(accountId, Flux.never()).subscribe();
+
+        // act and assert
+        StepVerifier.create(movementStream.stream(accountId, Flux.empty()))
+                .then(() -> {
+                    for (int i = 0; i < 10; i++) {
+                        movementStream.publish(movement(accountId, DATE.plusSeconds(i)));
+                    }
+                })
+                .expectNextCount(10)
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+        Assertions.assertEquals(1, meterRegistry.get("financial.movement_stream.dropped").counter().count());
+        slow.dispose();
+    }
+
+    private static Movement movement(final String accountId, final LocalDateTime date) {
+        return new Movement(TimeOrderedUuid.next().toString(), accountId, Money.ofMinorUnits(100), MovementType.CREDIT, date);
+    }
+}
@@ -0,0 +1,81 @@
+package adapters;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import persistence.adapters.PersistenceScheduler;
+import persistence.adapters.PersistenceSchedulerProperties;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class PersistenceSchedulerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private PersistenceScheduler persistenceScheduler;
+
+    @AfterEach
+    void tearDown() {
+        persistenceScheduler.close();
+    }
+
+    @Test
+    void subscribesCallsOnPersistenceThreads() {
+        // Arrange
+        persistenceScheduler = new PersistenceScheduler(new PersistenceSchedulerProperties(true, 2, 10), meterRegistry);
+
+        // act and assert
+        StepVerifier.create(persistenceScheduler.mono(Mono.fromSupplier(() -> Thread.currentThread().getName())))
+                .assertNext(thread -> Assertions.assertTrue(thread.startsWith("persistence"), thread))
+                .verifyComplete();
+        StepVerifier.create(persistenceScheduler.flux(Flux.defer(() -> Flux.just(Thread.currentThread().getName()))))
+                .assertNext(thread -> Assertions.assertTrue(thread.startsWith("persistence"), thread))
+                .verifyComplete();
+
+        Assertions.assertEquals(2, meterRegistry.get("financial.persistence.scheduler.wait").timer().count());
+    }
+
+    @Test
+    void rejectsCallsBeyondTheQueue() throws Exception {
+        // Arrange
+        persistenceScheduler = new PersistenceScheduler(new PersistenceSchedulerProperties(true, 1, 1), meterRegistry);
+        final var started = new CountDownLatch(1);
+        final var release = new CountDownLatch(1);
+        final var running = persistenceScheduler.mono(Mono.fromCallable(() -> {
+            started.countDown();
+            return release.await(5, TimeUnit.SECONDS);
+        })).toFuture();
+        started.await();
+        final var queued = persistenceScheduler.mono(Mono.just("queued")).toFuture();
+
+        // act and assert
+        StepVerifier.create(persistenceScheduler.mono(Mono.just("rejected")))
+                .expectError(RejectedExecutionException.class)
+                .verify(Duration.ofSeconds(5));
+        Assertions.assertEquals(1, meterRegistry.get("financial.persistence.scheduler.rejected").counter().count());
+        Assertions.assertEquals(1, meterRegistry.get("financial.persistence.scheduler.queued").gauge().value());
+
+        release.countDown();
+        Assertions.assertEquals("queued", queued.get(5, TimeUnit.SECONDS));
+        Assertions.assertTrue(running.get(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(0, meterRegistry.get("financial.persistence.scheduler.queued").gauge().value());
+    }
+
+    @Test
+    void keepsCallsOnTheCallerWhenDisabled() {
+        // Arrange
+        persistenceScheduler = new PersistenceScheduler(new PersistenceSchedulerProperties(false, 2, 10), meterRegistry);
+        final var caller = Thread.currentThread().getName();
+
+        // act and assert
+        StepVerifier.create(persistenceScheduler.mono(Mono.fromSupplier(() -> Thread.currentThread().getName())))
+                .expectNext(caller)
+                .verifyComplete();
+    }
+}
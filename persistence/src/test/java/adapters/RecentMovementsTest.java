@@ -0,0 +1,140 @@
+package adapters;
+
+import domain.model.Money;
+import domain.model.Movement;
+import domain.model.MovementType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import persistence.adapters.RecentMovements;
+import persistence.adapters.RecentMovementsProperties;
+import persistence.entity.TimeOrderedUuid;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+class RecentMovementsTest {
+
+    private static final LocalDateTime DATE = LocalDateTime.of(2023, 10, 31, 18, 0);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final RecentMovements recentMovements = new RecentMovements(
+            new RecentMovementsProperties(true, 4, 100, Duration.ofMinutes(1)), meterRegistry);
+
+    private final String accountId = UUID.randomUUID().toString();
+
+    @Test
+    void secondFirstPageServedFromMemory() {
+        // Arrange
+        final var history = List.of(movement(DATE.plusSeconds(1), MovementType.DEBIT), movement(DATE, MovementType.CREDIT));
+        final var loads = new AtomicInteger();
+
+        // act
+        final var loaded = firstPage(10, history, loads);
+        final var cached = firstPage(10, history, loads);
+
+        // assert
+        Assertions.assertEquals(history, loaded);
+        Assertions.assertEquals(history, cached);
+        Assertions.assertEquals(1, loads.get());
+        Assertions.assertEquals(0.5, meterRegistry.get("financial.recent_movements.hit_rate").gauge().value());
+    }
+
+    @Test
+    void pageReachingPastTheHeldMovementsIsReadFromDatabase() {
+        // Arrange
+        final var history = List.of(
+                movement(DATE.plusMinutes(3), MovementType.CREDIT),
+                movement(DATE.plusMinutes(2), MovementType.DEBIT),
+                movement(DATE.plusMinutes(1), MovementType.CREDIT),
+                movement(DATE, MovementType.CREDIT));
+        firstPage(1, history, new AtomicInteger());
+
+        // act
+        final var debits = recentMovements.firstPage(accountId, null, movement -> movement.type() == MovementType.DEBIT, 2, limit -> Flux.empty())
+                .blockOptional();
+        final var afterOldest = recentMovements.firstPage(accountId, DATE.plusSeconds(30), movement -> !movement.date().isBefore(DATE.plusSeconds(30)), 10, limit -> Flux.empty())
+                .blockOptional();
+
+        // assert
+        Assertions.assertTrue(debits.isEmpty());
+        Assertions.assertEquals(history.subList(0, 3), afterOldest.orElseThrow());
+    }
+
+    @Test
+    void writtenMovementsKeepTheNewestHeld() {
+        // Arrange
+        final var history = List.of(
+                movement(DATE.plusMinutes(3), MovementType.CREDIT),
+                movement(DATE.plusMinutes(2), MovementType.CREDIT),
+                movement(DATE.plusMinutes(1), MovementType.CREDIT),
+                movement(DATE, MovementType.CREDIT));
+        firstPage(1, history, new AtomicInteger());
+        final var newest = movement(DATE.plusMinutes(4), MovementType.DEBIT);
+
+        // act
+        recentMovements.written(newest);
+        recentMovements.written(movement(DATE.minusMinutes(1), MovementType.DEBIT));
+
+        // assert
+        final var page = recentMovements.firstPage(accountId, null, movement -> true, 4, limit -> Flux.empty()).block();
+        Assertions.assertEquals(List.of(newest, history.get(0), history.get(1), history.get(2)), page);
+        Assertions.assertTrue(recentMovements.firstPage(accountId, null, movement -> true, 5, limit -> Flux.empty()).blockOptional().isEmpty());
+    }
+
+    @Test
+    void loadFinishedAfterWriteIsNotInstalled() {
+        // Arrange
+        final var slowLoad = Sinks.many().unicast().<Movement>onBackpressureBuffer();
+        final var pendingRead = recentMovements.firstPage(accountId, null, movement -> true, 10, limit -> slowLoad.asFlux()).toFuture();
+
+        // act
+        recentMovements.written(movement(DATE.plusSeconds(1), MovementType.CREDIT));
+        slowLoad.tryEmitNext(movement(DATE, MovementType.CREDIT));
+        slowLoad.tryEmitComplete();
+        pendingRead.join();
+
+        // assert
+        final var loads = new AtomicInteger();
+        firstPage(10, List.of(), loads);
+        Assertions.assertEquals(1, loads.get());
+    }
+
+    @Test
+    void transferDropsTheCounterpartyAccount() {
+        // Arrange
+        final var counterpartyId = UUID.randomUUID().toString();
+        final var loads = new AtomicInteger();
+        recentMovements.firstPage(counterpartyId, null, movement -> true, 10, limit -> {
+            loads.incrementAndGet();
+            return Flux.empty();
+        }).block();
+
+        // act
+        recentMovements.written(new Movement(TimeOrderedUuid.next().toString(), accountId, Money.ofMinorUnits(100),
+                MovementType.DEBIT, DATE, UUID.randomUUID().toString(), counterpartyId));
+
+        // assert
+        recentMovements.firstPage(counterpartyId, null, movement -> true, 10, limit -> {
+            loads.incrementAndGet();
+            return Flux.empty();
+        }).block();
+        Assertions.assertEquals(2, loads.get());
+    }
+
+    private List<Movement> firstPage(final int count, final List<Movement> history, final AtomicInteger loads) {
+        return recentMovements.firstPage(accountId, null, movement -> true, count, limit -> {
+            loads.incrementAndGet();
+            return Flux.fromIterable(history).take(limit);
+        }).block();
+    }
+
+    private Movement movement(final LocalDateTime date, final MovementType type) {
+        return new Movement(TimeOrderedUuid.next().toString(), accountId, Money.ofMinorUnits(100), type, date);
+    }
+}
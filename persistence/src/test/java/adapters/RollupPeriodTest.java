@@ -0,0 +1,61 @@
+package adapters;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import persistence.adapters.RollupPeriod;
+
+class RollupPeriodTest {
+
+    @Test
+    void wholeDaysOfDatePeriodLeaveNoPartialDay() {
+        // Arrange
+        final var start = LocalDate.of(2023, 1, 1).atStartOfDay();
+        final var end = LocalDate.of(2023, 12, 31).atStartOfDay().plusDays(1).minusNanos(1);
+
+        // act
+        final var period = RollupPeriod.of(start, end);
+
+        // assert
+        Assertions.assertEquals(LocalDate.of(2023, 1, 1), period.firstDay());
+        Assertions.assertEquals(LocalDate.of(2023, 12, 31), period.lastDay());
+        Assertions.assertFalse(period.hasPartialDays());
+        Assertions.assertFalse(period.inPartialDay(LocalDateTime.of(2023, 6, 1, 12, 0)));
+    }
+
+    @Test
+    void partialEdgesAreReadFromMovements() {
+        // Arrange
+        final var start = LocalDateTime.of(2023, 1, 1, 10, 0);
+        final var end = LocalDateTime.of(2023, 1, 5, 8, 0);
+
+        // act
+        final var period = RollupPeriod.of(start, end);
+
+        // assert
+        Assertions.assertEquals(LocalDate.of(2023, 1, 2), period.firstDay());
+        Assertions.assertEquals(LocalDate.of(2023, 1, 4), period.lastDay());
+        Assertions.assertTrue(period.inPartialDay(LocalDateTime.of(2023, 1, 1, 10, 0)));
+        Assertions.assertFalse(period.inPartialDay(LocalDateTime.of(2023, 1, 1, 9, 59)));
+        Assertions.assertFalse(period.inPartialDay(LocalDateTime.of(2023, 1, 2, 0, 0)));
+        Assertions.assertTrue(period.inPartialDay(LocalDateTime.of(2023, 1, 5, 0, 0)));
+        Assertions.assertTrue(period.inPartialDay(LocalDateTime.of(2023, 1, 5, 8, 0)));
+        Assertions.assertFalse(period.inPartialDay(LocalDateTime.of(2023, 1, 5, 8, 1)));
+    }
+
+    @Test
+    void periodWithinOneDayIsOnlyPartial() {
+        // Arrange
+        final var start = LocalDateTime.of(2023, 1, 1, 10, 0);
+        final var end = LocalDateTime.of(2023, 1, 1, 18, 0);
+
+        // act
+        final var period = RollupPeriod.of(start, end);
+
+        // assert
+        Assertions.assertFalse(period.hasWholeDays());
+        Assertions.assertTrue(period.inPartialDay(LocalDateTime.of(2023, 1, 1, 12, 0)));
+        Assertions.assertFalse(period.inPartialDay(LocalDateTime.of(2023, 1, 1, 19, 0)));
+    }
+}
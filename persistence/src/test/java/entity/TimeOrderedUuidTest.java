@@ -0,0 +1,37 @@
+package entity;
+
+import java.util.UUID;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import persistence.entity.TimeOrderedUuid;
+
+class TimeOrderedUuidTest {
+
+    @Test
+    void versionSevenWithTheCurrentTime() {
+        // Arrange
+        final var before = System.currentTimeMillis();
+
+        // act
+        final var id = TimeOrderedUuid.next();
+
+        // assert
+        Assertions.assertEquals(7, id.version());
+        Assertions.assertEquals(2, id.variant());
+        Assertions.assertTrue(id.getMostSignificantBits() >>> 16 >= before);
+        Assertions.assertEquals(id, UUID.fromString(id.toString()));
+    }
+
+    @Test
+    void idsSortInGenerationOrder() {
+        // act and assert
+        var previous = TimeOrderedUuid.next();
+        for (int i = 0; i < 100_000; i++) {
+            final var id = TimeOrderedUuid.next();
+            // H2 compares the halves unsigned, UUID.compareTo signed: both must agree
+            Assertions.assertTrue(Long.compareUnsigned(previous.getMostSignificantBits(), id.getMostSignificantBits()) < 0, previous + " before " + id);
+            Assertions.assertTrue(previous.compareTo(id) < 0, previous + " before " + id);
+            previous = id;
+        }
+    }
+}
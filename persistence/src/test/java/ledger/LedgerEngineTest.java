@@ -0,0 +1,263 @@
+package ledger;
+
+import domain.exception.AccountNotFoundException;
+import domain.exception.InsufficientBalanceException;
+import domain.model.Account;
+import domain.model.Money;
+import domain.model.MovementTotals;
+import domain.model.MovementType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import persistence.adapters.RollupPeriod;
+import persistence.ledger.LedgerEngine;
+import persistence.ledger.LedgerMovement;
+import persistence.ledger.LedgerProperties;
+
+class LedgerEngineTest {
+
+    @TempDir
+    Path directory;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void depositAndWithdrawUpdateBalance() {
+        try (var engine = new LedgerEngine(properties(2), meterRegistry)) {
+            final var account = createAccount(engine, Money.ZERO);
+
+            engine.deposit(id(account), Money.of(BigDecimal.TEN), LocalDateTime.now()).join();
+            engine.withdraw(id(account), Money.of(BigDecimal.ONE), LocalDateTime.now()).join();
+
+            Assertions.assertEquals(Money.of(new BigDecimal("9.00")), balance(engine, account));
+        }
+    }
+
+    @Test
+    void balanceAsOfEachMovement() {
+        try (var engine = new LedgerEngine(properties(2), meterRegistry)) {
+            final var account = createAccount(engine, Money.ZERO);
+            final var start = LocalDateTime.of(2023, 1, 1, 10, 0);
+
+            engine.deposit(id(account), Money.of(BigDecimal.TEN), start).join();
+            engine.withdraw(id(account), Money.of(BigDecimal.ONE), start.plusHours(1)).join();
+
+            Assertions.assertEquals(Money.ZERO, engine.findBalanceAsOf(id(account), start.minusNanos(1)).join().orElseThrow());
+            Assertions.assertEquals(Money.of(BigDecimal.TEN), engine.findBalanceAsOf(id(account), start.plusMinutes(30)).join().orElseThrow());
+            Assertions.assertEquals(Money.of(new BigDecimal("9.00")), engine.findBalanceAsOf(id(account), start.plusHours(1)).join().orElseThrow());
+            Assertions.assertTrue(engine.findBalanceAsOf(UUID.randomUUID(), start).join().isEmpty());
+
+            // a late movement takes the date of the latest one
+            Assertions.assertEquals(start.plusHours(1), engine.deposit(id(account), Money.of(BigDecimal.ONE), start).join().date());
+            Assertions.assertEquals(Money.of(BigDecimal.TEN), engine.findBalanceAsOf(id(account), start.plusHours(1)).join().orElseThrow());
+        }
+    }
+
+    @Test
+    void withdrawWithoutBalanceOrLimitError() {
+        try (var engine = new LedgerEngine(properties(2), meterRegistry)) {
+            final var account = createAccount(engine, Money.of(BigDecimal.ONE));
+
+            final var error = Assertions.assertThrows(CompletionException.class,
+                    () -> engine.withdraw(id(account), Money.of(BigDecimal.TEN), LocalDateTime.now()).join());
+
+            Assertions.assertInstanceOf(InsufficientBalanceException.class, error.getCause());
+            Assertions.assertEquals(Money.of(new BigDecimal("0.00")), balance(engine, account));
+        }
+    }
+
+    @Test
+    void transferToUnknownAccountError() {
+        try (var engine = new LedgerEngine(properties(2), meterRegistry)) {
+            final var account = createAccount(engine, Money.of(BigDecimal.TEN));
+
+            final var error = Assertions.assertThrows(CompletionException.class,
+                    () -> engine.transfer(id(account), UUID.randomUUID(), Money.of(BigDecimal.ONE), LocalDateTime.now()).join());
+
+            Assertions.assertInstanceOf(AccountNotFoundException.class, error.getCause());
+        }
+    }
+
+    @Test
+    void concurrentTransfersKeepTotalBalance() {
+        try (var engine = new LedgerEngine(properties(4), meterRegistry)) {
+            final var accounts = IntStream.range(0, 8)
+                    .mapToObj(i -> createAccount(engine, Money.ZERO))
+                    .toList();
+            accounts.forEach(account -> engine.deposit(id(account), Money.of(BigDecimal.valueOf(100)), LocalDateTime.now()).join());
+
+            final var transfers = IntStream.range(0, 2_000)
+                    .mapToObj(i -> engine.transfer(
+                            id(accounts.get(i % accounts.size())),
+                            id(accounts.get((i * 7 + 3) % accounts.size())),
+                            Money.of(BigDecimal.ONE),
+                            LocalDateTime.now()
+                    ).exceptionally(error -> null))
+                    .toArray(CompletableFuture[]::new);
+            CompletableFuture.allOf(transfers).join();
+
+            final var total = accounts.stream()
+                    .map(account -> balance(engine, account))
+                    .reduce(Money.ZERO, Money::plus);
+            Assertions.assertEquals(Money.of(new BigDecimal("800.00")), total);
+        }
+    }
+
+    @Test
+    void recoverFromSnapshotAndJournal() {
+        final Account account;
+        final Account creditAccount;
+        final LedgerMovement debit;
+        try (var engine = new LedgerEngine(new LedgerProperties(2, directory.toString(), 3, 16, false), meterRegistry)) {
+            account = createAccount(engine, Money.ZERO);
+            creditAccount = createAccount(engine, Money.ZERO);
+            IntStream.range(0, 10).forEach(i -> engine.deposit(id(account), Money.of(BigDecimal.ONE), LocalDateTime.now()).join());
+            debit = engine.transfer(id(account), id(creditAccount), Money.of(new BigDecimal("2.50")), LocalDateTime.now()).join();
+        }
+
+        // restart with a different number of shards
+        try (var engine = new LedgerEngine(properties(3), meterRegistry)) {
+            Assertions.assertEquals(Money.of(new BigDecimal("7.50")), balance(engine, account));
+            Assertions.assertEquals(Money.of(new BigDecimal("2.50")), balance(engine, creditAccount));
+            Assertions.assertEquals(11, engine.findMovements(id(account), movement -> true, 0, 100).join().size());
+            Assertions.assertEquals(1, engine.findMovements(id(creditAccount), movement -> true, 0, 100).join().size());
+            Assertions.assertEquals(new MovementTotals(Money.of(BigDecimal.TEN), Money.of(new BigDecimal("2.50"))),
+                    engine.sumMovements(id(account), RollupPeriod.of(LocalDateTime.of(2000, 1, 1, 0, 0), LocalDateTime.of(3000, 1, 1, 0, 0))).join());
+            final var legs = engine.findTransfer(debit.transferId()).join();
+            Assertions.assertEquals(List.of(debit.id(), id(creditAccount)), List.of(legs.get(0).id(), legs.get(1).accountId()));
+            Assertions.assertEquals(id(account), legs.get(1).counterpartyId());
+        }
+    }
+
+    @Test
+    void movementPagesReadNewestFirst() {
+        try (var engine = new LedgerEngine(properties(2), meterRegistry)) {
+            final var account = createAccount(engine, Money.ZERO);
+            final var start = LocalDateTime.of(2023, 1, 1, 10, 0);
+            final var deposits = IntStream.range(0, 5)
+                    .mapToObj(i -> engine.deposit(id(account), Money.of(BigDecimal.ONE), start.plusMinutes(i)).join())
+                    .toList();
+            engine.withdraw(id(account), Money.of(BigDecimal.ONE), start.plusMinutes(5)).join();
+
+            final var page = engine.findMovements(id(account), movement -> movement.type() == MovementType.CREDIT, 1, 2).join();
+
+            Assertions.assertEquals(List.of(deposits.get(2), deposits.get(1)), page);
+            Assertions.assertTrue(engine.findMovements(id(account), movement -> true, 3, 2).join().isEmpty());
+        }
+    }
+
+    @Test
+    void transferInterruptedBetweenItsLegsCompletedOnRestart() throws IOException {
+        final var crashed = new LedgerEngine(properties(2), meterRegistry);
+        final var account = createAccount(crashed, Money.ZERO);
+        final var creditAccount = Stream.generate(() -> createAccount(crashed, Money.ZERO))
+                .filter(created -> shard(created, 2) != shard(account, 2))
+                .findFirst()
+                .orElseThrow();
+        crashed.deposit(id(account), Money.of(BigDecimal.TEN), LocalDateTime.now()).join();
+        final var creditJournal = journal(shard(creditAccount, 2));
+        final var beforeCredit = Files.readAllBytes(creditJournal);
+        final var debit = crashed.transfer(id(account), id(creditAccount), Money.of(new BigDecimal("2.50")), LocalDateTime.now()).join();
+        crashed.close();
+        // the process stopped once the debit was durable, before the credit reached the disk
+        Files.write(creditJournal, beforeCredit);
+
+        try (var engine = new LedgerEngine(properties(2), meterRegistry)) {
+            Assertions.assertEquals(Money.of(new BigDecimal("7.50")), balance(engine, account));
+            Assertions.assertEquals(Money.of(new BigDecimal("2.50")), balance(engine, creditAccount));
+            final var credit = engine.findMovements(id(creditAccount), movement -> true, 0, 100).join();
+            Assertions.assertEquals(1, credit.size());
+            Assertions.assertEquals(debit.transferId(), credit.get(0).transferId());
+            Assertions.assertEquals(debit.date(), credit.get(0).date());
+        }
+
+        // the repaired credit was written to the new generation, not applied again
+        try (var engine = new LedgerEngine(properties(2), meterRegistry)) {
+            Assertions.assertEquals(Money.of(new BigDecimal("2.50")), balance(engine, creditAccount));
+            Assertions.assertEquals(2, engine.findTransfer(debit.transferId()).join().size());
+        }
+    }
+
+    @Test
+    void recoverLongHistoryWrittenAcrossSnapshots() {
+        final Account account;
+        try (var engine = new LedgerEngine(new LedgerProperties(1, directory.toString(), 100, 16, false), meterRegistry)) {
+            account = createAccount(engine, Money.ZERO);
+            IntStream.range(0, 1_000).forEach(i -> engine.deposit(id(account), Money.ofMinorUnits(i + 1), LocalDateTime.now()).join());
+        }
+
+        try (var engine = new LedgerEngine(properties(2), meterRegistry)) {
+            Assertions.assertEquals(Money.ofMinorUnits(500_500), balance(engine, account));
+            final var movements = engine.findMovements(id(account), movement -> true, 0, Integer.MAX_VALUE).join();
+            Assertions.assertEquals(1_000, movements.size());
+            Assertions.assertEquals(Money.ofMinorUnits(1_000), movements.get(0).amount());
+            Assertions.assertEquals(Money.ofMinorUnits(1), movements.get(999).amount());
+        }
+    }
+
+    @Test
+    void failedSnapshotCountedAndItsJournalReplayed() throws IOException {
+        final Account account;
+        try (var engine = new LedgerEngine(new LedgerProperties(1, directory.toString(), 3, 16, false), meterRegistry)) {
+            // a folder where the snapshot is written first makes every snapshot of the shard fail
+            Files.createDirectory(journal(0).resolveSibling("shard-0.snapshot.tmp"));
+            account = createAccount(engine, Money.ZERO);
+            IntStream.range(0, 10).forEach(i -> engine.deposit(id(account), Money.of(BigDecimal.ONE), LocalDateTime.now()).join());
+        }
+
+        Assertions.assertTrue(meterRegistry.get("financial.ledger.snapshot.failures").counter().count() > 0);
+        try (var engine = new LedgerEngine(properties(1), meterRegistry)) {
+            Assertions.assertEquals(Money.of(BigDecimal.TEN), balance(engine, account));
+            Assertions.assertEquals(10, engine.findMovements(id(account), movement -> true, 0, 100).join().size());
+        }
+    }
+
+    @Test
+    void closedEngineFailsNewCommands() {
+        final var engine = new LedgerEngine(properties(2), meterRegistry);
+        final var account = createAccount(engine, Money.ZERO);
+        engine.close();
+
+        final var error = Assertions.assertThrows(CompletionException.class,
+                () -> engine.deposit(id(account), Money.of(BigDecimal.ONE), LocalDateTime.now()).join());
+
+        Assertions.assertInstanceOf(IllegalStateException.class, error.getCause());
+    }
+
+    private LedgerProperties properties(final int shards) {
+        return new LedgerProperties(shards, directory.toString(), 100_000, 1024, false);
+    }
+
+    private Path journal(final int shard) throws IOException {
+        final var generation = directory.resolve(Files.readString(directory.resolve("CURRENT")).trim());
+        return generation.resolve("shard-" + shard + ".journal");
+    }
+
+    private static int shard(final Account account, final int shards) {
+        return Math.floorMod(id(account).hashCode(), shards);
+    }
+
+    private static Account createAccount(final LedgerEngine engine, final Money limit) {
+        return engine.createAccount(UUID.randomUUID().toString(), limit).join();
+    }
+
+    private static Money balance(final LedgerEngine engine, final Account account) {
+        return engine.findAccount(id(account)).join().orElseThrow().balance();
+    }
+
+    private static UUID id(final Account account) {
+        return UUID.fromString(account.id());
+    }
+}
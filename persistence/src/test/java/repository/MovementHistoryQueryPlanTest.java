@@ -0,0 +1,199 @@
+package repository;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.UUID;
+import liquibase.Liquibase;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.resource.ClassLoaderResourceAccessor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks, through H2 {@code EXPLAIN}, that the movement history queries of {@code MovementRepository} are answered by
+ * the history indexes in date order instead of scanning and sorting the account movements.
+ */
+class MovementHistoryQueryPlanTest {
+
+    private static final UUID ACCOUNT_ID = UUID.randomUUID();
+
+    private Connection connection;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        connection = DriverManager.getConnection("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        new Liquibase("db/changelog/liquibase-changelog.xml", new ClassLoaderResourceAccessor(), new JdbcConnection(connection))
+                .update("");
+
+        try (var statement = connection.createStatement()) {
+            statement.execute("INSERT INTO Account (id, version, name) VALUES ('" + ACCOUNT_ID + "', 0, 'history')");
+            statement.execute("INSERT INTO Movement (account_id, amount, type, date) "
+                    + "SELECT '" + ACCOUNT_ID + "', 1.00, CASEWHEN(MOD(X, 2) = 0, 'CREDIT', 'DEBIT'), "
+                    + "DATEADD('MINUTE', X, TIMESTAMP '2023-01-01 00:00:00') FROM SYSTEM_RANGE(1, 5000)");
+            statement.execute("ANALYZE");
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        try (var statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+        }
+        connection.close();
+    }
+
+    @Test
+    void movementsByPeriodUseAccountDateIndex() throws SQLException {
+        // act
+        final var plan = explain("SELECT * FROM Movement WHERE account_id = '" + ACCOUNT_ID + "' "
+                + "AND date BETWEEN TIMESTAMP '2023-01-01 00:00:00' AND TIMESTAMP '2023-01-02 00:00:00' "
+                + "ORDER BY account_id ASC, date DESC, id DESC LIMIT 100 OFFSET 0");
+
+        // assert
+        Assertions.assertTrue(plan.contains("IDX_MOVEMENT_ACCOUNT_DATE_ID"), plan);
+        Assertions.assertTrue(plan.contains("index sorted"), plan);
+    }
+
+    @Test
+    void movementsByTypeUseAccountTypeDateIndex() throws SQLException {
+        // act
+        final var plan = explain("SELECT * FROM Movement WHERE account_id = '" + ACCOUNT_ID + "' AND type = 'CREDIT' "
+                + "ORDER BY account_id ASC, type ASC, date DESC, id DESC LIMIT 100 OFFSET 0");
+
+        // assert
+        Assertions.assertTrue(plan.contains("IDX_MOVEMENT_ACCOUNT_TYPE_DATE_ID"), plan);
+        Assertions.assertTrue(plan.contains("index sorted"), plan);
+    }
+
+    @Test
+    void movementsByPeriodAfterCursorSeekAccountDateIndex() throws SQLException {
+        // act
+        final var plan = explain("SELECT * FROM Movement WHERE account_id = '" + ACCOUNT_ID + "' "
+                + "AND date BETWEEN TIMESTAMP '2023-01-01 00:00:00' AND TIMESTAMP '2023-01-04 00:00:00' "
+                + "AND date <= TIMESTAMP '2023-01-02 00:00:00' "
+                + "AND (date < TIMESTAMP '2023-01-02 00:00:00' OR id < '" + UUID.randomUUID() + "') "
+                + "ORDER BY account_id ASC, date DESC, id DESC LIMIT 100");
+
+        // assert
+        Assertions.assertTrue(plan.contains("IDX_MOVEMENT_ACCOUNT_DATE_ID"), plan);
+        Assertions.assertTrue(plan.contains("DATE <= TIMESTAMP '2023-01-02 00:00:00'"), plan);
+        Assertions.assertTrue(plan.contains("index sorted"), plan);
+    }
+
+    @Test
+    void newestMovementsUseAccountDateIndexInOrder() throws SQLException {
+        // act
+        final var plan = explain("SELECT * FROM Movement WHERE account_id = '" + ACCOUNT_ID + "' "
+                + "AND date <= TIMESTAMP '9999-12-31 23:59:59' "
+                + "ORDER BY account_id ASC, date DESC, id DESC LIMIT 64");
+
+        // assert
+        Assertions.assertTrue(plan.contains("IDX_MOVEMENT_ACCOUNT_DATE_ID"), plan);
+        Assertions.assertTrue(plan.contains("index sorted"), plan);
+    }
+
+    @Test
+    void streamCatchUpSeeksAccountDateIndex() throws SQLException {
+        // act
+        final var plan = explain("SELECT * FROM Movement WHERE account_id = '" + ACCOUNT_ID + "' "
+                + "AND date >= TIMESTAMP '2023-01-02 00:00:00' "
+                + "AND (date > TIMESTAMP '2023-01-02 00:00:00' OR id > '" + UUID.randomUUID() + "') "
+                + "ORDER BY date ASC, id ASC");
+
+        // assert
+        Assertions.assertTrue(plan.contains("IDX_MOVEMENT_ACCOUNT_DATE"), plan);
+        Assertions.assertTrue(plan.contains("DATE >= TIMESTAMP '2023-01-02 00:00:00'"), plan);
+    }
+
+    @Test
+    void totalsReadRollupsByPrimaryKey() throws SQLException {
+        // act
+        final var plan = explain("SELECT credits, debits FROM MovementDailyRollup WHERE account_id = '" + ACCOUNT_ID + "' "
+                + "AND movement_date BETWEEN DATE '2023-01-01' AND DATE '2023-12-31'");
+
+        // assert
+        Assertions.assertTrue(plan.contains("PRIMARY_KEY"), plan);
+        Assertions.assertTrue(plan.contains("MOVEMENT_DATE >= DATE '2023-01-01'"), plan);
+    }
+
+    @Test
+    void balanceAsOfSeeksAccountDateIndex() throws SQLException {
+        // act
+        final var plan = explain("SELECT * FROM Movement WHERE account_id = '" + ACCOUNT_ID + "' "
+                + "AND date <= TIMESTAMP '2023-01-02 00:00:00' "
+                + "ORDER BY account_id ASC, date DESC, id DESC LIMIT 1");
+
+        // assert
+        Assertions.assertTrue(plan.contains("IDX_MOVEMENT_ACCOUNT_DATE_ID"), plan);
+        Assertions.assertTrue(plan.contains("index sorted"), plan);
+    }
+
+    @Test
+    void migrationBackfillsBalanceAfter() throws Exception {
+        // act
+        try (var statement = connection.createStatement()) {
+            new Liquibase("db/changelog/liquibase-changelog.xml", new ClassLoaderResourceAccessor(), new JdbcConnection(connection))
+                    .rollback(2, "");
+            new Liquibase("db/changelog/liquibase-changelog.xml", new ClassLoaderResourceAccessor(), new JdbcConnection(connection))
+                    .update("");
+
+            // assert
+            try (var result = statement.executeQuery("SELECT balance_after FROM Movement WHERE account_id = '" + ACCOUNT_ID + "' "
+                    + "AND date <= TIMESTAMP '2023-01-01 00:03:00' ORDER BY date DESC LIMIT 1")) {
+                result.next();
+                // minutes 1 to 3: debit, credit, debit
+                Assertions.assertEquals(new BigDecimal("-1.00"), result.getBigDecimal(1));
+            }
+        }
+    }
+
+    @Test
+    void transferLegsSeekTransferIndex() throws SQLException {
+        // act
+        final var plan = explain("SELECT * FROM Movement WHERE transfer_id = '" + UUID.randomUUID() + "' ORDER BY type DESC");
+
+        // assert
+        Assertions.assertTrue(plan.contains("IDX_MOVEMENT_TRANSFER_ID"), plan);
+    }
+
+    @Test
+    void migrationMovesTransferCounterpartyOutOfDescription() throws Exception {
+        // Arrange
+        final var counterpartyId = UUID.randomUUID();
+        try (var statement = connection.createStatement()) {
+            new Liquibase("db/changelog/liquibase-changelog.xml", new ClassLoaderResourceAccessor(), new JdbcConnection(connection))
+                    .rollback(1, "");
+            // Liquibase leaves auto-commit off
+            connection.setAutoCommit(true);
+            statement.execute("INSERT INTO Movement (account_id, description, amount, type, date) VALUES ('" + ACCOUNT_ID + "', "
+                    + "'Transfer to account " + counterpartyId + "', 1.00, 'DEBIT', TIMESTAMP '2024-01-01 00:00:00')");
+
+            // act
+            new Liquibase("db/changelog/liquibase-changelog.xml", new ClassLoaderResourceAccessor(), new JdbcConnection(connection))
+                    .update("");
+
+            // assert
+            try (var result = statement.executeQuery("SELECT counterparty_account_id FROM Movement WHERE account_id = '" + ACCOUNT_ID + "' "
+                    + "AND date = TIMESTAMP '2024-01-01 00:00:00'")) {
+                result.next();
+                Assertions.assertEquals(counterpartyId, result.getObject(1, UUID.class));
+            }
+            try (var result = statement.executeQuery("SELECT COUNT(*) FROM Movement WHERE counterparty_account_id IS NOT NULL")) {
+                result.next();
+                Assertions.assertEquals(1, result.getInt(1));
+            }
+        }
+    }
+
+    private String explain(final String query) throws SQLException {
+        try (var statement = connection.createStatement();
+             var result = statement.executeQuery("EXPLAIN " + query)) {
+            result.next();
+            return result.getString(1);
+        }
+    }
+}